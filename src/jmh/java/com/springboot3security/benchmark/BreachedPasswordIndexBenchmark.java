@@ -0,0 +1,74 @@
+package com.springboot3security.benchmark;
+
+import com.springboot3security.util.BreachedPasswordIndex;
+import com.springboot3security.util.BreachedPasswordIndexBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Lookups in a memory-mapped index of generated breached passwords, including the SHA-1 of the candidate.
+// Raise -p entries to check that lookup time stays flat as the index grows
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BreachedPasswordIndexBenchmark {
+
+    @Param({"1000000"})
+    private int entries;
+
+    private Path directory;
+    private BreachedPasswordIndex index;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("breached-benchmark");
+        Path list = directory.resolve("breached.txt");
+        try (BufferedWriter writer = Files.newBufferedWriter(list)) {
+            for (int i = 0; i < entries; i++) {
+                writer.write("breached-" + i);
+                writer.newLine();
+            }
+        }
+        Path indexPath = directory.resolve("breached.idx");
+        BreachedPasswordIndexBuilder.build(list, indexPath, true, 1 << 20);
+        index = new BreachedPasswordIndex(indexPath);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public boolean breached() {
+        return index.isBreached("breached-" + (entries / 2));
+    }
+
+    @Benchmark
+    public boolean notBreached() {
+        return index.isBreached("ValidPassword1");
+    }
+}
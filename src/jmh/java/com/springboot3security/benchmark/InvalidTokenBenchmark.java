@@ -0,0 +1,85 @@
+package com.springboot3security.benchmark;
+
+import com.springboot3security.metrics.AuthMetrics;
+import com.springboot3security.util.JwtKeyRing;
+import com.springboot3security.util.JwtUtil;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.security.Key;
+import java.util.concurrent.TimeUnit;
+
+// Time to turn away one million bad tokens. validate is the filter's path: structural pre-checks, then one parse
+// whose failures come back as a result. parseAndThrow is the path it replaced, minus the logging: the parser
+// throws and the exception is wrapped, so every rejection pays for two stack traces.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvalidTokenBenchmark {
+
+    private static final int TOKENS = 1_000_000;
+
+    @Param({"MALFORMED", "TRUNCATED", "UNKNOWN_KEY", "WRONG_SIGNATURE", "EXPIRED"})
+    private TokenScenario scenario;
+
+    private JwtUtil jwtUtil;
+    private JwtParser parser;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtKeyRing keyRing = TokenScenario.keyRing();
+        jwtUtil = new JwtUtil(keyRing, new AuthMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT)));
+        parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        Key key = keyRing.getVerificationKey(header.getKeyId());
+                        if (key == null) {
+                            throw new SignatureException("Unknown signing key id: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+        token = scenario.token(keyRing);
+    }
+
+    @Benchmark
+    public void validate(Blackhole blackhole) {
+        for (int i = 0; i < TOKENS; i++) {
+            blackhole.consume(jwtUtil.validate(token));
+        }
+    }
+
+    @Benchmark
+    public void parseAndThrow(Blackhole blackhole) {
+        for (int i = 0; i < TOKENS; i++) {
+            try {
+                blackhole.consume(parser.parseSignedClaims(token).getPayload());
+            } catch (Exception e) {
+                blackhole.consume(new IllegalArgumentException("Failed to extract claim from token", e));
+            }
+        }
+    }
+}
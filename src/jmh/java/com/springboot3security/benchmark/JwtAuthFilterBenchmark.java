@@ -0,0 +1,104 @@
+package com.springboot3security.benchmark;
+
+import com.springboot3security.audit.AuditLog;
+import com.springboot3security.entity.UserInfo;
+import com.springboot3security.filter.JwtAuthFilter;
+import com.springboot3security.filter.VerifiedTokenCache;
+import com.springboot3security.metrics.AuthMetrics;
+import com.springboot3security.repository.RevokedTokenRepository;
+import com.springboot3security.repository.UserInfoRepository;
+import com.springboot3security.service.TokenRevocationService;
+import com.springboot3security.service.TokenVersionRegistry;
+import com.springboot3security.service.UserInfoDetails;
+import com.springboot3security.util.JwtKeyRing;
+import com.springboot3security.util.JwtUtil;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// One request through JwtAuthFilter.doFilterInternal (via doFilter) with an in-memory user lookup,
+// so the numbers cover parsing, verification and building the Authentication but no database
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthFilterBenchmark {
+
+    @Param({"VALID", "EXPIRED", "MALFORMED", "WRONG_SIGNATURE"})
+    private TokenScenario scenario;
+
+    @Param({"false", "true"})
+    private boolean stateless;
+
+    @Param({"false", "true"})
+    private boolean tokenCache;
+
+    private JwtAuthFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        JwtKeyRing keyRing = TokenScenario.keyRing();
+        // Same registry type as production so the cost of recording is part of the measurement
+        AuthMetrics metrics = new AuthMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+        UserInfo userInfo = new UserInfo();
+        userInfo.setUsername(TokenScenario.USERNAME);
+        userInfo.setPassword("password");
+        userInfo.setRole(TokenScenario.ROLES);
+        UserInfoDetails userDetails = new UserInfoDetails(userInfo);
+        UserDetailsService userDetailsService = username -> userDetails;
+
+        UserInfoRepository repository = Mockito.mock(UserInfoRepository.class);
+        Mockito.when(repository.findTokenVersionByUsername(TokenScenario.USERNAME)).thenReturn(Optional.of(0));
+        TokenVersionRegistry tokenVersions = new TokenVersionRegistry(repository, 60, 1000);
+
+        // Nothing revoked: every token takes the Bloom filter miss path, as almost all real traffic does
+        VerifiedTokenCache verifiedTokens = new VerifiedTokenCache(tokenCache, 1000, 300);
+        TokenRevocationService revocations = new TokenRevocationService(Mockito.mock(RevokedTokenRepository.class),
+                verifiedTokens, 100_000, 0.001);
+
+        filter = new JwtAuthFilter(userDetailsService, new JwtUtil(keyRing, metrics),
+                verifiedTokens, tokenVersions, revocations, metrics, Mockito.mock(AuditLog.class), stateless);
+        authorization = "Bearer " + scenario.token(keyRing);
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Authentication doFilter() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/user");
+        request.addHeader("Authorization", authorization);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
@@ -0,0 +1,86 @@
+package com.springboot3security.benchmark;
+
+import com.springboot3security.entity.UserInfo;
+import com.springboot3security.metrics.AuthMetrics;
+import com.springboot3security.service.UserInfoDetails;
+import com.springboot3security.util.JwtKeyRing;
+import com.springboot3security.util.JwtUtil;
+import com.springboot3security.util.TokenValidationResult;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Cost of issuing and of verifying one access token per jwt.signing.algorithm. Signing happens once per login
+// on this service; verification happens on every request, here or, with an asymmetric algorithm, on each consumer.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtSigningBenchmark {
+
+    @Param({"HS256", "RS256", "ES256", "EdDSA"})
+    private String algorithm;
+
+    private JwtUtil jwtUtil;
+    private UserInfoDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        String secret = Base64.getEncoder().encodeToString(TokenScenario.keyRing().getActiveKey().getEncoded());
+        JwtKeyRing keyRing = new JwtKeyRing(secret, "primary", "", algorithm, keyPair(algorithm), Map.of());
+        jwtUtil = new JwtUtil(keyRing, new AuthMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT)));
+        UserInfo userInfo = new UserInfo();
+        userInfo.setUsername(TokenScenario.USERNAME);
+        userInfo.setRole(TokenScenario.ROLES);
+        userDetails = new UserInfoDetails(userInfo);
+        token = jwtUtil.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtUtil.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public TokenValidationResult verify() {
+        return jwtUtil.validate(token);
+    }
+
+    private static KeyPair keyPair(String algorithm) throws Exception {
+        return switch (algorithm) {
+            case "HS256" -> null;
+            case "RS256" -> {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+                generator.initialize(2048);
+                yield generator.generateKeyPair();
+            }
+            case "ES256" -> {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+                yield generator.generateKeyPair();
+            }
+            case "EdDSA" -> KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+            default -> throw new IllegalArgumentException(algorithm);
+        };
+    }
+}
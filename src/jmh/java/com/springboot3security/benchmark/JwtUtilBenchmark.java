@@ -0,0 +1,73 @@
+package com.springboot3security.benchmark;
+
+import com.springboot3security.entity.UserInfo;
+import com.springboot3security.metrics.AuthMetrics;
+import com.springboot3security.service.UserInfoDetails;
+import com.springboot3security.util.JwtKeyRing;
+import com.springboot3security.util.JwtUtil;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+
+    @Param({"VALID", "EXPIRED", "MALFORMED", "WRONG_SIGNATURE"})
+    private TokenScenario scenario;
+
+    private JwtUtil jwtUtil;
+    private UserInfoDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtKeyRing keyRing = TokenScenario.keyRing();
+        // Same registry type as production so the cost of recording is part of the measurement
+        AuthMetrics metrics = new AuthMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+        jwtUtil = new JwtUtil(keyRing, metrics);
+        UserInfo userInfo = new UserInfo();
+        userInfo.setUsername(TokenScenario.USERNAME);
+        userInfo.setRole(TokenScenario.ROLES);
+        userDetails = new UserInfoDetails(userInfo);
+        token = scenario.token(keyRing);
+    }
+
+    // Independent of the scenario; JMH still runs it once per value, which doubles as a noise check
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(userDetails);
+    }
+
+    // Rejected tokens surface as IllegalArgumentException, which is part of the cost being measured
+    @Benchmark
+    public void extractUsername(Blackhole blackhole) {
+        try {
+            blackhole.consume(jwtUtil.extractUsername(token));
+        } catch (IllegalArgumentException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token, userDetails);
+    }
+}
@@ -0,0 +1,53 @@
+package com.springboot3security.benchmark;
+
+import com.springboot3security.util.BreachedPasswordIndex;
+import com.springboot3security.util.PasswordPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// The single-pass PasswordPolicy against the String.matches validator it replaced.
+// Add -prof gc to see the regex path's per-call allocation: -Djmh.args="PasswordPolicyBenchmark -prof gc"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordPolicyBenchmark {
+
+    // Valid, too short, and failing only on the last (digit) check
+    @Param({"ValidPassword1", "Short1", "NoDigitsAtAllHere"})
+    private String password;
+
+    private final PasswordPolicy policy = PasswordPolicy.defaults();
+    // Every rule enabled, including special characters and max repeats
+    private final PasswordPolicy allRules = new PasswordPolicy(8, 128, true, true, true, true, 2, true, 3, BreachedPasswordIndex.disabled());
+
+    @Benchmark
+    public boolean regexValidator() {
+        return password.length() >= 8
+                && password.matches(".*[A-Z].*")
+                && password.matches(".*[a-z].*")
+                && password.matches(".*\\d.*");
+    }
+
+    @Benchmark
+    public int passwordPolicy() {
+        return policy.evaluate(password, TokenScenario.USERNAME);
+    }
+
+    @Benchmark
+    public int passwordPolicyAllRules() {
+        return allRules.evaluate(password, TokenScenario.USERNAME);
+    }
+}
@@ -0,0 +1,63 @@
+package com.springboot3security.benchmark;
+
+import com.springboot3security.util.JwtKeyRing;
+import com.springboot3security.util.Role;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+import java.util.Base64;
+import java.util.Date;
+
+// Tokens presented to the benchmarks; all but VALID are rejected, so each exercises a different failure path
+public enum TokenScenario {
+    VALID,
+    EXPIRED,
+    MALFORMED,
+    WRONG_SIGNATURE,
+    // Signature cut off, as by a client that truncates the header
+    TRUNCATED,
+    // Signed with a key id this node does not hold, e.g. one retired after rotation
+    UNKNOWN_KEY;
+
+    static final String USERNAME = "benchmarkUser";
+    static final String ROLES = "ROLE_USER";
+
+    public static JwtKeyRing keyRing() {
+        return new JwtKeyRing(randomSecret(), "primary", "");
+    }
+
+    public String token(JwtKeyRing keyRing) {
+        long now = System.currentTimeMillis();
+        return switch (this) {
+            case VALID -> sign(keyRing, new Date(now), new Date(now + 1000 * 60 * 60 * 10));
+            case EXPIRED -> sign(keyRing, new Date(now - 1000 * 60 * 60 * 11), new Date(now - 1000 * 60 * 60));
+            case MALFORMED -> "not.a.jwt";
+            // Same kid, different secret: passes key lookup and fails on the signature check
+            case WRONG_SIGNATURE -> sign(keyRing(), new Date(now), new Date(now + 1000 * 60 * 60 * 10));
+            case TRUNCATED -> {
+                String valid = sign(keyRing, new Date(now), new Date(now + 1000 * 60 * 60 * 10));
+                yield valid.substring(0, valid.lastIndexOf('.') + 1);
+            }
+            case UNKNOWN_KEY -> sign(new JwtKeyRing(randomSecret(), "retired", ""), new Date(now), new Date(now + 1000 * 60 * 60 * 10));
+        };
+    }
+
+    private static String sign(JwtKeyRing keyRing, Date issuedAt, Date expiration) {
+        return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, keyRing.getActiveKeyId())
+                .setSubject(USERNAME)
+                // The compact role claim JwtUtil issues for ROLES
+                .claim("rb", Role.USER.bit())
+                .claim("ver", 0)
+                .setIssuedAt(issuedAt)
+                .setExpiration(expiration)
+                .signWith(keyRing.getActiveKey(), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    private static String randomSecret() {
+        return Base64.getEncoder().encodeToString(Keys.secretKeyFor(SignatureAlgorithm.HS256).getEncoded());
+    }
+}
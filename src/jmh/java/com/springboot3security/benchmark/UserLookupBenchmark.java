@@ -0,0 +1,96 @@
+package com.springboot3security.benchmark;
+
+import com.springboot3security.entity.UserInfo;
+import com.springboot3security.entity.UserSummary;
+import com.springboot3security.repository.UserInfoRepository;
+import com.springboot3security.service.UserInfoDetails;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.concurrent.TimeUnit;
+
+// Entity versus projection lookups of one user through the real repository on an in-memory H2 database.
+// Add -prof gc to compare allocation per lookup: -Djmh.args="UserLookupBenchmark -prof gc"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserLookupBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private UserInfoRepository repository;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpaOnlyConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:lookup;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.open-in-view=false",
+                        "logging.level.root=OFF")
+                .run();
+        repository = context.getBean(UserInfoRepository.class);
+
+        UserInfo userInfo = new UserInfo();
+        userInfo.setUsername(TokenScenario.USERNAME);
+        userInfo.setPassword("{bcrypt}$2a$10$abcdefghijklmnopqrstuuNQ3bNq6tqhDq3NRgRWbXuIEExEBDUpe");
+        userInfo.setRole(TokenScenario.ROLES);
+        repository.saveAndFlush(userInfo);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserInfoDetails authEntity() {
+        return repository.findByUsername(TokenScenario.USERNAME).map(UserInfoDetails::new).orElseThrow();
+    }
+
+    @Benchmark
+    public UserInfoDetails authProjection() {
+        return repository.findCredentialsByUsername(TokenScenario.USERNAME).map(UserInfoDetails::new).orElseThrow();
+    }
+
+    @Benchmark
+    public String infoEntity() {
+        return repository.findByUsername(TokenScenario.USERNAME).map(UserInfo::toString).orElseThrow();
+    }
+
+    @Benchmark
+    public String infoProjection() {
+        return repository.findSummaryByUsername(TokenScenario.USERNAME).map(UserSummary::toString).orElseThrow();
+    }
+
+    // Only the persistence layer, so the benchmark does not need the security configuration or a JWT secret
+    @Configuration
+    @ImportAutoConfiguration({DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+            TransactionAutoConfiguration.class})
+    @EntityScan(basePackageClasses = UserInfo.class)
+    @EnableJpaRepositories(basePackageClasses = UserInfoRepository.class)
+    static class JpaOnlyConfig {
+    }
+}
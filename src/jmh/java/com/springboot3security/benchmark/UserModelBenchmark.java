@@ -0,0 +1,40 @@
+package com.springboot3security.benchmark;
+
+import com.springboot3security.entity.UserInfo;
+import com.springboot3security.service.UserInfoDetails;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserModelBenchmark {
+
+    private UserInfo userInfo;
+
+    @Setup
+    public void setUp() {
+        userInfo = new UserInfo();
+        userInfo.setUsername(TokenScenario.USERNAME);
+        userInfo.setPassword("{bcrypt}$2a$10$abcdefghijklmnopqrstuuNQ3bNq6tqhDq3NRgRWbXuIEExEBDUpe");
+        userInfo.setRole(TokenScenario.ROLES);
+    }
+
+    @Benchmark
+    public UserInfoDetails userInfoDetails() {
+        return new UserInfoDetails(userInfo);
+    }
+}
@@ -4,8 +4,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class Springboot3SecurityApplication {
 	private static final Logger logger = LoggerFactory.getLogger(Springboot3SecurityApplication.class);
 	public static void main(String[] args) {
@@ -0,0 +1,251 @@
+package com.springboot3security.audit;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot3security.entity.AuditEvent;
+import com.springboot3security.metrics.AuthMetrics;
+import com.springboot3security.repository.AuditEventRepository;
+import com.springboot3security.util.ConcurrentRingBuffer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Security audit trail. record() only puts the event on a bounded lock-free ring buffer, so request threads never
+// wait on audit I/O; when the buffer is full the event is dropped and counted instead. One writer thread drains the
+// buffer in batches of up to audit.batch-size into the audit_events table (one JDBC batch per drain) and/or a
+// rolling JSON-lines file at audit.file.path, and sleeps for audit.flush-interval-millis whenever it has caught up.
+@Service
+public class AuditLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLog.class);
+    // Column sizes of audit_events; usernames come straight from requests and one oversized value would fail a batch
+    private static final int MAX_TEXT = 255;
+    private static final int MAX_CLIENT_IP = 64;
+    private static final String INSERT_EVENT =
+            "insert into audit_events (occurred_at, type, username, client_ip, detail) values (?, ?, ?, ?, ?)";
+
+    private final ConcurrentRingBuffer<AuditEvent> buffer;
+    private final AuditEventRepository repository;
+    // Null when the sink is switched off
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RollingFileSink file;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Duration retention;
+    private final Clock clock;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    // Reused by the writer thread only
+    private final List<AuditEvent> batch;
+    private Thread writer;
+    private volatile boolean running;
+
+    @Autowired
+    public AuditLog(AuditEventRepository repository, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                    ObjectMapper objectMapper, AuthMetrics metrics,
+                    @Value("${audit.buffer-size:8192}") int bufferSize,
+                    @Value("${audit.batch-size:256}") int batchSize,
+                    @Value("${audit.flush-interval-millis:200}") long flushIntervalMillis,
+                    @Value("${audit.database.enabled:true}") boolean databaseEnabled,
+                    @Value("${audit.file.path:}") String filePath,
+                    @Value("${audit.file.max-size-mb:10}") long fileMaxSizeMb,
+                    @Value("${audit.file.max-files:5}") int fileMaxFiles,
+                    @Value("${audit.retention-days:90}") long retentionDays) throws IOException {
+        this(repository, databaseEnabled ? jdbcTemplate : null, new TransactionTemplate(transactionManager),
+                filePath.isBlank() ? null : new RollingFileSink(Path.of(filePath), fileMaxSizeMb * 1024 * 1024, fileMaxFiles,
+                        objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL).writer()),
+                bufferSize, batchSize, flushIntervalMillis, Duration.ofDays(retentionDays), Clock.systemUTC());
+        metrics.bindAuditLog(this);
+    }
+
+    AuditLog(AuditEventRepository repository, JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+             RollingFileSink file, int bufferSize, int batchSize, long flushIntervalMillis, Duration retention, Clock clock) {
+        if (batchSize <= 0 || flushIntervalMillis <= 0) {
+            throw new IllegalArgumentException("audit.batch-size and audit.flush-interval-millis must be positive");
+        }
+        this.buffer = new ConcurrentRingBuffer<>(bufferSize);
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.file = file;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.retention = retention;
+        this.clock = clock;
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    // The client address is taken from the current servlet request, if there is one
+    public void record(AuditEvent.Type type, String username, String detail) {
+        record(type, username, currentClientIp(), detail);
+    }
+
+    public void record(AuditEvent.Type type, String username, String clientIp, String detail) {
+        AuditEvent event = new AuditEvent(clock.instant(), type, truncate(username, MAX_TEXT),
+                truncate(clientIp, MAX_CLIENT_IP), truncate(detail, MAX_TEXT));
+        if (!buffer.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    // Newest first, at most limit rows; only events the writer has already stored are returned
+    public List<AuditEvent> search(AuditEvent.Type type, String username, Instant since, int limit) {
+        return repository.search(type, username, since, Limit.of(limit));
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::run, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Stops the writer after it has stored whatever is still buffered
+    @PreDestroy
+    public void stop() throws IOException {
+        running = false;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (file != null) {
+            file.close();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${audit.purge-interval-millis:3600000}",
+            initialDelayString = "${audit.purge-interval-millis:3600000}")
+    public void purgeExpired() {
+        if (jdbcTemplate == null) {
+            return;
+        }
+        int deleted = repository.deleteOlderThan(clock.instant().minus(retention));
+        if (deleted > 0) {
+            logger.info("Purged {} audit events older than {} days", deleted, retention.toDays());
+        }
+    }
+
+    public int getPendingCount() {
+        return buffer.size();
+    }
+
+    // Events lost because the buffer was full
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    // Events drained but not stored by at least one sink
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    private void run() {
+        while (running) {
+            if (drain() < batchSize) {
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+        }
+        while (drain() > 0) {
+            // Flush what was recorded before shutdown
+        }
+    }
+
+    // Writes one batch; called by the writer thread only
+    int drain() {
+        batch.clear();
+        int count = buffer.drainTo(batch, batchSize);
+        if (count == 0) {
+            return 0;
+        }
+        boolean stored;
+        try {
+            stored = writeToDatabase() & writeToFile();
+        } catch (RuntimeException e) {
+            // Whatever a sink throws costs this batch only; an exception out of here would end the writer thread
+            logger.error("Could not store {} audit events", count, e);
+            stored = false;
+        }
+        (stored ? written : failed).add(count);
+        return count;
+    }
+
+    private boolean writeToDatabase() {
+        if (jdbcTemplate == null) {
+            return true;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_EVENT, batch, batch.size(), (ps, event) -> {
+                        ps.setObject(1, OffsetDateTime.ofInstant(event.getOccurredAt(), ZoneOffset.UTC));
+                        ps.setString(2, event.getType().name());
+                        ps.setString(3, event.getUsername());
+                        ps.setString(4, event.getClientIp());
+                        ps.setString(5, event.getDetail());
+                    }));
+            return true;
+        } catch (DataAccessException | TransactionException e) {
+            logger.warn("Could not store {} audit events: {}", batch.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean writeToFile() {
+        if (file == null) {
+            return true;
+        }
+        try {
+            file.write(batch);
+            return true;
+        } catch (IOException e) {
+            logger.warn("Could not write {} audit events to file: {}", batch.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    private static String truncate(String value, int max) {
+        return value != null && value.length() > max ? value.substring(0, max) : value;
+    }
+
+    private static String currentClientIp() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes.getRequest().getRemoteAddr()
+                : null;
+    }
+}
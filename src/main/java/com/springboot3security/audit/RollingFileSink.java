@@ -0,0 +1,86 @@
+package com.springboot3security.audit;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.springboot3security.entity.AuditEvent;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Appends one JSON object per line. Once the file would grow past maxBytes it is renamed to <path>.1, older files
+// move up by one (<path>.1 to <path>.2 and so on, maxFiles kept) and a new file is started.
+// Not thread-safe; only AuditLog's writer thread uses it.
+class RollingFileSink implements Closeable {
+
+    private final Path path;
+    private final long maxBytes;
+    private final int maxFiles;
+    private final ObjectWriter writer;
+    private OutputStream out;
+    private long size;
+
+    RollingFileSink(Path path, long maxBytes, int maxFiles, ObjectWriter writer) throws IOException {
+        if (maxBytes <= 0 || maxFiles < 0) {
+            throw new IllegalArgumentException("audit.file.max-size-mb must be positive and audit.file.max-files not negative");
+        }
+        this.path = path;
+        this.maxBytes = maxBytes;
+        this.maxFiles = maxFiles;
+        this.writer = writer;
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        open();
+    }
+
+    // One flush per batch
+    void write(List<AuditEvent> events) throws IOException {
+        for (AuditEvent event : events) {
+            byte[] line = writer.writeValueAsBytes(event);
+            if (size > 0 && size + line.length + 1 > maxBytes) {
+                rotate();
+            }
+            out.write(line);
+            out.write('\n');
+            size += line.length + 1;
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void open() throws IOException {
+        out = new BufferedOutputStream(Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+        size = Files.size(path);
+    }
+
+    private void rotate() throws IOException {
+        out.close();
+        if (maxFiles == 0) {
+            Files.delete(path);
+        } else {
+            Files.deleteIfExists(rotated(maxFiles));
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                if (Files.exists(rotated(i))) {
+                    Files.move(rotated(i), rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(path, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        open();
+    }
+
+    private Path rotated(int index) {
+        return path.resolveSibling(path.getFileName() + "." + index);
+    }
+}
@@ -1,12 +1,24 @@
 package com.springboot3security.config;
 
+import com.springboot3security.entity.UserCredentials;
 import com.springboot3security.filter.JwtAuthFilter;
+import com.springboot3security.jfr.UserLookupEvent;
+import com.springboot3security.metrics.AuthMetrics;
 import com.springboot3security.repository.UserInfoRepository;
+import com.springboot3security.service.CachedUserDetailsService;
 import com.springboot3security.service.UserInfoDetails;
+import com.springboot3security.service.UserInfoPasswordService;
+import com.springboot3security.util.BoundedPasswordEncoder;
+import com.springboot3security.util.PasswordEncoderFactory;
+import com.springboot3security.util.JwtKeyRing;
 import com.springboot3security.util.JwtUtil;
+import com.springboot3security.util.VirtualThreads;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.Environment;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -18,47 +30,115 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+import java.util.Optional;
+
+// Beans shared by both stacks live here; the servlet filter chain and method security only switch on for a
+// servlet application, the WebFlux equivalents are in ReactiveSecurityConfig (Maven profile "reactive")
 @Configuration
-@EnableWebSecurity
-@EnableMethodSecurity
 public class SecurityConfig {
 
     private final JwtAuthFilter jwtAuthFilter;
     private final UserDetailsService userDetailsService;
+    private final UserInfoPasswordService userInfoPasswordService;
+    private final AuthMetrics authMetrics;
+
+    // 0 means calibrate the strength against password.bcrypt.target-millis at startup
+    @Value("${password.bcrypt.strength:0}")
+    private int bcryptStrength;
+
+    @Value("${password.bcrypt.target-millis:250}")
+    private long bcryptTargetMillis;
+
+    @Value("${password.bcrypt.min-strength:10}")
+    private int bcryptMinStrength;
+
+    @Value("${password.bcrypt.max-strength:16}")
+    private int bcryptMaxStrength;
+
+    // 0 means one hashing thread per core
+    @Value("${password.hashing.threads:0}")
+    private int hashingThreads;
+
+    @Value("${password.hashing.queue-capacity:32}")
+    private int hashingQueueCapacity;
+
+    @Value("${password.hashing.timeout-millis:2000}")
+    private long hashingTimeoutMillis;
+
+    @Value("${password.hashing.retry-after-seconds:1}")
+    private long hashingRetryAfterSeconds;
+
+    // -1 when actuator shares the application port
+    @Value("${management.server.port:-1}")
+    private int managementPort;
 
     public SecurityConfig(@Lazy JwtAuthFilter jwtAuthFilter,
-                          @Lazy UserDetailsService userDetailsService) {
+                          @Lazy UserDetailsService userDetailsService,
+                          @Lazy UserInfoPasswordService userInfoPasswordService,
+                          AuthMetrics authMetrics) {
         this.jwtAuthFilter = jwtAuthFilter;
         this.userDetailsService = userDetailsService;
+        this.userInfoPasswordService = userInfoPasswordService;
+        this.authMetrics = authMetrics;
     }
 
-    // UserDetailsService bean for loading user details from the database
+    // UserDetailsService bean for loading user details from the database, behind a read-through cache
     @Bean
-    public UserDetailsService userDetailsService(UserInfoRepository repository) {
-        return username -> repository.findByUsername(username)
-                .map(UserInfoDetails::new)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+    public CachedUserDetailsService userDetailsService(UserInfoRepository repository,
+                                                       @Value("${users.cache.enabled:true}") boolean cacheEnabled,
+                                                       @Value("${users.cache.max-size:10000}") long maxSize,
+                                                       @Value("${users.cache.ttl-seconds:300}") long ttlSeconds,
+                                                       @Value("${users.cache.refresh-after-seconds:60}") long refreshAfterSeconds,
+                                                       Environment environment) {
+        UserDetailsService database = username -> {
+            UserLookupEvent event = new UserLookupEvent();
+            event.begin();
+            Optional<UserCredentials> credentials = repository.findCredentialsByUsername(username);
+            if (event.shouldCommit()) {
+                event.usernameLength = username.length();
+                event.found = credentials.isPresent();
+                event.commit();
+            }
+            return credentials.map(UserInfoDetails::new)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        };
+        return new CachedUserDetailsService(database, cacheEnabled, maxSize, ttlSeconds, refreshAfterSeconds, authMetrics,
+                VirtualThreads.loadExecutor(environment, "user-lookup-"));
     }
 
     // JWT utility bean for token generation and validation
     @Bean
-    public JwtUtil jwtUtil() {
-        return new JwtUtil();
+    public JwtUtil jwtUtil(JwtKeyRing keyRing, @Value("${jwt.access-token.ttl-seconds:900}") long accessTokenTtlSeconds,
+                           @Value("${jwt.legacy-token.ttl-seconds:36000}") long legacyTokenTtlSeconds,
+                           @Value("${jwt.rejection-log.max-per-interval:5}") int rejectionLogMaxPerInterval,
+                           @Value("${jwt.rejection-log.interval-seconds:10}") long rejectionLogIntervalSeconds) {
+        return new JwtUtil(keyRing, authMetrics, Duration.ofSeconds(accessTokenTtlSeconds),
+                Duration.ofSeconds(legacyTokenTtlSeconds), rejectionLogMaxPerInterval, Duration.ofSeconds(rejectionLogIntervalSeconds));
     }
 
     // Main security configuration
     // Defines endpoint access rules and JWT filter setup
     @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/auth/welcome", "/auth/addNewUser", "/auth/generateToken").permitAll()
+                        // Refresh tokens are checked by the endpoint itself, not by JwtAuthFilter
+                        .requestMatchers("/auth/generateTokenPair", "/auth/refreshToken").permitAll()
+                        // Public keys only; other services fetch them to verify tokens locally
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        // The scrape shows failure reasons and pool saturation: open only on the management port,
+                        // which is not exposed publicly, and ADMIN-only on the application port
+                        .requestMatchers(request -> request.getLocalPort() == managementPort
+                                && "/actuator/prometheus".equals(request.getRequestURI())).permitAll()
+                        .requestMatchers("/actuator/prometheus").hasAuthority("ROLE_ADMIN")
                         .requestMatchers("/auth/user/**").hasAnyAuthority("ROLE_USER", "ROLE_ADMIN")
                         .requestMatchers("/auth/admin/**").hasAuthority("ROLE_ADMIN")
                         .anyRequest().authenticated()
@@ -70,24 +150,43 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // {id}-prefixed BCrypt at a strength tuned to this hardware, run on a bounded pool so hashing
+    // bursts cannot take over the request threads
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder() {
+        int strength = bcryptStrength > 0
+                ? bcryptStrength
+                : PasswordEncoderFactory.calibrateBCryptStrength(bcryptTargetMillis, bcryptMinStrength, bcryptMaxStrength);
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(PasswordEncoderFactory.createDelegatingEncoder(strength),
+                threads, hashingQueueCapacity, hashingTimeoutMillis, hashingRetryAfterSeconds, authMetrics);
+        authMetrics.bindHashingPool(encoder);
+        return encoder;
     }
 
 
     // Links UserDetailsService and PasswordEncoder to the authentication provider
+    // Hashes below the current policy are rewritten through the password service after a successful login
     @Bean
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(userDetailsService);
         provider.setPasswordEncoder(passwordEncoder());
+        provider.setUserDetailsPasswordService(userInfoPasswordService);
         return provider;
     }
 
     // Required for programmatic authentication (e.g., in /generateToken)
     @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
     public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
         return config.getAuthenticationManager();
     }
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @EnableWebSecurity
+    @EnableMethodSecurity
+    static class ServletWebSecurity {
+    }
 }
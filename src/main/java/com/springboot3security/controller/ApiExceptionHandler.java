@@ -0,0 +1,34 @@
+package com.springboot3security.controller;
+
+import com.springboot3security.util.InvalidRefreshTokenException;
+import com.springboot3security.util.LoginThrottledException;
+import com.springboot3security.util.PasswordHashingRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    // Login and registration shed load here instead of queueing behind a saturated hashing pool
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<String> handlePasswordHashingRejected(PasswordHashingRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body("Server busy, retry later");
+    }
+
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<String> handleLoginThrottled(LoginThrottledException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body("Too many failed login attempts, retry later");
+    }
+
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    public ResponseEntity<String> handleInvalidRefreshToken(InvalidRefreshTokenException e) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
+    }
+}
@@ -0,0 +1,38 @@
+package com.springboot3security.controller;
+
+import com.springboot3security.audit.AuditLog;
+import com.springboot3security.entity.AuditEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+
+// Recent security events, newest first; every filter is optional
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/auth/admin/audit")
+@PreAuthorize("hasRole('ADMIN')")
+public class AuditController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final AuditLog auditLog;
+
+    public AuditController(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    @GetMapping
+    public List<AuditEvent> search(@RequestParam(required = false) AuditEvent.Type type,
+                                   @RequestParam(required = false) String username,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant since,
+                                   @RequestParam(defaultValue = "100") int limit) {
+        return auditLog.search(type, username, since == null ? Instant.EPOCH : since, Math.max(1, Math.min(limit, MAX_LIMIT)));
+    }
+}
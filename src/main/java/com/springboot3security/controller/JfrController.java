@@ -0,0 +1,67 @@
+package com.springboot3security.controller;
+
+import com.springboot3security.jfr.JfrRecordingService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+// On-demand flight recordings for profiling auth latency in production; open the dump in JDK Mission Control
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/auth/admin/jfr")
+@PreAuthorize("hasRole('ADMIN')")
+public class JfrController {
+
+    private final JfrRecordingService recordingService;
+
+    public JfrController(JfrRecordingService recordingService) {
+        this.recordingService = recordingService;
+    }
+
+    @PostMapping("/start")
+    public String start(@RequestParam(defaultValue = "60") long durationSeconds) throws IOException {
+        Duration duration = recordingService.start(Duration.ofSeconds(durationSeconds));
+        return "Recording started for " + duration.toSeconds() + " seconds";
+    }
+
+    @GetMapping(value = "/dump", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> dump() throws IOException {
+        Path file;
+        try {
+            file = recordingService.dump();
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                Files.copy(file, out);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                .contentLength(Files.size(file))
+                .body(body);
+    }
+
+    @PostMapping("/stop")
+    public String stop() {
+        return recordingService.stop() ? "Recording stopped" : "No recording in progress";
+    }
+}
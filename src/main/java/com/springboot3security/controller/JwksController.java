@@ -0,0 +1,46 @@
+package com.springboot3security.controller;
+
+import com.springboot3security.util.JwtKeyRing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+
+// Public verification keys for other services. The keys only change on restart, so the body and its ETag are
+// computed once; clients cache for jwt.jwks.max-age-seconds and revalidate with If-None-Match, which Spring
+// answers with 304 before any body is written.
+@RestController
+public class JwksController {
+
+    private final String jwkSet;
+    private final String etag;
+    private final CacheControl cacheControl;
+
+    public JwksController(JwtKeyRing keyRing, @Value("${jwt.jwks.max-age-seconds:3600}") long maxAgeSeconds) {
+        this.jwkSet = keyRing.getJwkSetJson();
+        this.etag = "\"" + sha256(jwkSet) + "\"";
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic();
+    }
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = {"application/jwk-set+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<String> jwks() {
+        return ResponseEntity.ok().cacheControl(cacheControl).eTag(etag).body(jwkSet);
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
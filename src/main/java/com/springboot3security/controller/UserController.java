@@ -1,16 +1,34 @@
 package com.springboot3security.controller;
 
+import com.springboot3security.audit.AuditLog;
+import com.springboot3security.entity.AuditEvent;
 import com.springboot3security.entity.AuthRequest;
+import com.springboot3security.entity.BulkUserResult;
+import com.springboot3security.entity.RefreshTokenRequest;
+import com.springboot3security.entity.RevokeTokenRequest;
+import com.springboot3security.entity.TokenPair;
 import com.springboot3security.entity.UserInfo;
+import com.springboot3security.service.BulkUserService;
+import com.springboot3security.service.LoginAttemptThrottle;
 import com.springboot3security.service.UserInfoService;
+import com.springboot3security.util.LoginThrottledException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/auth")
 public class UserController {
 
@@ -18,9 +36,19 @@ public class UserController {
 
     private final AuthenticationManager authenticationManager;
 
-    public UserController(AuthenticationManager authenticationManager, UserInfoService userInfoService) {
+    private final BulkUserService bulkUserService;
+
+    private final LoginAttemptThrottle loginAttemptThrottle;
+
+    private final AuditLog auditLog;
+
+    public UserController(AuthenticationManager authenticationManager, UserInfoService userInfoService,
+                          BulkUserService bulkUserService, LoginAttemptThrottle loginAttemptThrottle, AuditLog auditLog) {
         this.authenticationManager = authenticationManager;
         this.userInfoService = userInfoService;
+        this.bulkUserService = bulkUserService;
+        this.loginAttemptThrottle = loginAttemptThrottle;
+        this.auditLog = auditLog;
     }
 
     @GetMapping("/welcome")
@@ -33,16 +61,45 @@ public class UserController {
         return userInfoService.addUser(userInfo);
     }
 
+    // Body is a JSON array of users or NDJSON (one user per line); read as a stream, never buffered whole
+    @PostMapping(value = "/admin/bulkAddUsers", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<BulkUserResult> bulkAddUsers(InputStream body) throws IOException {
+        return bulkUserService.addUsers(body);
+    }
+
+    // Throttled keys are rejected with 429 before the password is checked
     @PostMapping("/generateToken")
-    public String authenticateAndGetToken(@RequestBody AuthRequest authRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(authRequest.getUsername(), authRequest.getPassword())
-        );
-        if (authentication.isAuthenticated()) {
-            return userInfoService.authenticateAndGetToken(authRequest.getUsername());
-        } else {
-            throw new UsernameNotFoundException("Invalid user request!");
-        }
+    public String authenticateAndGetToken(@RequestBody AuthRequest authRequest, HttpServletRequest request) {
+        authenticate(authRequest, request);
+        return userInfoService.authenticateAndGetToken(authRequest.getUsername());
+    }
+
+    // Same password check as /generateToken, plus a refresh token so the client can renew without logging in again
+    @PostMapping("/generateTokenPair")
+    public TokenPair authenticateAndGetTokenPair(@RequestBody AuthRequest authRequest, HttpServletRequest request) {
+        authenticate(authRequest, request);
+        return userInfoService.authenticateAndGetTokenPair(authRequest.getUsername());
+    }
+
+    // Exchanges a refresh token for a new access token and a new refresh token; the old one stops working
+    @PostMapping("/refreshToken")
+    public TokenPair refreshToken(@RequestBody RefreshTokenRequest refreshTokenRequest) {
+        return userInfoService.refreshToken(refreshTokenRequest.refreshToken());
+    }
+
+    // Revokes one access token by its jti, e.g. a token that leaked; takes effect on every node within the sync interval
+    @PostMapping("/admin/revokeToken")
+    @PreAuthorize("hasRole('ADMIN')")
+    public String revokeToken(@RequestBody RevokeTokenRequest revokeTokenRequest) {
+        return userInfoService.revokeToken(revokeTokenRequest.token());
+    }
+
+    // Revokes every access and refresh token issued so far to the user
+    @PostMapping("/admin/revokeUser/{username}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public String revokeUser(@PathVariable String username) {
+        return userInfoService.invalidateTokens(username) ? "Tokens revoked for user: " + username : "User not found";
     }
 
     @GetMapping("/user")
@@ -66,4 +123,29 @@ public class UserController {
     public String userOnlyEndpoint() {
         return "This endpoint is accessible only to USER role.";
     }
+
+    private void authenticate(AuthRequest authRequest, HttpServletRequest request) {
+        String clientIp = request.getRemoteAddr();
+        try {
+            loginAttemptThrottle.checkAllowed(authRequest.getUsername(), clientIp);
+        } catch (LoginThrottledException e) {
+            auditLog.record(AuditEvent.Type.LOGIN_THROTTLED, authRequest.getUsername(), clientIp, null);
+            throw e;
+        }
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(authRequest.getUsername(), authRequest.getPassword())
+            );
+        } catch (AuthenticationException e) {
+            loginAttemptThrottle.recordFailure(authRequest.getUsername(), clientIp);
+            auditLog.record(AuditEvent.Type.LOGIN_FAILURE, authRequest.getUsername(), clientIp, e.getClass().getSimpleName());
+            throw e;
+        }
+        if (!authentication.isAuthenticated()) {
+            throw new UsernameNotFoundException("Invalid user request!");
+        }
+        loginAttemptThrottle.recordSuccess(authRequest.getUsername());
+        auditLog.record(AuditEvent.Type.LOGIN_SUCCESS, authRequest.getUsername(), clientIp, null);
+    }
 }
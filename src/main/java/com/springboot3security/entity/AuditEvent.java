@@ -0,0 +1,60 @@
+package com.springboot3security.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// One security-relevant event. Rows are written in batches by AuditLog's writer thread through JDBC, so the
+// column names are spelled out and do not depend on the naming strategy.
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "audit_events", indexes = {
+        @Index(name = "ix_audit_events_occurred_at", columnList = "occurred_at"),
+        @Index(name = "ix_audit_events_username", columnList = "username")
+})
+public class AuditEvent {
+
+    public enum Type {
+        LOGIN_SUCCESS,
+        LOGIN_FAILURE,
+        LOGIN_THROTTLED,
+        USER_REGISTERED,
+        REGISTRATION_REJECTED,
+        TOKEN_REJECTED,
+        TOKEN_REVOKED,
+        TOKENS_INVALIDATED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 32)
+    private Type type;
+    @Column(name = "username")
+    private String username;
+    @Column(name = "client_ip", length = 64)
+    private String clientIp;
+    // Short reason code, e.g. "expired" or "duplicate"; never a password or a token
+    @Column(name = "detail")
+    private String detail;
+
+    public AuditEvent(Instant occurredAt, Type type, String username, String clientIp, String detail) {
+        this(null, occurredAt, type, username, clientIp, detail);
+    }
+}
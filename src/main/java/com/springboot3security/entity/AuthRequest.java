@@ -1,5 +1,7 @@
 package com.springboot3security.entity;
 
+import com.springboot3security.util.Role;
+import com.springboot3security.util.RoleSet;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
@@ -41,7 +43,7 @@ public class AuthRequest {
     }
 
     public void setRole(String role) {
-        Collection<? extends GrantedAuthority> roles = List.of(new SimpleGrantedAuthority("ROLE_" + role));
-        this.role = roles;
+        Role known = Role.fromName(role);
+        this.role = known != null ? RoleSet.of(known) : List.of(new SimpleGrantedAuthority("ROLE_" + role));
     }
 }
@@ -0,0 +1,12 @@
+package com.springboot3security.entity;
+
+// Outcome of one row of a bulk user import, in input order
+public record BulkUserResult(int row, String username, Status status, String message) {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID,
+        FAILED
+    }
+}
@@ -0,0 +1,45 @@
+package com.springboot3security.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// One issued refresh token. Only the SHA-256 of the token is stored; the raw value is returned to the client once.
+// Every token rotated out of a login shares its familyId, so a replayed token revokes the whole chain.
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "ux_refresh_tokens_hash", columnList = "tokenHash", unique = true),
+        @Index(name = "ix_refresh_tokens_family", columnList = "familyId"),
+        @Index(name = "ix_refresh_tokens_username", columnList = "username")
+})
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(nullable = false, length = 64)
+    private String tokenHash;
+    @Column(nullable = false)
+    private String username;
+    @Column(nullable = false, length = 36)
+    private String familyId;
+    @Column(nullable = false)
+    private Instant issuedAt;
+    @Column(nullable = false)
+    private Instant expiresAt;
+    // Set when the token is exchanged; a second exchange of the same token is reuse
+    private Instant usedAt;
+    private boolean revoked;
+}
@@ -0,0 +1,4 @@
+package com.springboot3security.entity;
+
+public record RevokeTokenRequest(String token) {
+}
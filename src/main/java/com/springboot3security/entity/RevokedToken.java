@@ -0,0 +1,38 @@
+package com.springboot3security.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// An access token revoked before its exp claim, identified by its jti. Rows are only needed until the token
+// would have expired anyway; the increasing id is the cursor each node syncs its in-memory filter from.
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "ux_revoked_tokens_jti", columnList = "jti", unique = true),
+        @Index(name = "ix_revoked_tokens_expires_at", columnList = "expiresAt")
+})
+public class RevokedToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(nullable = false, length = 36)
+    private String jti;
+    private String username;
+    @Column(nullable = false)
+    private Instant expiresAt;
+    @Column(nullable = false)
+    private Instant revokedAt;
+}
@@ -0,0 +1,5 @@
+package com.springboot3security.entity;
+
+// Read-only projection used to sync the in-memory revocation filter
+public record RevokedTokenId(Long id, String jti) {
+}
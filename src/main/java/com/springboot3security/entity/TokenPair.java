@@ -0,0 +1,5 @@
+package com.springboot3security.entity;
+
+// Returned by /auth/generateTokenPair and /auth/refreshToken; expiresIn is the access token lifetime in seconds
+public record TokenPair(String accessToken, String refreshToken, long expiresIn) {
+}
@@ -0,0 +1,5 @@
+package com.springboot3security.entity;
+
+// Read-only projection of the columns authentication needs; never attached to the persistence context
+public record UserCredentials(String username, String password, String role, int tokenVersion) {
+}
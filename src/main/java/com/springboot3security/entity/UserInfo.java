@@ -1,27 +1,36 @@
 package com.springboot3security.entity;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = UserInfo.USERNAME_INDEX, columnList = "username", unique = true))
 public class UserInfo  {
 
+    public static final String USERNAME_INDEX = "ux_users_username";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     private String username;
     private String password;
     private String role;
+    // Bumped whenever the user's tokens must stop working (role change, disable); copied into the "ver" claim
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int tokenVersion;
 
     public Long getId() {
         return id;
@@ -56,4 +65,12 @@ public class UserInfo  {
         this.username = username;
     }
 
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(int tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
 }
@@ -0,0 +1,5 @@
+package com.springboot3security.entity;
+
+// Read-only projection for displaying a user; leaves out the password hash
+public record UserSummary(Long id, String username, String role) {
+}
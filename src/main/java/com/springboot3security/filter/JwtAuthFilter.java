@@ -1,15 +1,27 @@
 package com.springboot3security.filter;
 
+import com.springboot3security.audit.AuditLog;
+import com.springboot3security.entity.AuditEvent;
+import com.springboot3security.metrics.AuthMetrics;
+import com.springboot3security.service.TokenRevocationService;
+import com.springboot3security.service.TokenVersionRegistry;
+import com.springboot3security.service.UserInfoDetails;
 import com.springboot3security.util.JwtUtil;
+import com.springboot3security.util.TokenValidationResult;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -21,36 +33,142 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final UserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
+    private final VerifiedTokenCache tokenCache;
+    private final TokenVersionRegistry tokenVersions;
+    private final TokenRevocationService revocations;
+    private final AuthMetrics metrics;
+    private final AuditLog auditLog;
+    // When true the Authentication is built from the verified claims alone, without loading the user
+    private final boolean stateless;
 
-    public JwtAuthFilter(UserDetailsService userDetailsService, JwtUtil jwtUtil) {
+    public JwtAuthFilter(UserDetailsService userDetailsService, JwtUtil jwtUtil, VerifiedTokenCache tokenCache,
+                         TokenVersionRegistry tokenVersions, TokenRevocationService revocations, AuthMetrics metrics,
+                         AuditLog auditLog, @Value("${jwt.stateless:false}") boolean stateless) {
         this.userDetailsService = userDetailsService;
         this.jwtUtil = jwtUtil;
+        this.tokenCache = tokenCache;
+        this.tokenVersions = tokenVersions;
+        this.revocations = revocations;
+        this.metrics = metrics;
+        this.auditLog = auditLog;
+        this.stateless = stateless;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, @NonNull HttpServletResponse response,
                                     @NonNull FilterChain filterChain) throws ServletException, IOException {
         String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String username = null;
-
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
-            username = jwtUtil.extractUsername(token);
-            logger.info("Extracted username: " + username);
-        }
-
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtUtil.validateToken(token, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+
+        if (authHeader != null && authHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            long start = System.nanoTime();
+            String rejection;
+            try {
+                rejection = authenticate(request, authHeader.substring(7));
+            } finally {
+                metrics.recordFilter(System.nanoTime() - start);
+            }
+            if (rejection != null) {
+                unauthorized(response, rejection);
+                return;
             }
         }
         filterChain.doFilter(request, response);
     }
+
+    // Null once the request is authenticated (or the token names no subject), otherwise the rejection reason
+    private String authenticate(HttpServletRequest request, String token) {
+        VerifiedTokenCache.CachedAuthentication cached = tokenCache.get(token);
+        // A revocation can land between a lookup and its put, after invalidateAll has run; the Bloom filter still
+        // sees it, and a possible match takes the full path below, which confirms it with the database
+        if (cached != null && !revocations.mightBeRevoked(cached.tokenId())) {
+            setAuthentication(request, cached.authentication().getPrincipal(), cached.authentication());
+            return null;
+        }
+        // Taken before the user is loaded: an invalidateAll from here on keeps this result out of the cache
+        long generation = tokenCache.generation();
+        // Token is parsed and verified once; everything below reads from the result
+        TokenValidationResult result = jwtUtil.validate(token);
+        if (!result.isValid()) {
+            return reject(request, result.subject(), result.status().reason());
+        }
+        if (result.subject() == null) {
+            return null;
+        }
+        // A Bloom filter lookup; the database is only asked when the filter reports a possible match
+        if (revocations.isRevoked(result.tokenId())) {
+            metrics.tokenFailure(AuthMetrics.TokenFailure.REVOKED);
+            return reject(request, result.subject(), "revoked");
+        }
+        Authentication verified;
+        try {
+            verified = stateless ? fromClaims(result) : fromUserDetails(result);
+        } catch (UsernameNotFoundException e) {
+            // Validly signed, but the user has been deleted since; thrown from here it would skip the 401
+            metrics.tokenFailure(AuthMetrics.TokenFailure.USER_MISSING);
+            return reject(request, result.subject(), "user_missing");
+        }
+        if (verified == null) {
+            return null;
+        }
+        if (!isCurrentVersion(verified, result)) {
+            metrics.tokenFailure(AuthMetrics.TokenFailure.STALE_VERSION);
+            return reject(request, result.subject(), "stale_version");
+        }
+        tokenCache.put(token, verified, result.tokenId(), result.expiration(), generation);
+        setAuthentication(request, verified.getPrincipal(), verified);
+        return null;
+    }
+
+    private Authentication fromClaims(TokenValidationResult result) {
+        // The interned RoleSet from the token, not a list built per request
+        return UsernamePasswordAuthenticationToken.authenticated(result.subject(), null, result.authorities());
+    }
+
+    private Authentication fromUserDetails(TokenValidationResult result) {
+        String username = result.subject();
+        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        if (!username.equals(userDetails.getUsername())) {
+            return null;
+        }
+        return UsernamePasswordAuthenticationToken.authenticated(userDetails, null, userDetails.getAuthorities());
+    }
+
+    private boolean isCurrentVersion(Authentication verified, TokenValidationResult result) {
+        if (stateless) {
+            return tokenVersions.isCurrent(result.subject(), result.tokenVersion());
+        }
+        // The user is loaded anyway, so the version check costs nothing here
+        return !(verified.getPrincipal() instanceof UserInfoDetails details)
+                || details.getTokenVersion() == (result.tokenVersion() != null ? result.tokenVersion() : 0);
+    }
+
+    // The audit event is only buffered here
+    private String reject(HttpServletRequest request, String username, String reason) {
+        auditLog.record(AuditEvent.Type.TOKEN_REJECTED, username, request.getRemoteAddr(), reason);
+        return reason;
+    }
+
+    // RFC 6750: a presented token that is not accepted gets 401 with the reason, also on public endpoints, so a
+    // client knows to refresh or log in again instead of seeing a 403 from the authorization rules
+    private static void unauthorized(HttpServletResponse response, String reason) throws IOException {
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, bearerChallenge(reason));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write("Invalid token: " + reason);
+    }
+
+    public static String bearerChallenge(String reason) {
+        return "Bearer error=\"invalid_token\", error_description=\"" + reason + "\"";
+    }
+
+    // A fresh token per request so request details are never shared through the cache
+    private void setAuthentication(HttpServletRequest request, Object principal, Authentication verified) {
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                principal,
+                null,
+                verified.getAuthorities());
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
 }
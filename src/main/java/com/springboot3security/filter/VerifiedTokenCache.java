@@ -0,0 +1,141 @@
+package com.springboot3security.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.springboot3security.metrics.AuthMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Size-bounded cache of tokens that already passed signature verification and user lookup.
+// Entries are keyed by a SHA-256 digest so raw tokens are never held in memory, and each entry
+// expires at the token's own exp claim or after jwt.token-cache.max-ttl-seconds, whichever is first.
+// When disabled every lookup misses and nothing is stored, so the filter behaves exactly as without it.
+@Component
+public class VerifiedTokenCache {
+
+    private final boolean enabled;
+    private final Cache<String, CachedAuthentication> cache;
+    // Bumped by invalidateAll
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public VerifiedTokenCache(@Value("${jwt.token-cache.enabled:false}") boolean enabled,
+                              @Value("${jwt.token-cache.max-size:10000}") long maxSize,
+                              @Value("${jwt.token-cache.max-ttl-seconds:300}") long maxTtlSeconds,
+                              AuthMetrics metrics) {
+        this(enabled, maxSize, maxTtlSeconds);
+        if (enabled) {
+            metrics.bindCache("verified_tokens", cache);
+        }
+    }
+
+    public VerifiedTokenCache(boolean enabled, long maxSize, long maxTtlSeconds) {
+        this(enabled, maxSize, maxTtlSeconds, Ticker.systemTicker(), ForkJoinPool.commonPool());
+    }
+
+    VerifiedTokenCache(boolean enabled, long maxSize, long maxTtlSeconds, Ticker ticker, Executor executor) {
+        this.enabled = enabled;
+        this.cache = enabled
+                ? Caffeine.newBuilder()
+                    .maximumSize(maxSize)
+                    .expireAfter(new TokenExpiry(TimeUnit.SECONDS.toNanos(maxTtlSeconds)))
+                    .ticker(ticker)
+                    .executor(executor)
+                    .recordStats()
+                    .build()
+                : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // The entry carries the token's jti: a revocation made after the entry was stored is only seen by checking it
+    public CachedAuthentication get(String token) {
+        if (!enabled) {
+            return null;
+        }
+        CachedAuthentication cached = cache.getIfPresent(digest(token));
+        // Caffeine expires lazily against its ticker, so guard against the wall clock passing exp as well
+        if (cached == null || !cached.expiration().isAfter(Instant.now()) || cached.generation() != generation.get()) {
+            return null;
+        }
+        return cached;
+    }
+
+    // Read before the checks whose outcome is cached and handed to put
+    public long generation() {
+        return generation.get();
+    }
+
+    // A put whose checks ran before an invalidateAll carries the older generation; it is dropped here or, when it
+    // lands just after the clear, never returned by get
+    public void put(String token, Authentication authentication, String tokenId, Instant expiration, long generation) {
+        if (!enabled || expiration == null || generation != this.generation.get()) {
+            return;
+        }
+        cache.put(digest(token), new CachedAuthentication(authentication, tokenId, expiration, generation));
+    }
+
+    public void invalidateAll() {
+        if (enabled) {
+            generation.incrementAndGet();
+            cache.invalidateAll();
+        }
+    }
+
+    // Hit, miss and eviction counts since startup; also exported as cache.* meters tagged cache=verified_tokens
+    public CacheStats stats() {
+        return enabled ? cache.stats() : CacheStats.empty();
+    }
+
+    public long size() {
+        return enabled ? cache.estimatedSize() : 0;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public record CachedAuthentication(Authentication authentication, String tokenId, Instant expiration, long generation) {
+    }
+
+    private record TokenExpiry(long maxTtlNanos) implements Expiry<String, CachedAuthentication> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedAuthentication value, long currentTime) {
+            long untilExpiry = TimeUnit.MILLISECONDS.toNanos(value.expiration().toEpochMilli() - System.currentTimeMillis());
+            return Math.max(0, Math.min(untilExpiry, maxTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedAuthentication value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedAuthentication value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.springboot3security.jfr;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+// At most one on-demand recording using the bundled jfr/auth.jfc settings. Every recording is bounded
+// by jfr.recording.max-duration-seconds and jfr.recording.max-size-mb, so a forgotten start cannot
+// fill the disk; once it stops it can still be dumped until the next start or stop.
+@Service
+public class JfrRecordingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JfrRecordingService.class);
+    static final String SETTINGS = "jfr/auth.jfc";
+
+    private final Duration maxDuration;
+    private final long maxSizeBytes;
+    // Held across file I/O, so not synchronized; see VirtualThreads
+    private final ReentrantLock lock = new ReentrantLock();
+    // Guarded by lock
+    private Recording recording;
+
+    public JfrRecordingService(@Value("${jfr.recording.max-duration-seconds:600}") long maxDurationSeconds,
+                               @Value("${jfr.recording.max-size-mb:64}") long maxSizeMb) {
+        this.maxDuration = Duration.ofSeconds(maxDurationSeconds);
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+    }
+
+    // Replaces any previous recording; returns the duration actually used after clamping
+    public Duration start(Duration requested) throws IOException {
+        Duration duration = requested.isNegative() || requested.isZero() || requested.compareTo(maxDuration) > 0
+                ? maxDuration
+                : requested;
+        lock.lock();
+        try {
+            closeRecording();
+            Recording started = new Recording(loadSettings());
+            started.setName("auth");
+            started.setToDisk(true);
+            started.setMaxSize(maxSizeBytes);
+            started.setDuration(duration);
+            started.start();
+            recording = started;
+        } finally {
+            lock.unlock();
+        }
+        logger.info("JFR recording started for {} s, max {} bytes", duration.toSeconds(), maxSizeBytes);
+        return duration;
+    }
+
+    // Writes what has been recorded so far to a temporary file; the caller deletes it
+    public Path dump() throws IOException {
+        lock.lock();
+        try {
+            if (recording == null || recording.getState() == RecordingState.CLOSED) {
+                throw new IllegalStateException("No JFR recording has been started");
+            }
+            Path file = Files.createTempFile("auth-", ".jfr");
+            recording.dump(file);
+            return file;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean stop() {
+        lock.lock();
+        try {
+            boolean active = recording != null;
+            closeRecording();
+            return active;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isRecording() {
+        lock.lock();
+        try {
+            return recording != null && recording.getState() == RecordingState.RUNNING;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stop();
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private static Configuration loadSettings() throws IOException {
+        InputStream settings = JfrRecordingService.class.getClassLoader().getResourceAsStream(SETTINGS);
+        if (settings == null) {
+            throw new IOException("JFR settings not found on classpath: " + SETTINGS);
+        }
+        try (InputStreamReader reader = new InputStreamReader(settings, StandardCharsets.UTF_8)) {
+            return Configuration.create(reader);
+        } catch (ParseException e) {
+            throw new IOException("Invalid JFR settings in " + SETTINGS, e);
+        }
+    }
+}
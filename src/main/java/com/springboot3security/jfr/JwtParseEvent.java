@@ -0,0 +1,24 @@
+package com.springboot3security.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.springboot3security.JwtParse")
+@Label("JWT Parse")
+@Description("Parse and signature verification of a bearer token in JwtUtil.validate")
+@Category({"Spring Boot 3 Security", "Authentication"})
+@StackTrace(false)
+public class JwtParseEvent extends jdk.jfr.Event {
+
+    @Label("Outcome")
+    @Description("valid, expired, bad_signature or malformed")
+    public String outcome;
+
+    @Label("Token Length")
+    @DataAmount(DataAmount.BYTES)
+    public int tokenLength;
+}
@@ -0,0 +1,26 @@
+package com.springboot3security.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.springboot3security.JwtSign")
+@Label("JWT Sign")
+@Description("Building and signing a token in JwtUtil.generateToken")
+@Category({"Spring Boot 3 Security", "Authentication"})
+@StackTrace(false)
+public class JwtSignEvent extends jdk.jfr.Event {
+
+    @Label("Username Length")
+    public int usernameLength;
+
+    @Label("Role Count")
+    public int roleCount;
+
+    @Label("Token Length")
+    @DataAmount(DataAmount.BYTES)
+    public int tokenLength;
+}
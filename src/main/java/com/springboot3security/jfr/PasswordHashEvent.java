@@ -0,0 +1,28 @@
+package com.springboot3security.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Emitted on the hashing worker, so the duration is the hash itself and excludes queue wait
+@Name("com.springboot3security.PasswordHash")
+@Label("Password Hash")
+@Description("Password encode (registration) or verification (DaoAuthenticationProvider login)")
+@Category({"Spring Boot 3 Security", "Authentication"})
+@StackTrace(false)
+public class PasswordHashEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    @Description("encode or matches")
+    public String operation;
+
+    @Label("Outcome")
+    @Description("encoded, matched or mismatched")
+    public String outcome;
+
+    @Label("Encoded Length")
+    @Description("Length of the stored hash including its {id} prefix")
+    public int encodedLength;
+}
@@ -0,0 +1,21 @@
+package com.springboot3security.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.springboot3security.UserLookup")
+@Label("User Lookup")
+@Description("UserInfoRepository.findCredentialsByUsername behind the user details cache")
+@Category({"Spring Boot 3 Security", "Database"})
+@StackTrace(false)
+public class UserLookupEvent extends jdk.jfr.Event {
+
+    @Label("Username Length")
+    public int usernameLength;
+
+    @Label("Found")
+    public boolean found;
+}
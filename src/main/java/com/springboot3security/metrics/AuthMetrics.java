@@ -0,0 +1,187 @@
+package com.springboot3security.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.springboot3security.audit.AuditLog;
+import com.springboot3security.util.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Timers and counters for each stage of authentication, exported through /actuator/prometheus.
+// Every meter is registered up front and callers pass raw System.nanoTime() deltas, so recording
+// allocates nothing: no Timer.Sample, no tag lookups on the request path.
+@Component
+public class AuthMetrics {
+
+    public enum TokenFailure {
+        EXPIRED,
+        BAD_SIGNATURE,
+        MALFORMED,
+        UNKNOWN_KEY,
+        USER_MISSING,
+        STALE_VERSION,
+        REVOKED
+    }
+
+    public enum AddUserOutcome {
+        CREATED,
+        INVALID_PASSWORD,
+        DUPLICATE
+    }
+
+    public enum RefreshOutcome {
+        ROTATED,
+        UNKNOWN,
+        EXPIRED,
+        REVOKED,
+        REUSED
+    }
+
+    // Bucket boundaries sized to each stage so SLO queries (e.g. "99% of verifications under 1 ms") are exact
+    private static final Duration[] JWT_SLOS = millis(0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10);
+    private static final Duration[] LOOKUP_SLOS = millis(0.1, 0.5, 1, 5, 10, 25, 50, 100, 250);
+    private static final Duration[] FILTER_SLOS = millis(0.1, 0.5, 1, 2.5, 5, 10, 25, 50, 100);
+    private static final Duration[] HASHING_SLOS = millis(10, 25, 50, 100, 250, 500, 1000, 2000);
+
+    private final MeterRegistry registry;
+    private final Timer jwtVerify;
+    private final Timer userLookup;
+    private final Timer passwordEncode;
+    private final Timer passwordMatches;
+    private final Timer filter;
+    private final Counter[] tokenFailures;
+    private final Counter[] addUserOutcomes;
+    private final Counter[] refreshOutcomes;
+
+    public AuthMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.jwtVerify = timer("auth.jwt.verify", "JWT parse and signature verification", JWT_SLOS);
+        this.userLookup = timer("auth.user.lookup", "User lookup through the userDetailsService bean", LOOKUP_SLOS);
+        this.passwordEncode = timer("auth.password.encode", "Password hashing", HASHING_SLOS);
+        this.passwordMatches = timer("auth.password.matches", "Password verification", HASHING_SLOS);
+        this.filter = timer("auth.filter", "Time spent authenticating a request in JwtAuthFilter", FILTER_SLOS);
+
+        TokenFailure[] failures = TokenFailure.values();
+        this.tokenFailures = new Counter[failures.length];
+        for (TokenFailure failure : failures) {
+            tokenFailures[failure.ordinal()] = Counter.builder("auth.token.failures")
+                    .description("Bearer tokens rejected, by reason")
+                    .tag("reason", failure.name().toLowerCase())
+                    .register(registry);
+        }
+        AddUserOutcome[] outcomes = AddUserOutcome.values();
+        this.addUserOutcomes = new Counter[outcomes.length];
+        for (AddUserOutcome outcome : outcomes) {
+            addUserOutcomes[outcome.ordinal()] = Counter.builder("auth.users.added")
+                    .description("Registration attempts, by outcome")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(registry);
+        }
+        RefreshOutcome[] refreshes = RefreshOutcome.values();
+        this.refreshOutcomes = new Counter[refreshes.length];
+        for (RefreshOutcome outcome : refreshes) {
+            refreshOutcomes[outcome.ordinal()] = Counter.builder("auth.refresh")
+                    .description("Refresh token exchanges, by outcome")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(registry);
+        }
+    }
+
+    public void recordJwtVerify(long nanos) {
+        jwtVerify.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordUserLookup(long nanos) {
+        userLookup.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPasswordEncode(long nanos) {
+        passwordEncode.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPasswordMatches(long nanos) {
+        passwordMatches.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordFilter(long nanos) {
+        filter.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void tokenFailure(TokenFailure failure) {
+        tokenFailures[failure.ordinal()].increment();
+    }
+
+    public void addUserOutcome(AddUserOutcome outcome) {
+        addUserOutcomes[outcome.ordinal()].increment();
+    }
+
+    public void refreshOutcome(RefreshOutcome outcome) {
+        refreshOutcomes[outcome.ordinal()].increment();
+    }
+
+    // Queue depth, busy workers, queue wait and rejections of the hashing pool, read when the registry is scraped
+    public void bindHashingPool(BoundedPasswordEncoder encoder) {
+        Gauge.builder("auth.password.pool.queued", encoder, BoundedPasswordEncoder::getQueueDepth)
+                .description("Hashing tasks waiting for a worker")
+                .register(registry);
+        Gauge.builder("auth.password.pool.active", encoder, BoundedPasswordEncoder::getActiveCount)
+                .description("Hashing workers busy")
+                .register(registry);
+        FunctionTimer.builder("auth.password.pool.wait", encoder, BoundedPasswordEncoder::getWaitCount,
+                        BoundedPasswordEncoder::getTotalWaitNanos, TimeUnit.NANOSECONDS)
+                .description("Time hashing tasks spent queued before a worker picked them up")
+                .register(registry);
+        Gauge.builder("auth.password.pool.wait.max", encoder, pool -> pool.getMaxWaitNanos() / 1e9)
+                .description("Longest queue wait of a hashing task since startup")
+                .baseUnit("seconds")
+                .register(registry);
+        FunctionCounter.builder("auth.password.pool.rejected", encoder, BoundedPasswordEncoder::getRejectedCount)
+                .description("Hashing calls rejected because the pool was saturated or timed out")
+                .register(registry);
+    }
+
+    // Hits, misses, evictions and size of a Caffeine cache as cache.* meters tagged cache=<name>; the cache must
+    // record stats
+    public void bindCache(String name, Cache<?, ?> cache) {
+        CaffeineCacheMetrics.monitor(registry, cache, name);
+    }
+
+    // Buffered, dropped, stored and failed audit events, read when the registry is scraped
+    public void bindAuditLog(AuditLog auditLog) {
+        Gauge.builder("auth.audit.pending", auditLog, AuditLog::getPendingCount)
+                .description("Audit events waiting for the writer")
+                .register(registry);
+        FunctionCounter.builder("auth.audit.dropped", auditLog, AuditLog::getDroppedCount)
+                .description("Audit events dropped because the buffer was full")
+                .register(registry);
+        FunctionCounter.builder("auth.audit.written", auditLog, AuditLog::getWrittenCount)
+                .description("Audit events stored")
+                .register(registry);
+        FunctionCounter.builder("auth.audit.failed", auditLog, AuditLog::getFailedCount)
+                .description("Audit events a sink failed to store")
+                .register(registry);
+    }
+
+    private Timer timer(String name, String description, Duration[] slos) {
+        return Timer.builder(name)
+                .description(description)
+                .serviceLevelObjectives(slos)
+                .register(registry);
+    }
+
+    private static Duration[] millis(double... values) {
+        Duration[] durations = new Duration[values.length];
+        for (int i = 0; i < values.length; i++) {
+            durations[i] = Duration.ofNanos((long) (values[i] * 1_000_000));
+        }
+        return durations;
+    }
+}
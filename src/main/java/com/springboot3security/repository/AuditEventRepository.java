@@ -0,0 +1,29 @@
+package com.springboot3security.repository;
+
+import com.springboot3security.entity.AuditEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface AuditEventRepository extends JpaRepository<AuditEvent, Long> {
+
+    // Newest first; a null type or username matches every row
+    @Transactional(readOnly = true)
+    @Query("select e from AuditEvent e where (:type is null or e.type = :type) "
+            + "and (:username is null or e.username = :username) and e.occurredAt >= :since order by e.id desc")
+    List<AuditEvent> search(@Param("type") AuditEvent.Type type, @Param("username") String username,
+                            @Param("since") Instant since, Limit limit);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("delete from AuditEvent e where e.occurredAt < :before")
+    int deleteOlderThan(@Param("before") Instant before);
+}
@@ -0,0 +1,41 @@
+package com.springboot3security.repository;
+
+import com.springboot3security.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    boolean existsByFamilyIdAndRevokedTrue(String familyId);
+
+    // Conditional update so that of two concurrent exchanges of one token exactly one succeeds
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update RefreshToken t set t.usedAt = :now where t.id = :id and t.usedAt is null and t.revoked = false")
+    int markUsed(@Param("id") Long id, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update RefreshToken t set t.revoked = true where t.familyId = :familyId and t.revoked = false")
+    int revokeFamily(@Param("familyId") String familyId);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update RefreshToken t set t.revoked = true where t.username = :username and t.revoked = false")
+    int revokeAllForUser(@Param("username") String username);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("delete from RefreshToken t where t.expiresAt < :before")
+    int deleteExpiredBefore(@Param("before") Instant before);
+}
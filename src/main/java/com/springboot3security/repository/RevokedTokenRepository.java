@@ -0,0 +1,37 @@
+package com.springboot3security.repository;
+
+import com.springboot3security.entity.RevokedToken;
+import com.springboot3security.entity.RevokedTokenId;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    boolean existsByJti(String jti);
+
+    // Revocations added since the last sync, oldest first; rows past their expiry no longer matter
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query("select new com.springboot3security.entity.RevokedTokenId(t.id, t.jti) from RevokedToken t "
+            + "where t.id > :afterId and t.expiresAt > :now order by t.id")
+    List<RevokedTokenId> findActiveAfter(@Param("afterId") long afterId, @Param("now") Instant now, Limit limit);
+
+    long countByExpiresAtAfter(Instant now);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("delete from RevokedToken t where t.expiresAt < :before")
+    int deleteExpiredBefore(@Param("before") Instant before);
+}
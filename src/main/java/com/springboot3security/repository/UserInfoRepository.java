@@ -1,12 +1,69 @@
 package com.springboot3security.repository;
 
+import com.springboot3security.entity.UserCredentials;
 import com.springboot3security.entity.UserInfo;
+import com.springboot3security.entity.UserSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 @Repository
 public interface UserInfoRepository extends JpaRepository<UserInfo, Long> {
     Optional<UserInfo> findByUsername(String username);
+
+    // Projections below skip entity instantiation, dirty-check snapshots and the flush before commit;
+    // both are single-row lookups on the ux_users_username index
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query("select new com.springboot3security.entity.UserCredentials(u.username, u.password, u.role, u.tokenVersion) "
+            + "from UserInfo u where u.username = :username")
+    Optional<UserCredentials> findCredentialsByUsername(@Param("username") String username);
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query("select new com.springboot3security.entity.UserSummary(u.id, u.username, u.role) "
+            + "from UserInfo u where u.username = :username")
+    Optional<UserSummary> findSummaryByUsername(@Param("username") String username);
+
+    @Query("select u.username from UserInfo u where u.username in :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    @Query("select u.tokenVersion from UserInfo u where u.username = :username")
+    Optional<Integer> findTokenVersionByUsername(@Param("username") String username);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update UserInfo u set u.tokenVersion = u.tokenVersion + 1 where u.username = :username")
+    int incrementTokenVersion(@Param("username") String username);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update UserInfo u set u.password = :password where u.username = :username")
+    int updatePassword(@Param("username") String username, @Param("password") String password);
+
+    // True only when the unique username index rejected the row; NOT NULL, length and other violations are not
+    // duplicates. Hibernate names the constraint; R2DBC and plain JDBC only have the driver's message, which every
+    // supported database words with the index name
+    static boolean isDuplicateUsername(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT).contains(UserInfo.USERNAME_INDEX);
+            }
+        }
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(UserInfo.USERNAME_INDEX);
+    }
 }
@@ -0,0 +1,201 @@
+package com.springboot3security.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.springboot3security.entity.BulkUserResult;
+import com.springboot3security.entity.UserInfo;
+import com.springboot3security.repository.UserInfoRepository;
+import com.springboot3security.util.BoundedPasswordEncoder;
+import com.springboot3security.util.PasswordPolicy;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Imports users from a JSON array or NDJSON stream without holding the whole request in memory.
+// Rows are processed in chunks of users.bulk.batch-size: one set-based query finds existing usernames,
+// passwords are hashed on a fixed pool of users.bulk.hashing-threads (never on the login hashing pool),
+// and the chunk is written with a single JDBC batch. GenerationType.IDENTITY prevents Hibernate from
+// batching, so the insert goes through JdbcTemplate; tokenVersion is left to its column default.
+@Service
+public class BulkUserService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkUserService.class);
+    private static final String INSERT_USER = "insert into users (username, password, role) values (?, ?, ?)";
+
+    private final UserInfoRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder encoder;
+    private final PasswordPolicy passwordPolicy;
+    private final ObjectReader reader;
+    private final ExecutorService hashingPool;
+    private final int batchSize;
+
+    public BulkUserService(UserInfoRepository repository, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                           PasswordEncoder encoder, PasswordPolicy passwordPolicy, ObjectMapper objectMapper,
+                           @Value("${users.bulk.batch-size:500}") int batchSize,
+                           @Value("${users.bulk.hashing-threads:0}") int hashingThreads) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("users.bulk.batch-size must be positive");
+        }
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Hashing through the bounded login pool would park every bulk-hash thread on it and fill its queue,
+        // turning logins away with 503 and failing the import's own rows
+        this.encoder = encoder instanceof BoundedPasswordEncoder bounded ? bounded.getDelegate() : encoder;
+        this.passwordPolicy = passwordPolicy;
+        this.reader = objectMapper.readerFor(UserInfo.class);
+        this.batchSize = batchSize;
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.hashingPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-hash-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Accepts either a JSON array of users or one user object per line
+    public List<BulkUserResult> addUsers(InputStream body) throws IOException {
+        List<BulkUserResult> results = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        List<PendingUser> chunk = new ArrayList<>(batchSize);
+        int row = 0;
+        try (MappingIterator<UserInfo> users = reader.readValues(body)) {
+            while (users.hasNext()) {
+                UserInfo user = users.next();
+                BulkUserResult rejected = precheck(row, user, seen);
+                if (rejected != null) {
+                    results.add(rejected);
+                } else {
+                    chunk.add(new PendingUser(row, user));
+                    if (chunk.size() == batchSize) {
+                        results.addAll(insertChunk(chunk));
+                        chunk.clear();
+                    }
+                }
+                row++;
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(insertChunk(chunk));
+        }
+        results.sort(Comparator.comparingInt(BulkUserResult::row));
+        logger.info("Bulk import processed {} rows, {} created", row,
+                results.stream().filter(r -> r.status() == BulkUserResult.Status.CREATED).count());
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    private BulkUserResult precheck(int row, UserInfo user, Set<String> seen) {
+        String username = user.getUsername();
+        if (username == null || username.isBlank() || user.getPassword() == null) {
+            return new BulkUserResult(row, username, BulkUserResult.Status.INVALID, "Username and password are required");
+        }
+        int violations = passwordPolicy.evaluate(user.getPassword(), username);
+        if (violations != 0) {
+            return new BulkUserResult(row, username, BulkUserResult.Status.INVALID, passwordPolicy.describe(violations));
+        }
+        if (!seen.add(username)) {
+            return new BulkUserResult(row, username, BulkUserResult.Status.DUPLICATE, "Duplicate username in request");
+        }
+        return null;
+    }
+
+    private List<BulkUserResult> insertChunk(List<PendingUser> chunk) {
+        List<BulkUserResult> results = new ArrayList<>(chunk.size());
+        Set<String> existing = new HashSet<>(repository.findExistingUsernames(
+                chunk.stream().map(pending -> pending.user().getUsername()).toList()));
+
+        List<PendingUser> toHash = new ArrayList<>(chunk.size());
+        List<CompletableFuture<HashedUser>> hashing = new ArrayList<>(chunk.size());
+        for (PendingUser pending : chunk) {
+            UserInfo user = pending.user();
+            if (existing.contains(user.getUsername())) {
+                results.add(new BulkUserResult(pending.row(), user.getUsername(), BulkUserResult.Status.DUPLICATE, "User already exists"));
+            } else {
+                toHash.add(pending);
+                hashing.add(CompletableFuture.supplyAsync(() ->
+                        new HashedUser(pending.row(), user.getUsername(), encoder.encode(user.getPassword()), user.getRole()), hashingPool));
+            }
+        }
+
+        List<HashedUser> hashed = new ArrayList<>(hashing.size());
+        for (int i = 0; i < hashing.size(); i++) {
+            try {
+                hashed.add(hashing.get(i).join());
+            } catch (RuntimeException e) {
+                PendingUser pending = toHash.get(i);
+                logger.error("Password hashing failed during bulk import for user: {}. {}", pending.user().getUsername(), e.getMessage());
+                results.add(new BulkUserResult(pending.row(), pending.user().getUsername(), BulkUserResult.Status.FAILED, "Password hashing failed"));
+            }
+        }
+        if (hashed.isEmpty()) {
+            return results;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_USER, hashed, hashed.size(), (ps, user) -> {
+                        ps.setString(1, user.username());
+                        ps.setString(2, user.encodedPassword());
+                        ps.setString(3, user.role());
+                    }));
+            hashed.forEach(user -> results.add(created(user)));
+        } catch (DataAccessException e) {
+            // Someone registered one of these names since the existence check; the batch was rolled back,
+            // so fall back to row-by-row inserts to find out which rows are affected
+            logger.warn("Bulk insert batch failed, retrying row by row: {}", e.getMessage());
+            hashed.forEach(user -> results.add(insertOne(user)));
+        }
+        return results;
+    }
+
+    private BulkUserResult insertOne(HashedUser user) {
+        try {
+            jdbcTemplate.update(INSERT_USER, user.username(), user.encodedPassword(), user.role());
+            return created(user);
+        } catch (DuplicateKeyException e) {
+            return new BulkUserResult(user.row(), user.username(), BulkUserResult.Status.DUPLICATE, "User already exists");
+        } catch (DataAccessException e) {
+            logger.error("Bulk insert failed for user: {}", user.username(), e);
+            return new BulkUserResult(user.row(), user.username(), BulkUserResult.Status.FAILED, "Insert failed");
+        }
+    }
+
+    private static BulkUserResult created(HashedUser user) {
+        return new BulkUserResult(user.row(), user.username(), BulkUserResult.Status.CREATED, "User Added Successfully");
+    }
+
+    private record PendingUser(int row, UserInfo user) {
+    }
+
+    private record HashedUser(int row, String username, String encodedPassword, String role) {
+    }
+}
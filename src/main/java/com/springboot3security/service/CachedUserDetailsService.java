@@ -0,0 +1,130 @@
+package com.springboot3security.service;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.springboot3security.metrics.AuthMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Caching decorator for the user lookup used by login and by JwtAuthFilter.
+// Entries read after refresh-after-seconds are served stale while a background reload runs, so hot users
+// never wait on the database; entries not read for ttl-seconds are dropped. Missing users are never cached.
+// Writers must call evict so a changed user is reloaded on next use.
+// Safe only because UserInfoDetails is not a CredentialsContainer, so ProviderManager cannot erase the
+// cached password after a successful login.
+public class CachedUserDetailsService implements UserDetailsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachedUserDetailsService.class);
+
+    private final UserDetailsService delegate;
+    private final LoadingCache<String, UserDetails> cache;
+    private final AuthMetrics metrics;
+
+    public CachedUserDetailsService(UserDetailsService delegate, boolean enabled, long maxSize,
+                                    long ttlSeconds, long refreshAfterSeconds, AuthMetrics metrics) {
+        this(delegate, enabled, maxSize, ttlSeconds, refreshAfterSeconds, metrics, null);
+    }
+
+    // With a loadExecutor (see VirtualThreads) misses are loaded on it too, instead of on the caller's thread inside
+    // the cache's lock; concurrent misses for one user still share a single load
+    public CachedUserDetailsService(UserDetailsService delegate, boolean enabled, long maxSize, long ttlSeconds,
+                                    long refreshAfterSeconds, AuthMetrics metrics, Executor loadExecutor) {
+        this(delegate, enabled, maxSize, ttlSeconds, refreshAfterSeconds, metrics, Ticker.systemTicker(),
+                loadExecutor != null ? loadExecutor : ForkJoinPool.commonPool(), loadExecutor != null);
+    }
+
+    CachedUserDetailsService(UserDetailsService delegate, boolean enabled, long maxSize, long ttlSeconds,
+                             long refreshAfterSeconds, AuthMetrics metrics, Ticker ticker, Executor executor) {
+        this(delegate, enabled, maxSize, ttlSeconds, refreshAfterSeconds, metrics, ticker, executor, false);
+    }
+
+    CachedUserDetailsService(UserDetailsService delegate, boolean enabled, long maxSize, long ttlSeconds,
+                             long refreshAfterSeconds, AuthMetrics metrics, Ticker ticker, Executor executor,
+                             boolean loadOnExecutor) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        if (enabled && refreshAfterSeconds >= ttlSeconds) {
+            throw new IllegalArgumentException("users.cache.refresh-after-seconds must be less than users.cache.ttl-seconds");
+        }
+        if (!enabled) {
+            this.cache = null;
+            return;
+        }
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .refreshAfterWrite(refreshAfterSeconds, TimeUnit.SECONDS)
+                .ticker(ticker)
+                .executor(executor)
+                .recordStats();
+        this.cache = loadOnExecutor
+                ? builder.buildAsync(new UserDetailsLoader()).synchronous()
+                : builder.build(new UserDetailsLoader());
+        metrics.bindCache("users", cache);
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        long start = System.nanoTime();
+        try {
+            return cache == null ? delegate.loadUserByUsername(username) : cache.get(username);
+        } catch (UsernameNotFoundException e) {
+            // An async cache drops the failed load only once its future's callbacks run on the loader thread;
+            // evict now so the next lookup never sees the stale failure
+            evict(username);
+            throw e;
+        } finally {
+            metrics.recordUserLookup(System.nanoTime() - start);
+        }
+    }
+
+    public void evict(String username) {
+        if (cache != null) {
+            cache.invalidate(username);
+        }
+    }
+
+    public void evictAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    // Hit rate, load count and load time since startup; also exported as cache.* meters tagged cache=users
+    public CacheStats stats() {
+        return cache != null ? cache.stats() : CacheStats.empty();
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    private final class UserDetailsLoader implements CacheLoader<String, UserDetails> {
+
+        @Override
+        public UserDetails load(String username) {
+            return delegate.loadUserByUsername(username);
+        }
+
+        // Background refresh; a user deleted in the meantime is removed rather than served stale
+        @Override
+        public UserDetails reload(String username, UserDetails oldValue) {
+            try {
+                return delegate.loadUserByUsername(username);
+            } catch (UsernameNotFoundException e) {
+                logger.info("User removed during refresh: {}", username);
+                return null;
+            }
+        }
+    }
+}
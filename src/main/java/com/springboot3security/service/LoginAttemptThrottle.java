@@ -0,0 +1,176 @@
+package com.springboot3security.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.springboot3security.util.LoginThrottledException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Sliding-window counters of failed logins per username and per client IP, checked before any password
+// is verified so a credential-stuffing run cannot keep the BCrypt pool busy.
+// Each counter splits auth.throttle.window-seconds into BUCKETS slots updated with CAS only; the counters
+// live in size-bounded caches and are dropped once a key has been idle for a whole window.
+@Component
+public class LoginAttemptThrottle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginAttemptThrottle.class);
+    static final int BUCKETS = 10;
+
+    private final boolean enabled;
+    private final int maxUsernameFailures;
+    private final int maxIpFailures;
+    private final long bucketNanos;
+    private final Ticker ticker;
+    private final long startNanos;
+    private final Cache<String, SlidingWindowCounter> usernameFailures;
+    private final Cache<String, SlidingWindowCounter> ipFailures;
+
+    @Autowired
+    public LoginAttemptThrottle(@Value("${auth.throttle.enabled:true}") boolean enabled,
+                                @Value("${auth.throttle.window-seconds:300}") long windowSeconds,
+                                @Value("${auth.throttle.max-failures-per-username:10}") int maxUsernameFailures,
+                                @Value("${auth.throttle.max-failures-per-ip:100}") int maxIpFailures,
+                                @Value("${auth.throttle.max-keys:100000}") long maxKeys) {
+        this(enabled, windowSeconds, maxUsernameFailures, maxIpFailures, maxKeys, Ticker.systemTicker(), ForkJoinPool.commonPool());
+    }
+
+    LoginAttemptThrottle(boolean enabled, long windowSeconds, int maxUsernameFailures, int maxIpFailures,
+                         long maxKeys, Ticker ticker, Executor executor) {
+        if (enabled && windowSeconds < BUCKETS) {
+            throw new IllegalArgumentException("auth.throttle.window-seconds must be at least " + BUCKETS);
+        }
+        this.enabled = enabled;
+        this.maxUsernameFailures = maxUsernameFailures;
+        this.maxIpFailures = maxIpFailures;
+        this.bucketNanos = TimeUnit.SECONDS.toNanos(windowSeconds) / BUCKETS;
+        this.ticker = ticker;
+        // System.nanoTime may be negative; bucket numbers count from startup so they fit the packed slots
+        this.startNanos = ticker.read();
+        this.usernameFailures = enabled ? newCache(windowSeconds, maxKeys, ticker, executor) : null;
+        this.ipFailures = enabled ? newCache(windowSeconds, maxKeys, ticker, executor) : null;
+    }
+
+    // Throws before authentication when either the username or the client address is over its limit
+    public void checkAllowed(String username, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long now = currentBucket();
+        if (username != null && failures(usernameFailures, username, now) >= maxUsernameFailures) {
+            logger.warn("Login throttled for user: {}", username);
+            throw new LoginThrottledException("Too many failed login attempts", retryAfterSeconds());
+        }
+        if (clientIp != null && failures(ipFailures, clientIp, now) >= maxIpFailures) {
+            logger.warn("Login throttled for client: {}", clientIp);
+            throw new LoginThrottledException("Too many failed login attempts", retryAfterSeconds());
+        }
+    }
+
+    public void recordFailure(String username, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long now = currentBucket();
+        if (username != null) {
+            usernameFailures.get(username, key -> new SlidingWindowCounter()).increment(now);
+        }
+        if (clientIp != null) {
+            ipFailures.get(clientIp, key -> new SlidingWindowCounter()).increment(now);
+        }
+    }
+
+    // A correct password clears the username's failures; the address keeps its count so one valid
+    // account cannot be used to reset a scan across many others
+    public void recordSuccess(String username) {
+        if (enabled && username != null) {
+            usernameFailures.invalidate(username);
+        }
+    }
+
+    public long getUsernameFailures(String username) {
+        return enabled ? failures(usernameFailures, username, currentBucket()) : 0;
+    }
+
+    public long getIpFailures(String clientIp) {
+        return enabled ? failures(ipFailures, clientIp, currentBucket()) : 0;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private long currentBucket() {
+        return (ticker.read() - startNanos) / bucketNanos;
+    }
+
+    // The oldest bucket drops out of the window within one bucket width
+    private long retryAfterSeconds() {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(bucketNanos));
+    }
+
+    private static long failures(Cache<String, SlidingWindowCounter> cache, String key, long now) {
+        SlidingWindowCounter counter = cache.getIfPresent(key);
+        return counter != null ? counter.sum(now) : 0;
+    }
+
+    private static Cache<String, SlidingWindowCounter> newCache(long windowSeconds, long maxKeys, Ticker ticker, Executor executor) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(windowSeconds, TimeUnit.SECONDS)
+                .ticker(ticker)
+                .executor(executor)
+                .build();
+    }
+
+    // Ring of BUCKETS slots, each packing the bucket number (high bits) with its count (low bits) in one long
+    // so a slot is claimed for a new bucket and incremented in the same CAS
+    static final class SlidingWindowCounter {
+
+        private static final int COUNT_BITS = 24;
+        private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+        private final AtomicLongArray slots = new AtomicLongArray(BUCKETS);
+
+        void increment(long bucket) {
+            int index = (int) (bucket % BUCKETS);
+            long current;
+            long next;
+            do {
+                current = slots.get(index);
+                if (current >>> COUNT_BITS == bucket) {
+                    long count = current & COUNT_MASK;
+                    if (count == COUNT_MASK) {
+                        return;
+                    }
+                    next = current + 1;
+                } else if (current >>> COUNT_BITS > bucket) {
+                    // A faster thread already moved this slot on to a later bucket
+                    return;
+                } else {
+                    next = (bucket << COUNT_BITS) | 1;
+                }
+            } while (!slots.compareAndSet(index, current, next));
+        }
+
+        long sum(long bucket) {
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                long slot = slots.get(i);
+                long slotBucket = slot >>> COUNT_BITS;
+                if (slotBucket <= bucket && bucket - slotBucket < BUCKETS) {
+                    total += slot & COUNT_MASK;
+                }
+            }
+            return total;
+        }
+    }
+}
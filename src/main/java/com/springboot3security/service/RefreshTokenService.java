@@ -0,0 +1,177 @@
+package com.springboot3security.service;
+
+import com.springboot3security.entity.RefreshToken;
+import com.springboot3security.entity.TokenPair;
+import com.springboot3security.metrics.AuthMetrics;
+import com.springboot3security.repository.RefreshTokenRepository;
+import com.springboot3security.util.InvalidRefreshTokenException;
+import com.springboot3security.util.JwtUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+// Opaque, single-use refresh tokens. Renewing an access token is one indexed lookup by the token's SHA-256
+// plus a conditional update, instead of a BCrypt check of the password. Each exchange rotates the token;
+// presenting one that was already exchanged means it leaked, so every token descended from the same login is revoked.
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository repository;
+    private final CachedUserDetailsService userDetailsService;
+    private final JwtUtil jwtUtil;
+    private final AuthMetrics metrics;
+    private final Duration refreshTokenTtl;
+    private final Clock clock;
+    private final TransactionTemplate transactionTemplate;
+    private final SecureRandom random = new SecureRandom();
+
+    @Autowired
+    public RefreshTokenService(RefreshTokenRepository repository, CachedUserDetailsService userDetailsService, JwtUtil jwtUtil,
+                               AuthMetrics metrics, PlatformTransactionManager transactionManager,
+                               @Value("${jwt.refresh-token.ttl-seconds:1209600}") long refreshTokenTtlSeconds) {
+        this(repository, userDetailsService, jwtUtil, metrics, new TransactionTemplate(transactionManager),
+                Duration.ofSeconds(refreshTokenTtlSeconds), Clock.systemUTC());
+    }
+
+    RefreshTokenService(RefreshTokenRepository repository, CachedUserDetailsService userDetailsService, JwtUtil jwtUtil,
+                        AuthMetrics metrics, TransactionTemplate transactionTemplate, Duration refreshTokenTtl, Clock clock) {
+        if (refreshTokenTtl.isNegative() || refreshTokenTtl.isZero()) {
+            throw new IllegalArgumentException("jwt.refresh-token.ttl-seconds must be positive");
+        }
+        this.repository = repository;
+        this.userDetailsService = userDetailsService;
+        this.jwtUtil = jwtUtil;
+        this.metrics = metrics;
+        this.refreshTokenTtl = refreshTokenTtl;
+        this.clock = clock;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // Starts a new token family after a password login
+    public TokenPair issue(UserDetails userDetails) {
+        return issue(userDetails, UUID.randomUUID().toString());
+    }
+
+    public TokenPair refresh(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            metrics.refreshOutcome(AuthMetrics.RefreshOutcome.UNKNOWN);
+            throw new InvalidRefreshTokenException("Refresh token is required");
+        }
+        Rotation rotation = transactionTemplate.execute(status -> rotate(hash(rawToken)));
+        metrics.refreshOutcome(rotation.outcome());
+        if (rotation.pair() == null) {
+            throw new InvalidRefreshTokenException(rotation.message());
+        }
+        return rotation.pair();
+    }
+
+    // One transaction: markUsed holds the presented token's row lock until the child token is stored, so a second
+    // exchange of the same token waits, finds it used and revokes the family including the child. A failure while
+    // issuing rolls markUsed back instead of burning the token. Rejections are returned rather than thrown so that
+    // the revocations they make are committed
+    private Rotation rotate(String tokenHash) {
+        Optional<RefreshToken> stored = repository.findByTokenHash(tokenHash);
+        if (stored.isEmpty()) {
+            return Rotation.rejected(AuthMetrics.RefreshOutcome.UNKNOWN, "Unknown refresh token");
+        }
+        RefreshToken token = stored.get();
+        Instant now = clock.instant();
+        if (token.isRevoked()) {
+            return Rotation.rejected(AuthMetrics.RefreshOutcome.REVOKED, "Refresh token has been revoked");
+        }
+        if (!token.getExpiresAt().isAfter(now)) {
+            return Rotation.rejected(AuthMetrics.RefreshOutcome.EXPIRED, "Refresh token has expired");
+        }
+        // usedAt catches a replay of an old token; markUsed returning 0 catches two requests racing on the same one
+        if (token.getUsedAt() != null || repository.markUsed(token.getId(), now) == 0) {
+            int revoked = repository.revokeFamily(token.getFamilyId());
+            logger.warn("Refresh token reuse detected for user: {}, revoked {} tokens", token.getUsername(), revoked);
+            return Rotation.rejected(AuthMetrics.RefreshOutcome.REUSED, "Refresh token has already been used");
+        }
+
+        UserDetails userDetails;
+        try {
+            userDetails = userDetailsService.loadUserByUsername(token.getUsername());
+        } catch (UsernameNotFoundException e) {
+            repository.revokeFamily(token.getFamilyId());
+            return Rotation.rejected(AuthMetrics.RefreshOutcome.REVOKED, "User no longer exists");
+        }
+        TokenPair pair = issue(userDetails, token.getFamilyId());
+        // A replay of an older token of the family may have revoked it since the lookup; the child goes with it
+        if (repository.existsByFamilyIdAndRevokedTrue(token.getFamilyId())) {
+            repository.revokeFamily(token.getFamilyId());
+            return Rotation.rejected(AuthMetrics.RefreshOutcome.REVOKED, "Refresh token has been revoked");
+        }
+        return new Rotation(pair, AuthMetrics.RefreshOutcome.ROTATED, null);
+    }
+
+    // Used when a user's tokens are invalidated; access tokens are handled by the token version
+    public int revokeAll(String username) {
+        return repository.revokeAllForUser(username);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-token.purge-interval-millis:3600000}",
+            initialDelayString = "${jwt.refresh-token.purge-interval-millis:3600000}")
+    public void purgeExpired() {
+        int deleted = repository.deleteExpiredBefore(clock.instant());
+        if (deleted > 0) {
+            logger.info("Purged {} expired refresh tokens", deleted);
+        }
+    }
+
+    private TokenPair issue(UserDetails userDetails, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Instant now = clock.instant();
+
+        RefreshToken token = new RefreshToken();
+        token.setTokenHash(hash(rawToken));
+        token.setUsername(userDetails.getUsername());
+        token.setFamilyId(familyId);
+        token.setIssuedAt(now);
+        token.setExpiresAt(now.plus(refreshTokenTtl));
+        repository.save(token);
+
+        return new TokenPair(jwtUtil.generateToken(userDetails), rawToken, jwtUtil.getAccessTokenTtl().toSeconds());
+    }
+
+    private record Rotation(TokenPair pair, AuthMetrics.RefreshOutcome outcome, String message) {
+
+        static Rotation rejected(AuthMetrics.RefreshOutcome outcome, String message) {
+            return new Rotation(null, outcome, message);
+        }
+    }
+
+    // Tokens are 256 random bits, so a fast unsalted hash is enough to make a leaked table useless
+    static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
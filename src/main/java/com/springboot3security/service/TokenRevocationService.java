@@ -0,0 +1,160 @@
+package com.springboot3security.service;
+
+import com.springboot3security.entity.RevokedToken;
+import com.springboot3security.entity.RevokedTokenId;
+import com.springboot3security.filter.VerifiedTokenCache;
+import com.springboot3security.repository.RevokedTokenRepository;
+import com.springboot3security.util.ConcurrentBloomFilter;
+import com.springboot3security.util.TokenValidationResult;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Revoked access tokens by jti. Rows live in revoked_tokens; each node keeps a Bloom filter of the jtis that
+// have not expired yet, so checking a token that was never revoked is a few bit reads with no database access.
+// Only a filter hit (a revoked token, or a false positive at jwt.revocation.false-positive-rate) is confirmed
+// against the table. The filter picks up other nodes' revocations every sync-interval-millis by reading rows
+// past the last id seen, and is rebuilt without expired entries every prune-interval-millis; the rebuild also
+// recovers any row whose id committed out of order behind the sync cursor.
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+    private static final int SYNC_BATCH_SIZE = 1000;
+
+    private final RevokedTokenRepository repository;
+    private final VerifiedTokenCache tokenCache;
+    private final long expectedEntries;
+    private final double falsePositiveRate;
+    private final Clock clock;
+    private volatile ConcurrentBloomFilter filter;
+    // sync and rebuild read the database while holding it, so not synchronized; see VirtualThreads
+    private final ReentrantLock syncLock = new ReentrantLock();
+    // Guarded by syncLock; only sync and rebuild move it
+    private long lastSyncedId;
+
+    @Autowired
+    public TokenRevocationService(RevokedTokenRepository repository, VerifiedTokenCache tokenCache,
+                                  @Value("${jwt.revocation.expected-entries:100000}") long expectedEntries,
+                                  @Value("${jwt.revocation.false-positive-rate:0.001}") double falsePositiveRate) {
+        this(repository, tokenCache, expectedEntries, falsePositiveRate, Clock.systemUTC());
+    }
+
+    TokenRevocationService(RevokedTokenRepository repository, VerifiedTokenCache tokenCache, long expectedEntries,
+                           double falsePositiveRate, Clock clock) {
+        this.repository = repository;
+        this.tokenCache = tokenCache;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.clock = clock;
+        this.filter = new ConcurrentBloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+    }
+
+    // Tokens issued before jti claims were added cannot be revoked one by one; invalidateTokens covers them
+    public boolean isRevoked(String tokenId) {
+        return mightBeRevoked(tokenId) && repository.existsByJti(tokenId);
+    }
+
+    // Filter only, never blocks; false is definitive, true must be confirmed with isRevoked
+    public boolean mightBeRevoked(String tokenId) {
+        return tokenId != null && filter.mightContain(tokenId);
+    }
+
+    // Returns false when the token has no jti, has already expired or was already revoked
+    public boolean revoke(TokenValidationResult token) {
+        Instant now = clock.instant();
+        if (token.tokenId() == null || token.expiration() == null || !token.expiration().isAfter(now)) {
+            return false;
+        }
+        RevokedToken revoked = new RevokedToken();
+        revoked.setJti(token.tokenId());
+        revoked.setUsername(token.subject());
+        revoked.setExpiresAt(token.expiration());
+        revoked.setRevokedAt(now);
+        try {
+            repository.saveAndFlush(revoked);
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+        // Under the lock, so a rebuild that read the table before this commit cannot swap in a filter without it
+        syncLock.lock();
+        try {
+            filter.add(token.tokenId());
+        } finally {
+            syncLock.unlock();
+        }
+        // Drops entries cached before now; a put racing this carries the old generation and is never served
+        tokenCache.invalidateAll();
+        logger.info("Revoked token {} of user: {}", token.tokenId(), token.subject());
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-millis:5000}",
+            initialDelayString = "${jwt.revocation.sync-interval-millis:5000}")
+    public void sync() {
+        syncLock.lock();
+        try {
+            int added = load(filter);
+            if (added > 0) {
+                tokenCache.invalidateAll();
+                logger.info("Synced {} revoked tokens", added);
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.prune-interval-millis:600000}",
+            initialDelayString = "${jwt.revocation.prune-interval-millis:600000}")
+    public void prune() {
+        int deleted = repository.deleteExpiredBefore(clock.instant());
+        if (deleted > 0) {
+            logger.info("Pruned {} expired revoked tokens", deleted);
+        }
+        rebuild();
+    }
+
+    // Swaps in a fresh filter holding only unexpired revocations, sized for at least twice the current count
+    void rebuild() {
+        syncLock.lock();
+        try {
+            long active = repository.countByExpiresAtAfter(clock.instant());
+            ConcurrentBloomFilter fresh = new ConcurrentBloomFilter(Math.max(expectedEntries, active * 2), falsePositiveRate);
+            lastSyncedId = 0;
+            load(fresh);
+            filter = fresh;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private int load(ConcurrentBloomFilter target) {
+        int added = 0;
+        List<RevokedTokenId> batch;
+        do {
+            batch = repository.findActiveAfter(lastSyncedId, clock.instant(), Limit.of(SYNC_BATCH_SIZE));
+            for (RevokedTokenId revoked : batch) {
+                target.add(revoked.jti());
+                lastSyncedId = revoked.id();
+            }
+            added += batch.size();
+        } while (batch.size() == SYNC_BATCH_SIZE);
+        return added;
+    }
+}
@@ -0,0 +1,59 @@
+package com.springboot3security.service;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.springboot3security.repository.UserInfoRepository;
+import com.springboot3security.util.VirtualThreads;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+// Current token version per user, read from the database at most once per ttl-seconds per user.
+// A token whose "ver" claim does not match is no longer accepted, which is how role changes and
+// disabled accounts take effect without a user lookup on every request.
+@Component
+public class TokenVersionRegistry {
+
+    // Marks users that no longer exist; no token version can match it
+    private static final int UNKNOWN_USER = -1;
+
+    private final LoadingCache<String, Integer> versions;
+
+    @Autowired
+    public TokenVersionRegistry(UserInfoRepository repository,
+                                @Value("${jwt.token-version.ttl-seconds:60}") long ttlSeconds,
+                                @Value("${jwt.token-version.max-size:100000}") long maxSize,
+                                Environment environment) {
+        this(repository, ttlSeconds, maxSize, VirtualThreads.loadExecutor(environment, "token-version-"));
+    }
+
+    public TokenVersionRegistry(UserInfoRepository repository, long ttlSeconds, long maxSize) {
+        this(repository, ttlSeconds, maxSize, (Executor) null);
+    }
+
+    // A loadExecutor moves the database read out of the cache's lock, see VirtualThreads
+    TokenVersionRegistry(UserInfoRepository repository, long ttlSeconds, long maxSize, Executor loadExecutor) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS);
+        CacheLoader<String, Integer> loader = username -> repository.findTokenVersionByUsername(username).orElse(UNKNOWN_USER);
+        this.versions = loadExecutor != null
+                ? builder.executor(loadExecutor).buildAsync(loader).synchronous()
+                : builder.build(loader);
+    }
+
+    // Tokens issued before versioning carry no claim and count as version 0
+    public boolean isCurrent(String username, Integer tokenVersion) {
+        int claimed = tokenVersion != null ? tokenVersion : 0;
+        return versions.get(username) == claimed;
+    }
+
+    public void evict(String username) {
+        versions.invalidate(username);
+    }
+}
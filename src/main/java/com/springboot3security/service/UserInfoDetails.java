@@ -1,29 +1,60 @@
 package com.springboot3security.service;
 
+import com.springboot3security.entity.UserCredentials;
 import com.springboot3security.entity.UserInfo;
+import com.springboot3security.util.Role;
+import com.springboot3security.util.RoleSet;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class UserInfoDetails implements UserDetails {
 
     private final String username;
     private final String password;
     private final List<GrantedAuthority> authorities;
+    private final int tokenVersion;
 
     public UserInfoDetails(UserInfo userInfo) {
-        this.username = userInfo.getUsername(); // Use email as username
-        this.password = userInfo.getPassword();
-        this.authorities = userInfo.getRole() != null
-                ? Stream.of(userInfo.getRole())
-                    .map(SimpleGrantedAuthority::new)
-                    .collect(Collectors.toList())
-                : List.of();
+        this(userInfo.getUsername(), userInfo.getPassword(), userInfo.getRole(), userInfo.getTokenVersion());
+    }
+
+    public UserInfoDetails(UserCredentials credentials) {
+        this(credentials.username(), credentials.password(), credentials.role(), credentials.tokenVersion());
+    }
+
+    private UserInfoDetails(String username, String password, String role, int tokenVersion) {
+        this.username = username; // Use email as username
+        this.password = password;
+        this.authorities = authorities(role);
+        this.tokenVersion = tokenVersion;
+    }
+
+    private UserInfoDetails(UserInfoDetails source, String password) {
+        this.username = source.username;
+        this.password = password;
+        this.authorities = source.authorities;
+        this.tokenVersion = source.tokenVersion;
+    }
+
+    // Known roles share the interned RoleSet; any other stored value becomes a single authority of its own
+    private static List<GrantedAuthority> authorities(String role) {
+        if (role == null) {
+            return RoleSet.NONE;
+        }
+        Role known = Role.fromAuthority(role);
+        return known != null ? RoleSet.of(known) : List.of(new SimpleGrantedAuthority(role));
+    }
+
+    public UserInfoDetails withPassword(String password) {
+        return new UserInfoDetails(this, password);
+    }
+
+    public int getTokenVersion() {
+        return tokenVersion;
     }
 
     @Override
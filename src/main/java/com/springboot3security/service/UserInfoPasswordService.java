@@ -0,0 +1,37 @@
+package com.springboot3security.service;
+
+import com.springboot3security.repository.UserInfoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.stereotype.Service;
+
+// Called by DaoAuthenticationProvider after a successful login when the stored hash is below the current
+// encoder policy; the new hash is written straight to the users table
+@Service
+public class UserInfoPasswordService implements UserDetailsPasswordService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserInfoPasswordService.class);
+    private final UserInfoRepository repository;
+    private final CachedUserDetailsService userDetailsService;
+
+    public UserInfoPasswordService(UserInfoRepository repository, CachedUserDetailsService userDetailsService) {
+        this.repository = repository;
+        this.userDetailsService = userDetailsService;
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        logger.info("Upgrading password hash for user: {}", user.getUsername());
+        if (repository.updatePassword(user.getUsername(), newPassword) == 0) {
+            logger.warn("Password hash upgrade skipped, user not found: {}", user.getUsername());
+            return user;
+        }
+        userDetailsService.evict(user.getUsername());
+        return user instanceof UserInfoDetails details
+                ? details.withPassword(newPassword)
+                : User.withUserDetails(user).password(newPassword).build();
+    }
+}
@@ -1,13 +1,20 @@
 package com.springboot3security.service;
 
+import com.springboot3security.audit.AuditLog;
+import com.springboot3security.entity.AuditEvent;
+import com.springboot3security.entity.TokenPair;
 import com.springboot3security.entity.UserInfo;
+import com.springboot3security.entity.UserSummary;
+import com.springboot3security.filter.VerifiedTokenCache;
+import com.springboot3security.metrics.AuthMetrics;
 import com.springboot3security.repository.UserInfoRepository;
 import com.springboot3security.util.JwtUtil;
-import com.springboot3security.util.PasswordValidationUtil;
+import com.springboot3security.util.PasswordPolicy;
+import com.springboot3security.util.TokenValidationResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -20,42 +27,112 @@ public class UserInfoService {
     private final UserInfoRepository repository;
     private final JwtUtil jwtUtil;
     private final PasswordEncoder encoder;
-    private final UserDetailsService userDetailsService;
+    private final CachedUserDetailsService userDetailsService;
+    private final TokenVersionRegistry tokenVersions;
+    private final VerifiedTokenCache tokenCache;
+    private final AuthMetrics metrics;
+    private final PasswordPolicy passwordPolicy;
+    private final RefreshTokenService refreshTokens;
+    private final TokenRevocationService revocations;
+    private final AuditLog auditLog;
 
-    public UserInfoService(UserInfoRepository repository, PasswordEncoder encoder, JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public UserInfoService(UserInfoRepository repository, PasswordEncoder encoder, JwtUtil jwtUtil, CachedUserDetailsService userDetailsService,
+                           TokenVersionRegistry tokenVersions, VerifiedTokenCache tokenCache, AuthMetrics metrics,
+                           PasswordPolicy passwordPolicy, RefreshTokenService refreshTokens, TokenRevocationService revocations,
+                           AuditLog auditLog) {
         this.repository = repository;
         this.encoder = encoder;
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.tokenVersions = tokenVersions;
+        this.tokenCache = tokenCache;
+        this.metrics = metrics;
+        this.passwordPolicy = passwordPolicy;
+        this.refreshTokens = refreshTokens;
+        this.revocations = revocations;
+        this.auditLog = auditLog;
     }
 
     public String addUser(UserInfo userInfo) {
-        logger.info("Attempting to add new user: {}", userInfo.getUsername());
-        if (!PasswordValidationUtil.isValidPassword(userInfo.getPassword())) {
-            String errorMessage = PasswordValidationUtil.getPasswordRequirements();
-            logger.error("Password validation failed for user: {}. {}", userInfo.getUsername(), errorMessage);
+        int violations = passwordPolicy.evaluate(userInfo.getPassword(), userInfo.getUsername());
+        if (violations != 0) {
+            String errorMessage = passwordPolicy.describe(violations);
+            metrics.addUserOutcome(AuthMetrics.AddUserOutcome.INVALID_PASSWORD);
+            auditLog.record(AuditEvent.Type.REGISTRATION_REJECTED, userInfo.getUsername(), "invalid_password");
             return errorMessage;
         }
-        if (repository.findByUsername(userInfo.getUsername()).isPresent()) {
-            logger.warn("User already exists: {}", userInfo.getUsername());
-            return "User already exists";
-        }
         // Encode password before saving the user
         userInfo.setPassword(encoder.encode(userInfo.getPassword()));
-        repository.save(userInfo);
-        logger.info("User successfully added: {}", userInfo.getUsername());
+        // A client-supplied id would turn the insert into a merge over an existing row
+        userInfo.setId(null);
+        // Single INSERT; the unique index on username rejects duplicates, including concurrent registrations
+        try {
+            repository.saveAndFlush(userInfo);
+        } catch (DataIntegrityViolationException e) {
+            if (!UserInfoRepository.isDuplicateUsername(e)) {
+                throw e;
+            }
+            metrics.addUserOutcome(AuthMetrics.AddUserOutcome.DUPLICATE);
+            auditLog.record(AuditEvent.Type.REGISTRATION_REJECTED, userInfo.getUsername(), "duplicate");
+            return "User already exists";
+        }
+        userDetailsService.evict(userInfo.getUsername());
+        metrics.addUserOutcome(AuthMetrics.AddUserOutcome.CREATED);
+        auditLog.record(AuditEvent.Type.USER_REGISTERED, userInfo.getUsername(), userInfo.getRole());
         return "User Added Successfully";
     }
 
     public String authenticateAndGetToken(String username) {
-        logger.info("Authenticating user: {}", username);
+        logger.debug("Authenticating user: {}", username);
         UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-        return jwtUtil.generateToken(userDetails);
+        return jwtUtil.generateLegacyToken(userDetails);
+    }
+
+    public TokenPair authenticateAndGetTokenPair(String username) {
+        logger.debug("Issuing token pair for user: {}", username);
+        return refreshTokens.issue(userDetailsService.loadUserByUsername(username));
+    }
+
+    public TokenPair refreshToken(String refreshToken) {
+        return refreshTokens.refresh(refreshToken);
+    }
+
+    // Makes every token issued so far for this user invalid; call after a role change or when disabling an account
+    public boolean invalidateTokens(String username) {
+        logger.info("Invalidating tokens for user: {}", username);
+        if (repository.incrementTokenVersion(username) == 0) {
+            logger.warn("Cannot invalidate tokens, user not found: {}", username);
+            return false;
+        }
+        tokenVersions.evict(username);
+        userDetailsService.evict(username);
+        tokenCache.invalidateAll();
+        refreshTokens.revokeAll(username);
+        auditLog.record(AuditEvent.Type.TOKENS_INVALIDATED, username, null);
+        return true;
+    }
+
+    // Revokes a single access token by its jti; the user's other tokens keep working
+    public String revokeToken(String token) {
+        TokenValidationResult result = token == null ? null : jwtUtil.validate(token);
+        if (result == null || !result.isValid()) {
+            logger.warn("Cannot revoke an invalid or expired token");
+            return "Invalid token";
+        }
+        if (result.tokenId() == null) {
+            logger.warn("Cannot revoke token without a jti for user: {}", result.subject());
+            return "Token has no id, invalidate the user's tokens instead";
+        }
+        if (!revocations.revoke(result)) {
+            return "Token already revoked or expired";
+        }
+        auditLog.record(AuditEvent.Type.TOKEN_REVOKED, result.subject(), result.tokenId());
+        return "Token revoked";
     }
 
     public String getUserInfo(String username) {
         logger.info("Fetching user info for username: {}", username);
-        Optional<UserInfo> userDetail = repository.findByUsername(username);
+        Optional<UserSummary> userDetail = repository.findSummaryByUsername(username);
         if (userDetail.isPresent()) {
             logger.info("User info retrieved successfully for username: {}", username);
             return "User Info: " + userDetail.get();
@@ -0,0 +1,232 @@
+package com.springboot3security.util;
+
+import com.springboot3security.jfr.PasswordHashEvent;
+import com.springboot3security.metrics.AuthMetrics;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Runs encode/matches on a fixed-size worker pool with a bounded queue, so a login or registration burst
+// can only occupy that many cores. When the queue is full, or a caller waits longer than the timeout,
+// the call fails fast with PasswordHashingRejectedException instead of piling up request threads.
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final long retryAfterSeconds;
+    private final AuthMetrics metrics;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity,
+                                  long timeoutMillis, long retryAfterSeconds, AuthMetrics metrics) {
+        this.delegate = delegate;
+        this.timeoutMillis = timeoutMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.metrics = metrics;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> hashEncode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> hashMatches(rawPassword, encodedPassword));
+    }
+
+    // Non-blocking variants for callers that must not park their thread (the reactive stack): the hash runs on
+    // the same bounded pool and the future completes on a hashing thread. A full queue or a wait longer than
+    // the timeout fails the future with PasswordHashingRejectedException, just like the blocking calls.
+    public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+        return submitAsync(() -> hashEncode(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> matchesAsync(CharSequence rawPassword, String encodedPassword) {
+        return submitAsync(() -> hashMatches(rawPassword, encodedPassword));
+    }
+
+    // Only inspects the stored hash, cheap enough to stay on the caller's thread
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    // The unbounded encoder, for callers that already run on a bounded pool of their own (bulk import)
+    public PasswordEncoder getDelegate() {
+        return delegate;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    // Tasks a worker picked up, and the time they spent queued before that
+    public long getWaitCount() {
+        return waits.sum();
+    }
+
+    public long getTotalWaitNanos() {
+        return totalWaitNanos.sum();
+    }
+
+    public long getMaxWaitNanos() {
+        return maxWaitNanos.get();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private String hashEncode(CharSequence rawPassword) {
+        long start = System.nanoTime();
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        String encoded = delegate.encode(rawPassword);
+        metrics.recordPasswordEncode(System.nanoTime() - start);
+        if (event.shouldCommit()) {
+            event.operation = "encode";
+            event.outcome = "encoded";
+            event.encodedLength = encoded.length();
+            event.commit();
+        }
+        return encoded;
+    }
+
+    private boolean hashMatches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        metrics.recordPasswordMatches(System.nanoTime() - start);
+        if (event.shouldCommit()) {
+            event.operation = "matches";
+            event.outcome = matches ? "matched" : "mismatched";
+            event.encodedLength = encodedPassword != null ? encodedPassword.length() : 0;
+            event.commit();
+        }
+        return matches;
+    }
+
+    private <T> T submit(Callable<T> task) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long waited = System.nanoTime() - queuedAt;
+                recordWait(waited);
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingRejectedException("Password hashing capacity exceeded", retryAfterSeconds);
+        }
+        try {
+            T result = future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            completed.increment();
+            return result;
+        } catch (TimeoutException e) {
+            cancel(future);
+            rejected.increment();
+            throw new PasswordHashingRejectedException("Password hashing timed out", retryAfterSeconds);
+        } catch (InterruptedException e) {
+            cancel(future);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("Interrupted while waiting for password hashing", retryAfterSeconds);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private <T> CompletableFuture<T> submitAsync(Callable<T> task) {
+        long queuedAt = System.nanoTime();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                // Timed out or cancelled while queued: free the worker without hashing
+                if (result.isDone()) {
+                    return;
+                }
+                long waited = System.nanoTime() - queuedAt;
+                recordWait(waited);
+                try {
+                    T value = task.call();
+                    // Counted before completing so callers see it; a hash that outlived the timeout is dropped,
+                    // as the blocking caller would have given up on it
+                    completed.increment();
+                    if (!result.complete(value)) {
+                        completed.decrement();
+                    }
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            result.completeExceptionally(new PasswordHashingRejectedException("Password hashing capacity exceeded", retryAfterSeconds));
+            return result;
+        }
+        CompletableFuture.delayedExecutor(timeoutMillis, TimeUnit.MILLISECONDS).execute(() -> {
+            rejected.increment();
+            if (!result.completeExceptionally(new PasswordHashingRejectedException("Password hashing timed out", retryAfterSeconds))) {
+                rejected.decrement();
+            }
+        });
+        return result;
+    }
+
+    private void recordWait(long waited) {
+        waits.increment();
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+    }
+
+    // Cancelled tasks would otherwise keep their queue slot until a worker reaches them
+    private void cancel(Future<?> future) {
+        future.cancel(true);
+        if (future instanceof Runnable task) {
+            executor.remove(task);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.springboot3security.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+// Known-breached passwords, looked up in an index file built by BreachedPasswordIndexBuilder.
+// The file is memory-mapped read-only, so hundreds of millions of entries live in the page cache rather than
+// on the heap. Each entry is the first 8 bytes of the password's SHA-1, sorted unsigned and de-duplicated;
+// a fan-out table of the start entry for every 16-bit prefix narrows a lookup to one small binary search.
+// With a billion entries the chance of a 64-bit prefix colliding with an unrelated password is about 1 in 10^10.
+@Component
+public class BreachedPasswordIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(BreachedPasswordIndex.class);
+
+    static final int MAGIC = 0x42505749; // "BPWI"
+    static final int VERSION = 1;
+    static final int FANOUT_SIZE = (1 << 16) + 1;
+    static final long HEADER_BYTES = 16 + FANOUT_SIZE * 8L;
+    // Entries per mapping; a single MappedByteBuffer cannot exceed 2 GB
+    static final int SEGMENT_SHIFT = 27;
+
+    private final long count;
+    private final LongBuffer fanout;
+    private final LongBuffer[] segments;
+
+    @Autowired
+    public BreachedPasswordIndex(@Value("${password.breached.index-path:}") String indexPath) {
+        this(indexPath == null || indexPath.isBlank() ? null : Path.of(indexPath));
+    }
+
+    public BreachedPasswordIndex(Path indexPath) {
+        if (indexPath == null) {
+            this.count = 0;
+            this.fanout = null;
+            this.segments = new LongBuffer[0];
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IllegalStateException("Not a breached password index: " + indexPath);
+            }
+            this.count = header.getLong();
+            if (channel.size() != HEADER_BYTES + count * 8) {
+                throw new IllegalStateException("Breached password index is truncated: " + indexPath);
+            }
+            this.fanout = header.asLongBuffer();
+            int segmentCount = (int) ((count + (1L << SEGMENT_SHIFT) - 1) >>> SEGMENT_SHIFT);
+            this.segments = new LongBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long first = (long) i << SEGMENT_SHIFT;
+                long entries = Math.min(1L << SEGMENT_SHIFT, count - first);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + first * 8, entries * 8).asLongBuffer();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open breached password index: " + indexPath, e);
+        }
+        logger.info("Loaded breached password index {} with {} entries", indexPath, count);
+    }
+
+    public static BreachedPasswordIndex disabled() {
+        return new BreachedPasswordIndex((Path) null);
+    }
+
+    public boolean isEnabled() {
+        return fanout != null;
+    }
+
+    public long size() {
+        return count;
+    }
+
+    public boolean isBreached(String password) {
+        return isEnabled() && password != null && contains(key(password));
+    }
+
+    boolean contains(long key) {
+        int prefix = (int) (key >>> 48);
+        long low = fanout.get(prefix);
+        long high = fanout.get(prefix + 1) - 1;
+        // Entries within one prefix bucket share their top 16 bits, so unsigned order is plain long order here
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            long value = entry(mid);
+            if (value < key) {
+                low = mid + 1;
+            } else if (value > key) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long entry(long index) {
+        return segments[(int) (index >>> SEGMENT_SHIFT)].get((int) (index & ((1L << SEGMENT_SHIFT) - 1)));
+    }
+
+    // First 8 bytes of SHA-1(UTF-8 password), big-endian
+    static long key(String password) {
+        return ByteBuffer.wrap(sha1(password.getBytes(StandardCharsets.UTF_8))).getLong();
+    }
+
+    private static byte[] sha1(byte[] input) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(input);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+}
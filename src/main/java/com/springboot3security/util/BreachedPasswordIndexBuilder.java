@@ -0,0 +1,205 @@
+package com.springboot3security.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// Compiles a raw breached-password list into the index format read by BreachedPasswordIndex.
+// Input is one SHA-1 hex hash per line, optionally followed by ":count" (the Have I Been Pwned download format),
+// or one plain-text password per line with --plain. Input order does not matter: keys are sorted in chunks of
+// --chunk-entries that are spilled to temporary run files and merged, so heap use stays bounded for any list size.
+//
+//   mvn -q compile exec:java -Dexec.mainClass=com.springboot3security.util.BreachedPasswordIndexBuilder \
+//       -Dexec.args="pwned-passwords-sha1.txt breached.idx"
+public class BreachedPasswordIndexBuilder {
+
+    private static final int DEFAULT_CHUNK_ENTRIES = 16 * 1024 * 1024;
+
+    public static void main(String[] args) throws IOException {
+        boolean plain = false;
+        int chunkEntries = DEFAULT_CHUNK_ENTRIES;
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--plain" -> plain = true;
+                case "--chunk-entries" -> chunkEntries = Integer.parseInt(args[++i]);
+                default -> paths.add(args[i]);
+            }
+        }
+        if (paths.size() != 2) {
+            System.err.println("Usage: BreachedPasswordIndexBuilder [--plain] [--chunk-entries N] <input> <output>");
+            System.exit(1);
+        }
+        long started = System.nanoTime();
+        long count = build(Path.of(paths.get(0)), Path.of(paths.get(1)), plain, chunkEntries);
+        System.out.printf("Wrote %d entries to %s in %d s%n", count, paths.get(1), (System.nanoTime() - started) / 1_000_000_000L);
+    }
+
+    public static long build(Path input, Path output, boolean plain, int chunkEntries) throws IOException {
+        if (chunkEntries <= 0) {
+            throw new IllegalArgumentException("chunkEntries must be positive");
+        }
+        Path runDirectory = Files.createTempDirectory("breached-index");
+        try {
+            List<Path> runs = writeSortedRuns(input, plain, chunkEntries, runDirectory);
+            return merge(runs, output);
+        } finally {
+            try (var files = Files.list(runDirectory)) {
+                for (Path run : files.toList()) {
+                    Files.deleteIfExists(run);
+                }
+            }
+            Files.deleteIfExists(runDirectory);
+        }
+    }
+
+    private static List<Path> writeSortedRuns(Path input, boolean plain, int chunkEntries, Path runDirectory) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        long[] chunk = new long[chunkEntries];
+        int size = 0;
+        long lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty()) {
+                    continue;
+                }
+                // Flipping the sign bit makes signed Arrays.sort order the keys unsigned
+                chunk[size++] = parseKey(line, plain, lineNumber) ^ Long.MIN_VALUE;
+                if (size == chunkEntries) {
+                    runs.add(writeRun(chunk, size, runDirectory));
+                    size = 0;
+                }
+            }
+        }
+        if (size > 0 || runs.isEmpty()) {
+            runs.add(writeRun(chunk, size, runDirectory));
+        }
+        return runs;
+    }
+
+    private static long parseKey(String line, boolean plain, long lineNumber) {
+        if (plain) {
+            return BreachedPasswordIndex.key(line);
+        }
+        if (line.length() < 40) {
+            throw new IllegalArgumentException("Line " + lineNumber + " is not a SHA-1 hex hash");
+        }
+        try {
+            return Long.parseUnsignedLong(line, 0, 16, 16);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + " is not a SHA-1 hex hash", e);
+        }
+    }
+
+    private static Path writeRun(long[] chunk, int size, Path runDirectory) throws IOException {
+        Arrays.sort(chunk, 0, size);
+        Path run = Files.createTempFile(runDirectory, "run", ".bin");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), 1 << 16))) {
+            for (int i = 0; i < size; i++) {
+                out.writeLong(chunk[i] ^ Long.MIN_VALUE);
+            }
+        }
+        return run;
+    }
+
+    // k-way merge of the runs, dropping duplicates; entries go after the header, which is written last
+    // once the fan-out table is known
+    private static long merge(List<Path> runs, Path output) throws IOException {
+        long[] fanout = new long[BreachedPasswordIndex.FANOUT_SIZE];
+        long count = 0;
+        PriorityQueue<RunReader> queue = new PriorityQueue<>((a, b) -> Long.compareUnsigned(a.current, b.current));
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(BreachedPasswordIndex.HEADER_BYTES);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            try {
+                for (Path run : runs) {
+                    RunReader reader = new RunReader(run);
+                    if (reader.advance()) {
+                        queue.add(reader);
+                    } else {
+                        reader.close();
+                    }
+                }
+                boolean first = true;
+                long previous = 0;
+                while (!queue.isEmpty()) {
+                    RunReader reader = queue.poll();
+                    long key = reader.current;
+                    if (first || key != previous) {
+                        out.writeLong(key);
+                        fanout[(int) (key >>> 48) + 1]++;
+                        count++;
+                        previous = key;
+                        first = false;
+                    }
+                    if (reader.advance()) {
+                        queue.add(reader);
+                    } else {
+                        reader.close();
+                    }
+                }
+                out.flush();
+            } finally {
+                for (RunReader reader : queue) {
+                    reader.close();
+                }
+            }
+
+            // Prefix counts to start offsets: fanout[p] is the first entry whose top 16 bits are >= p
+            for (int i = 1; i < fanout.length; i++) {
+                fanout[i] += fanout[i - 1];
+            }
+            ByteBuffer header = ByteBuffer.allocate((int) BreachedPasswordIndex.HEADER_BYTES);
+            header.putInt(BreachedPasswordIndex.MAGIC).putInt(BreachedPasswordIndex.VERSION).putLong(count);
+            header.asLongBuffer().put(fanout);
+            header.rewind();
+            long position = 0;
+            while (header.hasRemaining()) {
+                position += channel.write(header, position);
+            }
+        }
+        return count;
+    }
+
+    private static final class RunReader implements AutoCloseable {
+
+        private final DataInputStream in;
+        private long current;
+
+        RunReader(Path run) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), 1 << 16));
+        }
+
+        boolean advance() throws IOException {
+            try {
+                current = in.readLong();
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
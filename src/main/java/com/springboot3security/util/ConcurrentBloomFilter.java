@@ -0,0 +1,82 @@
+package com.springboot3security.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Fixed-size Bloom filter over strings that many threads can read and add to without locks.
+// mightContain never returns false for an added value; it returns true for a value never added with
+// roughly the configured false-positive rate while no more than expectedEntries have been added.
+// Entries cannot be removed, so owners rebuild a fresh filter to forget old ones.
+public class ConcurrentBloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    public ConcurrentBloomFilter(long expectedEntries, double falsePositiveRate) {
+        if (expectedEntries <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("expectedEntries must be positive and falsePositiveRate in (0, 1)");
+        }
+        long optimalBits = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        // Rounded up to whole words; the array index must stay an int
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimalBits + 63) >>> 6));
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedEntries * Math.log(2)));
+    }
+
+    public void add(String value) {
+        long hash = hash64(value);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(hash, i);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash64(value);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(hash, i);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitSize() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    // Kirsch-Mitzenmacher: the i-th index is h1 + i * h2, both taken from one 64-bit hash
+    private long index(long hash, int i) {
+        long h2 = (hash >>> 32) | 1;
+        return Long.remainderUnsigned(hash + i * h2, bitCount);
+    }
+
+    // FNV-1a over the chars followed by the MurmurHash3 finalizer, so short ids spread over all 64 bits
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
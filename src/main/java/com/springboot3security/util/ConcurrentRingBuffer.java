@@ -0,0 +1,85 @@
+package com.springboot3security.util;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Bounded queue for many producers and one consumer, without locks. Each slot carries a sequence number that tells
+// producers whether it is free for their position and the consumer whether it has been published. offer never
+// blocks or waits: when the buffer is full it returns false and the caller drops the element.
+// Only one thread may call drainTo.
+public class ConcurrentRingBuffer<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // Written by the consumer only; volatile so size() can be read from any thread
+    private volatile long head;
+
+    // Capacity is rounded up to a power of two
+    public ConcurrentRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public boolean offer(T element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(index, element);
+                    // Publishes the element to the consumer
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (available < 0) {
+                // The consumer has not freed this slot yet: full
+                return false;
+            } else {
+                // Another producer claimed this position
+                position = tail.get();
+            }
+        }
+    }
+
+    // Moves up to max published elements into target, oldest first; returns how many were moved
+    public int drainTo(List<? super T> target, int max) {
+        long position = head;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            target.add(slots.get(index));
+            slots.set(index, null);
+            // Hands the slot back to producers one lap later
+            sequences.set(index, position + mask + 1);
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+
+    public int size() {
+        return (int) Math.max(0, Math.min(capacity(), tail.get() - head));
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,9 @@
+package com.springboot3security.util;
+
+// Unknown, expired, revoked or replayed refresh token; mapped to 401 so the client logs in again
+public class InvalidRefreshTokenException extends RuntimeException {
+
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
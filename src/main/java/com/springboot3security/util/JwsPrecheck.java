@@ -0,0 +1,106 @@
+package com.springboot3security.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.Base64;
+
+// Structural checks run before a token reaches the JJWT parser. Garbage, truncated tokens and tokens for keys this
+// node does not hold are classified here with a character scan and a look at the small header, so the common
+// attack traffic never builds a parser exception. A token that passes is not trusted: the parser still verifies
+// the header, signature and claims in full.
+final class JwsPrecheck {
+
+    // Far above any token this application issues; longer input is rejected before it is scanned
+    static final int MAX_TOKEN_LENGTH = 8192;
+    private static final int MAX_HEADER_LENGTH = 1024;
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final boolean[] BASE64URL = new boolean[128];
+
+    static {
+        for (char c = 'A'; c <= 'Z'; c++) {
+            BASE64URL[c] = true;
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            BASE64URL[c] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            BASE64URL[c] = true;
+        }
+        BASE64URL['-'] = true;
+        BASE64URL['_'] = true;
+    }
+
+    private JwsPrecheck() {
+    }
+
+    // Null when the token should be handed to the parser, otherwise the status it is rejected with
+    static TokenValidationResult.Status check(String token, JwtKeyRing keyRing) {
+        if (token == null || token.isEmpty() || token.length() > MAX_TOKEN_LENGTH) {
+            return TokenValidationResult.Status.MALFORMED;
+        }
+        // header.payload.signature, each part non-empty unpadded base64url; an unsigned token has no signature
+        int firstDot = -1;
+        int secondDot = -1;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                if (firstDot < 0) {
+                    firstDot = i;
+                } else if (secondDot < 0) {
+                    secondDot = i;
+                } else {
+                    return TokenValidationResult.Status.MALFORMED;
+                }
+            } else if (c >= 128 || !BASE64URL[c]) {
+                return TokenValidationResult.Status.MALFORMED;
+            }
+        }
+        if (secondDot < 0 || !isEncodedPart(firstDot) || !isEncodedPart(secondDot - firstDot - 1)
+                || !isEncodedPart(token.length() - secondDot - 1) || firstDot > MAX_HEADER_LENGTH) {
+            return TokenValidationResult.Status.MALFORMED;
+        }
+        byte[] header = Base64.getUrlDecoder().decode(token.substring(0, firstDot));
+        if (header.length < 2 || header[0] != '{' || header[header.length - 1] != '}') {
+            return TokenValidationResult.Status.MALFORMED;
+        }
+        String kid;
+        try {
+            kid = readKeyId(header);
+        } catch (IOException | IllegalStateException e) {
+            // Braces around something that is not JSON; rare enough that the exception does not matter
+            return TokenValidationResult.Status.MALFORMED;
+        }
+        return keyRing.getVerificationKey(kid) == null ? TokenValidationResult.Status.UNKNOWN_KEY : null;
+    }
+
+    // A base64url part without padding is never 1 character longer than a multiple of 4
+    private static boolean isEncodedPart(int length) {
+        return length > 0 && length % 4 != 1;
+    }
+
+    // The kid of a flat JSON object, or null when there is none; nested values are skipped
+    private static String readKeyId(byte[] header) throws IOException {
+        String kid = null;
+        try (JsonParser parser = JSON.createParser(header)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalStateException("Header is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("kid".equals(field)) {
+                    if (value != JsonToken.VALUE_STRING) {
+                        throw new IllegalStateException("kid is not a string");
+                    }
+                    kid = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return kid;
+    }
+}
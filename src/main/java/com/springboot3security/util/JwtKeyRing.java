@@ -0,0 +1,196 @@
+package com.springboot3security.util;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Signing keys decoded once at startup and selected by the "kid" header.
+// The active key signs new tokens; previous keys only verify, so a secret can be rotated
+// while tokens signed with the old one are still in circulation.
+// With an asymmetric jwt.signing.algorithm the active key is a private key, and its public half (plus any
+// previous public keys) is published as a JWK Set so other services can verify tokens without the secret.
+// The HMAC keys stay in the ring for verification, so tokens issued before the switch keep working until they expire;
+// once they have, jwt.signing.accept-hmac=false drops them, and the shared secret can no longer mint accepted tokens.
+@Component
+public class JwtKeyRing {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    private final String activeKeyId;
+    private final Key activeKey;
+    private final SecureDigestAlgorithm<Key, ?> algorithm;
+    // Tokens issued before key ids were introduced were HS256 and carry no kid
+    private final Key legacyKey;
+    private final Map<String, Key> verificationKeys;
+    private final String jwkSetJson;
+
+    // previousKeys is a comma separated list of kid:base64Secret pairs, e.g. "2024-01:c2VjcmV0..."
+    public JwtKeyRing(String secret, String activeKeyId, String previousKeys) {
+        this(secret, activeKeyId, previousKeys, "HS256", null, Map.of());
+    }
+
+    @Autowired
+    public JwtKeyRing(@Value("${jwt.secret:}") String secret,
+                      @Value("${jwt.kid:primary}") String activeKeyId,
+                      @Value("${jwt.previous-keys:}") String previousKeys,
+                      @Value("${jwt.signing.algorithm:HS256}") String algorithm,
+                      @Value("${jwt.signing.private-key-path:}") String privateKeyPath,
+                      @Value("${jwt.signing.public-key-path:}") String publicKeyPath,
+                      @Value("${jwt.signing.keystore-path:}") String keystorePath,
+                      @Value("${jwt.signing.keystore-password:}") String keystorePassword,
+                      @Value("${jwt.signing.key-alias:}") String keyAlias,
+                      @Value("${jwt.signing.previous-public-keys:}") String previousPublicKeys,
+                      @Value("${jwt.signing.accept-hmac:true}") boolean acceptHmac) {
+        this(secret, activeKeyId, previousKeys, algorithm,
+                SigningKeyFiles.load(privateKeyPath, publicKeyPath, keystorePath, keystorePassword, keyAlias),
+                SigningKeyFiles.loadPublicKeys(previousPublicKeys), acceptHmac);
+    }
+
+    // signingKeys is required for any algorithm but HS256; the public key's RFC 7638 thumbprint becomes its kid,
+    // so every node derives the same kid from the same key without extra configuration
+    public JwtKeyRing(String secret, String activeKeyId, String previousKeys, String algorithm,
+                      KeyPair signingKeys, Map<String, PublicKey> previousPublicKeys) {
+        this(secret, activeKeyId, previousKeys, algorithm, signingKeys, previousPublicKeys, true);
+    }
+
+    // Without acceptHmac, jwt.secret and jwt.previous-keys are ignored and only the public keys verify
+    public JwtKeyRing(String secret, String activeKeyId, String previousKeys, String algorithm,
+                      KeyPair signingKeys, Map<String, PublicKey> previousPublicKeys, boolean acceptHmac) {
+        if (activeKeyId == null || activeKeyId.isBlank()) {
+            throw new IllegalArgumentException("jwt.kid cannot be blank");
+        }
+        SecureDigestAlgorithm<Key, ?> resolved = resolve(algorithm);
+        if (!acceptHmac && Jwts.SIG.HS256.equals(resolved)) {
+            throw new IllegalArgumentException("jwt.signing.accept-hmac=false needs an asymmetric jwt.signing.algorithm");
+        }
+        this.legacyKey = acceptHmac ? decode(secret) : null;
+
+        Map<String, Key> keys = new LinkedHashMap<>();
+        if (acceptHmac) {
+            keys.put(activeKeyId, legacyKey);
+        }
+        if (acceptHmac && previousKeys != null && !previousKeys.isBlank()) {
+            for (String entry : previousKeys.split(",")) {
+                String trimmed = entry.trim();
+                int separator = trimmed.indexOf(':');
+                if (separator <= 0 || separator == trimmed.length() - 1) {
+                    throw new IllegalArgumentException("jwt.previous-keys entries must be kid:secret, got: " + trimmed);
+                }
+                String kid = trimmed.substring(0, separator);
+                if (keys.putIfAbsent(kid, decode(trimmed.substring(separator + 1))) != null) {
+                    throw new IllegalArgumentException("Duplicate jwt key id: " + kid);
+                }
+            }
+        }
+
+        List<PublicJwk<?>> jwks = new ArrayList<>();
+        if (Jwts.SIG.HS256.equals(resolved)) {
+            if (signingKeys != null || !previousPublicKeys.isEmpty()) {
+                throw new IllegalArgumentException("Signing key files are only used with an asymmetric jwt.signing.algorithm");
+            }
+            this.activeKeyId = activeKeyId;
+            this.activeKey = legacyKey;
+        } else {
+            if (signingKeys == null) {
+                throw new IllegalArgumentException("jwt.signing.algorithm " + algorithm + " needs jwt.signing.private-key-path "
+                        + "and jwt.signing.public-key-path, or jwt.signing.keystore-path");
+            }
+            checkKeyPair(resolved, signingKeys);
+            PublicJwk<?> activeJwk = Jwks.builder().key(signingKeys.getPublic())
+                    .algorithm(resolved.getId()).publicKeyUse("sig").idFromThumbprint().build();
+            this.activeKeyId = activeJwk.getId();
+            this.activeKey = signingKeys.getPrivate();
+            putUnique(keys, this.activeKeyId, signingKeys.getPublic());
+            jwks.add(activeJwk);
+            for (Map.Entry<String, PublicKey> previous : previousPublicKeys.entrySet()) {
+                putUnique(keys, previous.getKey(), previous.getValue());
+                jwks.add(Jwks.builder().key(previous.getValue()).publicKeyUse("sig").id(previous.getKey()).build());
+            }
+        }
+        this.algorithm = resolved;
+        this.verificationKeys = Map.copyOf(keys);
+        this.jwkSetJson = jwks.stream().map(Jwks::json).collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+        logger.info("JWT key ring loaded, algorithm: {}, active kid: {}, verification kids: {}",
+                resolved.getId(), this.activeKeyId, keys.keySet());
+    }
+
+    public String getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    public Key getActiveKey() {
+        return activeKey;
+    }
+
+    public SecureDigestAlgorithm<Key, ?> getAlgorithm() {
+        return algorithm;
+    }
+
+    // Tokens issued before key ids were introduced carry no kid and are checked against the HMAC key, if it is accepted
+    public Key getVerificationKey(String kid) {
+        return kid == null ? legacyKey : verificationKeys.get(kid);
+    }
+
+    public Set<String> getKeyIds() {
+        return verificationKeys.keySet();
+    }
+
+    // Public keys only, rendered once; {"keys":[]} while tokens are signed with the shared secret
+    public String getJwkSetJson() {
+        return jwkSetJson;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SecureDigestAlgorithm<Key, ?> resolve(String algorithm) {
+        SecureDigestAlgorithm<?, ?> resolved = algorithm == null ? null : Jwts.SIG.get().get(algorithm.trim());
+        if (resolved != Jwts.SIG.HS256 && !(resolved instanceof SignatureAlgorithm)) {
+            throw new IllegalArgumentException("jwt.signing.algorithm must be HS256 or an asymmetric JWS algorithm "
+                    + "such as RS256, ES256 or EdDSA, got: " + algorithm);
+        }
+        return (SecureDigestAlgorithm<Key, ?>) resolved;
+    }
+
+    // A sign and verify round trip catches a key of the wrong type or size, and a public key from another pair
+    private static void checkKeyPair(SecureDigestAlgorithm<Key, ?> algorithm, KeyPair keyPair) {
+        try {
+            String probe = Jwts.builder().subject("key-check").signWith(keyPair.getPrivate(), algorithm).compact();
+            Jwts.parser().verifyWith(keyPair.getPublic()).build().parseSignedClaims(probe);
+        } catch (JwtException e) {
+            throw new IllegalArgumentException("Signing keys do not match jwt.signing.algorithm " + algorithm.getId()
+                    + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void putUnique(Map<String, Key> keys, String kid, Key key) {
+        if (keys.putIfAbsent(kid, key) != null) {
+            throw new IllegalArgumentException("Duplicate jwt key id: " + kid);
+        }
+    }
+
+    private static Key decode(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalArgumentException("JWT secret cannot be blank");
+        }
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+    }
+}
@@ -1,43 +1,136 @@
 package com.springboot3security.util;
 
+import com.springboot3security.jfr.JwtParseEvent;
+import com.springboot3security.jfr.JwtSignEvent;
+import com.springboot3security.metrics.AuthMetrics;
+import com.springboot3security.service.UserInfoDetails;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.SignatureException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
+import java.util.UUID;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Component
 public class JwtUtil {
-    @Value("${jwt.secret}")
-    private String secret;
+    // Access tokens are meant to be short-lived; clients renew them with a refresh token instead of logging in again
+    public static final Duration DEFAULT_ACCESS_TOKEN_TTL = Duration.ofMinutes(15);
+    // /auth/generateToken predates refresh tokens; its clients still expect the original 10-hour lifetime
+    public static final Duration DEFAULT_LEGACY_TOKEN_TTL = Duration.ofHours(10);
+
+    private final JwtKeyRing keyRing;
+    // Built once; JwtParser is immutable and safe to share between request threads
+    private final JwtParser parser;
+    private final AuthMetrics metrics;
+    private final Duration accessTokenTtl;
+    private final Duration legacyTokenTtl;
+    // One line per rejected token at most a few times per interval; the rest only show up in the metrics
+    private final RateLimitedLogger rejections;
 
     Logger logger = LoggerFactory.getLogger(JwtUtil.class);
 
+    public JwtUtil(JwtKeyRing keyRing, AuthMetrics metrics) {
+        this(keyRing, metrics, DEFAULT_ACCESS_TOKEN_TTL);
+    }
+
+    public JwtUtil(JwtKeyRing keyRing, AuthMetrics metrics, Duration accessTokenTtl) {
+        this(keyRing, metrics, accessTokenTtl, DEFAULT_LEGACY_TOKEN_TTL, 5, Duration.ofSeconds(10));
+    }
+
+    public JwtUtil(JwtKeyRing keyRing, AuthMetrics metrics, Duration accessTokenTtl, Duration legacyTokenTtl,
+                   int rejectionLogMaxPerInterval, Duration rejectionLogInterval) {
+        if (accessTokenTtl.isNegative() || accessTokenTtl.isZero()) {
+            throw new IllegalArgumentException("jwt.access-token.ttl-seconds must be positive");
+        }
+        if (legacyTokenTtl.isNegative() || legacyTokenTtl.isZero()) {
+            throw new IllegalArgumentException("jwt.legacy-token.ttl-seconds must be positive");
+        }
+        this.keyRing = keyRing;
+        this.metrics = metrics;
+        this.accessTokenTtl = accessTokenTtl;
+        this.legacyTokenTtl = legacyTokenTtl;
+        this.rejections = new RateLimitedLogger(logger, rejectionLogMaxPerInterval, rejectionLogInterval);
+        // The located key also fixes the algorithm family: a token whose alg does not match its kid's key is rejected
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        Key key = keyRing.getVerificationKey(header.getKeyId());
+                        if (key == null) {
+                            throw new SignatureException("Unknown signing key id: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
+
     public String generateToken(UserDetails userDetails) {
+        return generateToken(userDetails, accessTokenTtl);
+    }
+
+    // For /auth/generateToken, which hands out a single token with no refresh token to renew it
+    public String generateLegacyToken(UserDetails userDetails) {
+        return generateToken(userDetails, legacyTokenTtl);
+    }
+
+    private String generateToken(UserDetails userDetails, Duration ttl) {
+        JwtSignEvent event = new JwtSignEvent();
+        event.begin();
         String subject = userDetails.getUsername();
-        String roles = userDetails.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.joining(","));
-        logger.info("Generating token for user: {}", subject);
-
-        return Jwts.builder()
-                .setSubject(subject)
-                .claim("roles", roles)
-                .setIssuedAt(new Date())
-                .signWith(getSignKey(), SignatureAlgorithm.HS256)
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10)) // 10 hours
+        RoleSet roles = RoleSet.from(userDetails.getAuthorities());
+        logger.debug("Generating token for user: {}", subject);
+        int tokenVersion = userDetails instanceof UserInfoDetails details ? details.getTokenVersion() : 0;
+
+        JwtBuilder builder = Jwts.builder()
+                .header().keyId(keyRing.getActiveKeyId()).and()
+                // jti, so a single token can be revoked before it expires
+                .id(UUID.randomUUID().toString())
+                .subject(subject);
+        // Our roles travel as one integer bitset; only authorities outside the registry are spelled out
+        if (roles != null) {
+            builder.claim("rb", roles.bits());
+        } else {
+            builder.claim("roles", userDetails.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .collect(Collectors.joining(",")));
+        }
+        String token = builder
+                .claim("ver", tokenVersion)
+                .issuedAt(new Date())
+                .signWith(keyRing.getActiveKey(), keyRing.getAlgorithm())
+                .expiration(new Date(System.currentTimeMillis() + ttl.toMillis()))
                 .compact();
+        if (event.shouldCommit()) {
+            event.usernameLength = subject.length();
+            event.roleCount = userDetails.getAuthorities().size();
+            event.tokenLength = token.length();
+            event.commit();
+        }
+        return token;
+    }
+
+    public Duration getAccessTokenTtl() {
+        return accessTokenTtl;
+    }
+
+    public Duration getLegacyTokenTtl() {
+        return legacyTokenTtl;
     }
 
     public String extractUsername(String token) {
@@ -45,7 +138,9 @@ public class JwtUtil {
     }
 
     public String extractRoles(String token) {
-        return extractClaim(token, claims -> claims.get("roles", String.class));
+        return extractClaim(token, claims -> TokenValidationResult.authorities(claims).stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.joining(",")));
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -55,33 +150,71 @@ public class JwtUtil {
     }
 
     public boolean validateToken(String token, UserDetails userDetails) {
-        final String extractedUsername = extractUsername(token);
-        return extractedUsername.equals(userDetails.getUsername()) && !isTokenExpired(token);
+        TokenValidationResult result = validate(token);
+        return result.isValid() && result.subject().equals(userDetails.getUsername());
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    // Never throws for a bad token. Garbage, truncated tokens and unknown key ids are turned away by JwsPrecheck
+    // without an exception; whatever passes is parsed and verified once, so signature, claims and expiry are all
+    // checked by the single parse. Rejections are counted in AuthMetrics, logged through the rate limiter and
+    // audited by the caller, which knows the client
+    public TokenValidationResult validate(String token) {
+        long start = System.nanoTime();
+        JwtParseEvent event = new JwtParseEvent();
+        event.begin();
+        TokenValidationResult result = null;
+        try {
+            TokenValidationResult.Status precheck = JwsPrecheck.check(token, keyRing);
+            if (precheck != null) {
+                result = reject(precheck, "failed the structure check");
+                return result;
+            }
+            result = TokenValidationResult.valid(parseClaims(token));
+            return result;
+        } catch (ExpiredJwtException e) {
+            // An expired token is ordinary client behaviour, not a diagnostic
+            logger.debug("Token expired for user: {}", e.getClaims().getSubject());
+            metrics.tokenFailure(AuthMetrics.TokenFailure.EXPIRED);
+            result = TokenValidationResult.expired(e.getClaims());
+            return result;
+        } catch (SignatureException e) {
+            result = reject(TokenValidationResult.Status.BAD_SIGNATURE, e.getMessage());
+            return result;
+        } catch (JwtException | IllegalArgumentException e) {
+            result = reject(TokenValidationResult.Status.MALFORMED, e.getMessage());
+            return result;
+        } finally {
+            metrics.recordJwtVerify(System.nanoTime() - start);
+            // JFR events are only filled in when a recording has them enabled; otherwise the JIT drops the allocation
+            if (event.shouldCommit()) {
+                event.outcome = result != null ? result.status().reason() : "error";
+                event.tokenLength = token != null ? token.length() : 0;
+                event.commit();
+            }
+        }
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private TokenValidationResult reject(TokenValidationResult.Status status, String detail) {
+        metrics.tokenFailure(switch (status) {
+            case BAD_SIGNATURE -> AuthMetrics.TokenFailure.BAD_SIGNATURE;
+            case UNKNOWN_KEY -> AuthMetrics.TokenFailure.UNKNOWN_KEY;
+            default -> AuthMetrics.TokenFailure.MALFORMED;
+        });
+        rejections.info("Rejected token: {} ({})", status.reason(), detail);
+        return TokenValidationResult.rejected(status);
+    }
+
+    private Claims parseClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(getSignKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return parseClaims(token);
         } catch (Exception e) {
-            logger.error("Error extracting claim from token: {}", e.getMessage(), e);
-            throw new IllegalArgumentException("Failed to extract claim from token");
+            // No stack trace: a bad token is an expected input, not a server error
+            logger.debug("Error extracting claim from token: {}", e.getMessage());
+            throw new IllegalArgumentException("Failed to extract claim from token", e);
         }
     }
-
-    private Key getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
 }
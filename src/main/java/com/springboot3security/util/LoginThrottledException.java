@@ -0,0 +1,17 @@
+package com.springboot3security.util;
+
+// Thrown before authentication when a username or client address has too many recent failures;
+// mapped to 429 with a Retry-After header
+public class LoginThrottledException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public LoginThrottledException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
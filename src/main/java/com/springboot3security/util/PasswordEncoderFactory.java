@@ -0,0 +1,55 @@
+package com.springboot3security.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+
+public class PasswordEncoderFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordEncoderFactory.class);
+    private static final String BCRYPT = "bcrypt";
+    private static final String SAMPLE_PASSWORD = "Calibration1Password";
+
+    private PasswordEncoderFactory() {
+    }
+
+    // New hashes are written as {bcrypt}... at the given strength. Hashes stored before ids were used carry
+    // no prefix; they still match and are reported by upgradeEncoding so they get rewritten on next login,
+    // as are {bcrypt} hashes below the current strength.
+    public static PasswordEncoder createDelegatingEncoder(int bcryptStrength) {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(BCRYPT,
+                Map.of(BCRYPT, new BCryptPasswordEncoder(bcryptStrength)));
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return encoder;
+    }
+
+    // Picks the highest BCrypt strength in [minStrength, maxStrength] whose hash time on this machine stays
+    // within targetMillis. Each step doubles the cost, so the search stops at the first strength over target.
+    // Never goes below minStrength, even on slow hardware.
+    public static int calibrateBCryptStrength(long targetMillis, int minStrength, int maxStrength) {
+        // The first hash pays for class loading and JIT, keep it out of the measurement
+        new BCryptPasswordEncoder(minStrength).encode(SAMPLE_PASSWORD);
+        int chosen = minStrength;
+        for (int strength = minStrength; strength <= maxStrength; strength++) {
+            long millis = measureMillis(strength);
+            logger.info("BCrypt strength {} takes {} ms", strength, millis);
+            if (millis > targetMillis) {
+                break;
+            }
+            chosen = strength;
+        }
+        logger.info("Calibrated BCrypt strength {} for a target of {} ms", chosen, targetMillis);
+        return chosen;
+    }
+
+    private static long measureMillis(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long start = System.nanoTime();
+        encoder.encode(SAMPLE_PASSWORD);
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
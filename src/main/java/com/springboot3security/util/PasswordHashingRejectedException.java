@@ -0,0 +1,16 @@
+package com.springboot3security.util;
+
+// Thrown when the password hashing pool is saturated; mapped to 503 with a Retry-After header
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
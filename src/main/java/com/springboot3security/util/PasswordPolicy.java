@@ -0,0 +1,155 @@
+package com.springboot3security.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Checks the character rules in a single pass over the password's chars, without regex or allocation;
+// the result is a bitmask of failed PasswordRules (0 = valid). When a breached password index is configured
+// the password is also looked up there, which costs one SHA-1 and the byte arrays it hashes and produces,
+// so the BREACHED rule is the only one that allocates. Character classes are ASCII, matching the
+// old [A-Z], [a-z] and \d checks; anything that is not an ASCII letter, digit or whitespace counts as special.
+@Component
+public class PasswordPolicy {
+
+    private final int minLength;
+    private final int maxLength;
+    private final boolean requireUppercase;
+    private final boolean requireLowercase;
+    private final boolean requireDigit;
+    private final boolean requireSpecial;
+    private final int maxRepeat;
+    private final boolean rejectUsername;
+    private final int minUsernameLength;
+    private final BreachedPasswordIndex breachedPasswords;
+
+    public PasswordPolicy(@Value("${password.policy.min-length:8}") int minLength,
+                          @Value("${password.policy.max-length:128}") int maxLength,
+                          @Value("${password.policy.require-uppercase:true}") boolean requireUppercase,
+                          @Value("${password.policy.require-lowercase:true}") boolean requireLowercase,
+                          @Value("${password.policy.require-digit:true}") boolean requireDigit,
+                          @Value("${password.policy.require-special:false}") boolean requireSpecial,
+                          @Value("${password.policy.max-repeat:0}") int maxRepeat,
+                          @Value("${password.policy.reject-username:true}") boolean rejectUsername,
+                          @Value("${password.policy.min-username-length:3}") int minUsernameLength,
+                          BreachedPasswordIndex breachedPasswords) {
+        if (maxLength > 0 && maxLength < minLength) {
+            throw new IllegalArgumentException("password.policy.max-length must not be below min-length");
+        }
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.requireUppercase = requireUppercase;
+        this.requireLowercase = requireLowercase;
+        this.requireDigit = requireDigit;
+        this.requireSpecial = requireSpecial;
+        this.maxRepeat = maxRepeat;
+        this.rejectUsername = rejectUsername;
+        this.minUsernameLength = Math.max(1, minUsernameLength);
+        this.breachedPasswords = breachedPasswords;
+    }
+
+    // Same rules as the property defaults, without a breached password index
+    public static PasswordPolicy defaults() {
+        return new PasswordPolicy(8, 128, true, true, true, false, 0, true, 3, BreachedPasswordIndex.disabled());
+    }
+
+    public boolean isValid(String password, String username) {
+        return evaluate(password, username) == 0;
+    }
+
+    public int evaluate(String password, String username) {
+        if (password == null) {
+            return PasswordRule.MIN_LENGTH.bit();
+        }
+        int length = password.length();
+        int violations = 0;
+        if (length < minLength) {
+            violations |= PasswordRule.MIN_LENGTH.bit();
+        }
+        if (maxLength > 0 && length > maxLength) {
+            violations |= PasswordRule.MAX_LENGTH.bit();
+        }
+
+        boolean checkUsername = rejectUsername && username != null && username.length() >= minUsernameLength
+                && username.length() <= length;
+        int lastUsernameStart = checkUsername ? length - username.length() : -1;
+        boolean upper = false;
+        boolean lower = false;
+        boolean digit = false;
+        boolean special = false;
+        boolean containsUsername = false;
+        int run = 0;
+        int longestRun = 0;
+        char previous = 0;
+        for (int i = 0; i < length; i++) {
+            char c = password.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                upper = true;
+            } else if (c >= 'a' && c <= 'z') {
+                lower = true;
+            } else if (c >= '0' && c <= '9') {
+                digit = true;
+            } else if (!Character.isWhitespace(c)) {
+                special = true;
+            }
+            run = i > 0 && c == previous ? run + 1 : 1;
+            longestRun = Math.max(longestRun, run);
+            previous = c;
+            if (!containsUsername && i <= lastUsernameStart) {
+                containsUsername = password.regionMatches(true, i, username, 0, username.length());
+            }
+        }
+
+        if (requireUppercase && !upper) {
+            violations |= PasswordRule.UPPERCASE.bit();
+        }
+        if (requireLowercase && !lower) {
+            violations |= PasswordRule.LOWERCASE.bit();
+        }
+        if (requireDigit && !digit) {
+            violations |= PasswordRule.DIGIT.bit();
+        }
+        if (requireSpecial && !special) {
+            violations |= PasswordRule.SPECIAL.bit();
+        }
+        if (maxRepeat > 0 && longestRun > maxRepeat) {
+            violations |= PasswordRule.MAX_REPEAT.bit();
+        }
+        if (containsUsername) {
+            violations |= PasswordRule.CONTAINS_USERNAME.bit();
+        }
+        if (breachedPasswords.isBreached(password)) {
+            violations |= PasswordRule.BREACHED.bit();
+        }
+        return violations;
+    }
+
+    public String message(PasswordRule rule) {
+        return switch (rule) {
+            case MIN_LENGTH -> "Password must be at least " + minLength + " characters long";
+            case MAX_LENGTH -> "Password must be at most " + maxLength + " characters long";
+            case UPPERCASE -> "Password must contain at least one uppercase letter";
+            case LOWERCASE -> "Password must contain at least one lowercase letter";
+            case DIGIT -> "Password must contain at least one number";
+            case SPECIAL -> "Password must contain at least one special character";
+            case MAX_REPEAT -> "Password must not repeat the same character more than " + maxRepeat + " times in a row";
+            case CONTAINS_USERNAME -> "Password must not contain the username";
+            case BREACHED -> "Password has appeared in a data breach and cannot be used";
+        };
+    }
+
+    // One message per failed rule, in PasswordRule order
+    public List<String> messages(int violations) {
+        List<String> messages = new ArrayList<>(Integer.bitCount(violations));
+        for (PasswordRule rule : PasswordRule.fromMask(violations)) {
+            messages.add(message(rule));
+        }
+        return messages;
+    }
+
+    public String describe(int violations) {
+        return String.join(". ", messages(violations)) + ".";
+    }
+}
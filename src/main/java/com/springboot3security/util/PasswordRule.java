@@ -0,0 +1,38 @@
+package com.springboot3security.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One check of the password policy; PasswordPolicy.evaluate reports failures as a bitmask of these
+public enum PasswordRule {
+    MIN_LENGTH,
+    MAX_LENGTH,
+    UPPERCASE,
+    LOWERCASE,
+    DIGIT,
+    SPECIAL,
+    MAX_REPEAT,
+    CONTAINS_USERNAME,
+    BREACHED;
+
+    private static final PasswordRule[] VALUES = values();
+
+    int bit() {
+        return 1 << ordinal();
+    }
+
+    public boolean failed(int violations) {
+        return (violations & bit()) != 0;
+    }
+
+    // Only used once a password has already failed, so the list is never built on the happy path
+    public static List<PasswordRule> fromMask(int violations) {
+        List<PasswordRule> rules = new ArrayList<>(Integer.bitCount(violations));
+        for (PasswordRule rule : VALUES) {
+            if (rule.failed(violations)) {
+                rules.add(rule);
+            }
+        }
+        return rules;
+    }
+}
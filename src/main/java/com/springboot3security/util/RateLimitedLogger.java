@@ -0,0 +1,65 @@
+package com.springboot3security.util;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// Logs at most maxPerInterval messages per interval at INFO and counts the rest; the first message of the next
+// interval reports how many were suppressed. For diagnostics that an attacker can trigger at will, where every
+// line would otherwise cost log I/O. A suppressed message costs a few atomic operations and is never formatted.
+public class RateLimitedLogger {
+
+    private final Logger logger;
+    private final int maxPerInterval;
+    private final long intervalNanos;
+    private final LongSupplier nanoTime;
+    private final AtomicLong windowStart;
+    private final AtomicInteger logged = new AtomicInteger();
+    private final LongAdder suppressed = new LongAdder();
+
+    public RateLimitedLogger(Logger logger, int maxPerInterval, Duration interval) {
+        this(logger, maxPerInterval, interval, System::nanoTime);
+    }
+
+    RateLimitedLogger(Logger logger, int maxPerInterval, Duration interval, LongSupplier nanoTime) {
+        if (maxPerInterval < 0 || interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("max-per-interval must not be negative and the interval must be positive");
+        }
+        this.logger = logger;
+        this.maxPerInterval = maxPerInterval;
+        this.intervalNanos = interval.toNanos();
+        this.nanoTime = nanoTime;
+        this.windowStart = new AtomicLong(nanoTime.getAsLong());
+    }
+
+    public void info(String format, Object arg1, Object arg2) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        long now = nanoTime.getAsLong();
+        long start = windowStart.get();
+        // Only the thread that moves the window reports and resets; the others carry on in the new window
+        if (now - start >= intervalNanos && windowStart.compareAndSet(start, now)) {
+            logged.set(0);
+            long count = suppressed.sumThenReset();
+            if (count > 0) {
+                logger.info("{} similar messages suppressed in the last {} ms", count, (now - start) / 1_000_000);
+            }
+        }
+        // Read first so the counter stops growing once the interval's quota is used up
+        if (logged.get() < maxPerInterval && logged.incrementAndGet() <= maxPerInterval) {
+            logger.info(format, arg1, arg2);
+        } else {
+            suppressed.increment();
+        }
+    }
+
+    // Messages suppressed since the last report
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+}
@@ -0,0 +1,56 @@
+package com.springboot3security.util;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+// The roles this application grants. The ordinal is the bit in the token's role claim, so new roles are only ever
+// appended. Each role has one shared authority instance that every user and token with the role points to
+public enum Role {
+    USER,
+    ADMIN;
+
+    private static final Role[] VALUES = values();
+
+    private final GrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + name());
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    public GrantedAuthority authority() {
+        return authority;
+    }
+
+    // The role for an authority name such as ROLE_ADMIN, or null when it is not one of ours
+    public static Role fromAuthority(String authority) {
+        return fromAuthority(authority, 0, authority != null ? authority.length() : 0);
+    }
+
+    // Same as above for authority.substring(from, to), without building the substring
+    static Role fromAuthority(String authority, int from, int to) {
+        if (authority == null) {
+            return null;
+        }
+        for (Role role : VALUES) {
+            String name = role.authority.getAuthority();
+            if (name.length() == to - from && authority.regionMatches(from, name, 0, name.length())) {
+                return role;
+            }
+        }
+        return null;
+    }
+
+    // The role for a registration value such as ADMIN, or null when it is not one of ours
+    public static Role fromName(String name) {
+        for (Role role : VALUES) {
+            if (role.name().equals(name)) {
+                return role;
+            }
+        }
+        return null;
+    }
+
+    static int mask() {
+        return (1 << VALUES.length) - 1;
+    }
+}
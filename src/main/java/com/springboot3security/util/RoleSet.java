@@ -0,0 +1,126 @@
+package com.springboot3security.util;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+// Immutable authority list backed by a bitset of Role. One instance per combination of roles is built at class
+// load, so every user and token with the same roles shares the same list and the same authority objects, and
+// contains is a bit test. Equal to any other list holding the same authorities in the same order
+public final class RoleSet extends AbstractList<GrantedAuthority> implements RandomAccess {
+
+    private static final RoleSet[] INTERNED = new RoleSet[Role.mask() + 1];
+
+    static {
+        for (int bits = 0; bits < INTERNED.length; bits++) {
+            INTERNED[bits] = new RoleSet(bits);
+        }
+    }
+
+    public static final RoleSet NONE = INTERNED[0];
+
+    private final int bits;
+    private final GrantedAuthority[] authorities;
+
+    private RoleSet(int bits) {
+        this.bits = bits;
+        this.authorities = Arrays.stream(Role.values())
+                .filter(role -> (bits & role.bit()) != 0)
+                .map(Role::authority)
+                .toArray(GrantedAuthority[]::new);
+    }
+
+    // Bits of roles this node does not know are dropped, so a token from a newer node never grants more here
+    public static RoleSet of(int bits) {
+        return INTERNED[bits & Role.mask()];
+    }
+
+    public static RoleSet of(Role... roles) {
+        int bits = 0;
+        for (Role role : roles) {
+            bits |= role.bit();
+        }
+        return of(bits);
+    }
+
+    // The interned set for comma-separated authority names, or null when one of them is not a Role
+    public static RoleSet parse(String authorities) {
+        if (authorities == null || authorities.isEmpty()) {
+            return NONE;
+        }
+        int bits = 0;
+        int from = 0;
+        while (from <= authorities.length()) {
+            int to = authorities.indexOf(',', from);
+            if (to < 0) {
+                to = authorities.length();
+            }
+            Role role = Role.fromAuthority(authorities, from, to);
+            if (role == null) {
+                return null;
+            }
+            bits |= role.bit();
+            from = to + 1;
+        }
+        return of(bits);
+    }
+
+    // The interned set when every authority is a Role, otherwise null
+    public static RoleSet from(Collection<? extends GrantedAuthority> authorities) {
+        if (authorities instanceof RoleSet roles) {
+            return roles;
+        }
+        int bits = 0;
+        for (GrantedAuthority authority : authorities) {
+            Role role = Role.fromAuthority(authority.getAuthority());
+            if (role == null) {
+                return null;
+            }
+            bits |= role.bit();
+        }
+        return of(bits);
+    }
+
+    // Names outside the registry still work, they just get a list of their own
+    public static List<GrantedAuthority> authorities(String authorities) {
+        RoleSet roles = parse(authorities);
+        if (roles != null) {
+            return roles;
+        }
+        return Arrays.stream(authorities.split(","))
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+    }
+
+    public int bits() {
+        return bits;
+    }
+
+    public boolean has(Role role) {
+        return (bits & role.bit()) != 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof GrantedAuthority authority)) {
+            return false;
+        }
+        Role role = Role.fromAuthority(authority.getAuthority());
+        return role != null && has(role);
+    }
+
+    @Override
+    public GrantedAuthority get(int index) {
+        return authorities[index];
+    }
+
+    @Override
+    public int size() {
+        return authorities.length;
+    }
+}
@@ -0,0 +1,164 @@
+package com.springboot3security.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Reads asymmetric signing keys from local files: an unencrypted PKCS#8 private key with its public key
+// (or certificate) as PEM, or a private key entry in a PKCS#12/JKS keystore. Read once at startup.
+final class SigningKeyFiles {
+
+    private static final List<String> KEY_TYPES = List.of("RSA", "EC", "Ed25519");
+
+    private SigningKeyFiles() {
+    }
+
+    // Returns null when no key files are configured
+    static KeyPair load(String privateKeyPath, String publicKeyPath, String keystorePath, String keystorePassword, String keyAlias) {
+        boolean pem = !isBlank(privateKeyPath) || !isBlank(publicKeyPath);
+        boolean keystore = !isBlank(keystorePath);
+        if (pem && keystore) {
+            throw new IllegalArgumentException("Configure either jwt.signing.private-key-path/public-key-path or jwt.signing.keystore-path, not both");
+        }
+        if (keystore) {
+            return fromKeyStore(Path.of(keystorePath), keystorePassword, keyAlias);
+        }
+        if (!pem) {
+            return null;
+        }
+        if (isBlank(privateKeyPath) || isBlank(publicKeyPath)) {
+            throw new IllegalArgumentException("jwt.signing.private-key-path and jwt.signing.public-key-path must be set together");
+        }
+        return new KeyPair(readPublicKey(Path.of(publicKeyPath)), readPrivateKey(Path.of(privateKeyPath)));
+    }
+
+    // entries is a comma separated list of kid:path pairs, e.g. "2024-01:/etc/jwt/2024-01.pub.pem"
+    static Map<String, PublicKey> loadPublicKeys(String entries) {
+        if (isBlank(entries)) {
+            return Map.of();
+        }
+        Map<String, PublicKey> keys = new LinkedHashMap<>();
+        for (String entry : entries.split(",")) {
+            String trimmed = entry.trim();
+            int separator = trimmed.indexOf(':');
+            if (separator <= 0 || separator == trimmed.length() - 1) {
+                throw new IllegalArgumentException("jwt.signing.previous-public-keys entries must be kid:path, got: " + trimmed);
+            }
+            String kid = trimmed.substring(0, separator);
+            if (keys.putIfAbsent(kid, readPublicKey(Path.of(trimmed.substring(separator + 1)))) != null) {
+                throw new IllegalArgumentException("Duplicate jwt key id: " + kid);
+            }
+        }
+        return Collections.unmodifiableMap(keys);
+    }
+
+    static PrivateKey readPrivateKey(Path path) {
+        byte[] der = pemBody(path, "PRIVATE KEY");
+        return (PrivateKey) decode(path, type -> KeyFactory.getInstance(type).generatePrivate(new PKCS8EncodedKeySpec(der)));
+    }
+
+    static PublicKey readPublicKey(Path path) {
+        String pem = read(path);
+        if (pem.contains("-----BEGIN CERTIFICATE-----")) {
+            try (InputStream in = Files.newInputStream(path)) {
+                return CertificateFactory.getInstance("X.509").generateCertificate(in).getPublicKey();
+            } catch (IOException | GeneralSecurityException e) {
+                throw new IllegalArgumentException("Cannot read certificate from " + path, e);
+            }
+        }
+        byte[] der = pemBody(path, "PUBLIC KEY");
+        return (PublicKey) decode(path, type -> KeyFactory.getInstance(type).generatePublic(new X509EncodedKeySpec(der)));
+    }
+
+    private static KeyPair fromKeyStore(Path path, String password, String alias) {
+        char[] secret = password == null ? new char[0] : password.toCharArray();
+        try {
+            KeyStore keyStore = KeyStore.getInstance(path.toFile(), secret);
+            String entry = isBlank(alias) ? onlyKeyAlias(keyStore, path) : alias;
+            Key key = keyStore.getKey(entry, secret);
+            Certificate certificate = keyStore.getCertificate(entry);
+            if (!(key instanceof PrivateKey privateKey) || certificate == null) {
+                throw new IllegalArgumentException("Keystore " + path + " has no private key entry with a certificate for alias: " + entry);
+            }
+            return new KeyPair(certificate.getPublicKey(), privateKey);
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalArgumentException("Cannot read keystore " + path, e);
+        }
+    }
+
+    private static String onlyKeyAlias(KeyStore keyStore, Path path) throws GeneralSecurityException {
+        String found = null;
+        for (String alias : Collections.list(keyStore.aliases())) {
+            if (keyStore.isKeyEntry(alias)) {
+                if (found != null) {
+                    throw new IllegalArgumentException("Keystore " + path + " has several keys, set jwt.signing.key-alias");
+                }
+                found = alias;
+            }
+        }
+        if (found == null) {
+            throw new IllegalArgumentException("Keystore " + path + " has no private key entry");
+        }
+        return found;
+    }
+
+    // The PEM header does not name the key type for PKCS#8/SPKI, so each supported type is tried in turn
+    private static Key decode(Path path, KeyDecoder decoder) {
+        for (String type : KEY_TYPES) {
+            try {
+                return decoder.decode(type);
+            } catch (GeneralSecurityException e) {
+                // not this type
+            }
+        }
+        throw new IllegalArgumentException("Unsupported or malformed key in " + path + ", expected an RSA, EC or Ed25519 key");
+    }
+
+    private static byte[] pemBody(Path path, String label) {
+        String pem = read(path);
+        String begin = "-----BEGIN " + label + "-----";
+        String end = "-----END " + label + "-----";
+        int start = pem.indexOf(begin);
+        int stop = pem.indexOf(end);
+        if (start < 0 || stop < start) {
+            // Traditional "RSA PRIVATE KEY"/"EC PRIVATE KEY" files: openssl pkcs8 -topk8 -nocrypt converts them
+            throw new IllegalArgumentException(path + " is not a PEM file with a " + label + " block");
+        }
+        return Base64.getMimeDecoder().decode(pem.substring(start + begin.length(), stop));
+    }
+
+    private static String read(Path path) {
+        try {
+            return Files.readString(path, StandardCharsets.US_ASCII);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read key file " + path, e);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    @FunctionalInterface
+    private interface KeyDecoder {
+        Key decode(String type) throws GeneralSecurityException;
+    }
+}
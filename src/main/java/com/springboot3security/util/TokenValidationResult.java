@@ -0,0 +1,90 @@
+package com.springboot3security.util;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Immutable outcome of parsing and verifying a token exactly once.
+// Callers read the subject, authorities and timestamps from here instead of re-parsing the token.
+public record TokenValidationResult(Status status,
+                                    String subject,
+                                    List<GrantedAuthority> authorities,
+                                    Integer tokenVersion,
+                                    Instant issuedAt,
+                                    Instant expiration,
+                                    String tokenId) {
+
+    // Rejections carry the reason a client is told in the 401 and that is audited and counted
+    public enum Status {
+        VALID,
+        EXPIRED,
+        // Not a compact JWS, or a header or claims the parser refuses
+        MALFORMED,
+        BAD_SIGNATURE,
+        // The kid header names no key in the key ring
+        UNKNOWN_KEY;
+
+        private final String reason = name().toLowerCase(Locale.ROOT);
+
+        public String reason() {
+            return reason;
+        }
+    }
+
+    // One shared instance per rejection, so turning a bad token away allocates nothing here
+    private static final Map<Status, TokenValidationResult> REJECTED = new EnumMap<>(Status.class);
+
+    static {
+        for (Status status : Status.values()) {
+            REJECTED.put(status, new TokenValidationResult(status, null, RoleSet.NONE, null, null, null, null));
+        }
+    }
+
+    public TokenValidationResult {
+        authorities = authorities == null ? RoleSet.NONE
+                : authorities instanceof RoleSet ? authorities : List.copyOf(authorities);
+    }
+
+    static TokenValidationResult valid(Claims claims) {
+        return fromClaims(Status.VALID, claims);
+    }
+
+    static TokenValidationResult expired(Claims claims) {
+        return claims == null ? rejected(Status.MALFORMED) : fromClaims(Status.EXPIRED, claims);
+    }
+
+    static TokenValidationResult rejected(Status status) {
+        return REJECTED.get(status);
+    }
+
+    public boolean isValid() {
+        return status == Status.VALID;
+    }
+
+    private static TokenValidationResult fromClaims(Status status, Claims claims) {
+        return new TokenValidationResult(status,
+                claims.getSubject(),
+                authorities(claims),
+                claims.get("ver", Integer.class),
+                toInstant(claims.getIssuedAt()),
+                toInstant(claims.getExpiration()),
+                claims.getId());
+    }
+
+    // Tokens for our roles carry the rb bitset and resolve to an interned RoleSet; tokens issued before it, or for
+    // roles outside the registry, carry the comma-separated roles claim
+    static List<GrantedAuthority> authorities(Claims claims) {
+        Integer bits = claims.get("rb", Integer.class);
+        return bits != null ? RoleSet.of(bits) : RoleSet.authorities(claims.get("roles", String.class));
+    }
+
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
+    }
+}
@@ -0,0 +1,28 @@
+package com.springboot3security.util;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+// A virtual thread that blocks inside synchronized code pins its carrier thread, and with only a few carriers a
+// handful of such waits stalls every request. Anything that does I/O while holding a lock therefore uses a
+// ReentrantLock, which lets the virtual thread unmount, and cache loads that block are moved out of the cache's lock.
+public class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    // An executor for database loads that would otherwise run inside a cache's lock, or null to keep loading on the
+    // caller's thread. Only active with spring.threads.virtual.enabled on Java 21+, the same rule Spring Boot uses for
+    // Tomcat. The caller parks on the result instead of loading under the lock.
+    public static Executor loadExecutor(Environment environment, String threadNamePrefix) {
+        if (!Threading.VIRTUAL.isActive(environment)) {
+            return null;
+        }
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+}
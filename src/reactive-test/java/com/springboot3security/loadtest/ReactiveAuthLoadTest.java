@@ -0,0 +1,17 @@
+package com.springboot3security.loadtest;
+
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+// AuthLoadTest's traffic against the WebFlux stack on its own in-memory H2 database; compare its
+// target/loadtest-result-reactive.json with the servlet run's target/loadtest-result.json
+@ActiveProfiles("reactive")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest-reactive;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.r2dbc.url=r2dbc:h2:mem:///loadtest-reactive;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "loadtest.result-file=target/loadtest-result-reactive.json"
+})
+class ReactiveAuthLoadTest extends AuthLoadTest {
+}
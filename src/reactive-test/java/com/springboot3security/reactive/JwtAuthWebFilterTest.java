@@ -0,0 +1,179 @@
+package com.springboot3security.reactive;
+
+import com.springboot3security.audit.AuditLog;
+import com.springboot3security.entity.UserCredentials;
+import com.springboot3security.filter.VerifiedTokenCache;
+import com.springboot3security.metrics.AuthMetrics;
+import com.springboot3security.service.TokenRevocationService;
+import com.springboot3security.service.UserInfoDetails;
+import com.springboot3security.util.JwtUtil;
+import com.springboot3security.util.Role;
+import com.springboot3security.util.RoleSet;
+import com.springboot3security.util.TokenValidationResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtAuthWebFilterTest {
+
+    private final ReactiveUserDetailsService userDetailsService = mock(ReactiveUserDetailsService.class);
+    private final JwtUtil jwtUtil = mock(JwtUtil.class);
+    private final TokenRevocationService revocations = mock(TokenRevocationService.class);
+    private final AuditLog auditLog = mock(AuditLog.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger chainCalls = new AtomicInteger();
+    private final AtomicReference<Authentication> seen = new AtomicReference<>();
+
+    // Records how often the rest of the chain runs and which Authentication it sees
+    private final WebFilterChain chain = exchange -> {
+        chainCalls.incrementAndGet();
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .doOnNext(seen::set)
+                .then();
+    };
+
+    private JwtAuthWebFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new JwtAuthWebFilter(userDetailsService, jwtUtil, new VerifiedTokenCache(false, 0, 0), revocations,
+                new AuthMetrics(registry), auditLog);
+    }
+
+    @Test
+    void testValidTokenAuthenticatesTheChain() {
+        when(jwtUtil.validate("validToken")).thenReturn(result("testUser", 0));
+        when(userDetailsService.findByUsername("testUser")).thenReturn(Mono.just(user("testUser", 0)));
+
+        filter.filter(exchange("Bearer validToken"), chain).block();
+
+        assertEquals(1, chainCalls.get());
+        assertEquals("testUser", seen.get().getName());
+        assertEquals(1, registry.get("auth.filter").timer().count());
+        verify(revocations, never()).isRevoked(any());
+    }
+
+    @Test
+    void testMissingHeaderPassesThroughAndInvalidTokenGets401() {
+        when(jwtUtil.validate("invalidToken")).thenReturn(new TokenValidationResult(
+                TokenValidationResult.Status.MALFORMED, null, List.of(), null, null, null, null));
+        MockServerWebExchange invalid = exchange("Bearer invalidToken");
+
+        filter.filter(exchange(null), chain).block();
+        filter.filter(invalid, chain).block();
+
+        assertEquals(1, chainCalls.get());
+        assertNull(seen.get());
+        assertEquals(HttpStatus.UNAUTHORIZED, invalid.getResponse().getStatusCode());
+        assertEquals("Bearer error=\"invalid_token\", error_description=\"malformed\"",
+                invalid.getResponse().getHeaders().getFirst("WWW-Authenticate"));
+        assertEquals("Invalid token: malformed", invalid.getResponse().getBodyAsString().block());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void testRevokedTokenIsRejectedAfterConfirmation() {
+        when(jwtUtil.validate("revokedToken")).thenReturn(result("testUser", 0));
+        when(revocations.mightBeRevoked("token-id")).thenReturn(true);
+        when(revocations.isRevoked("token-id")).thenReturn(true);
+
+        MockServerWebExchange revoked = exchange("Bearer revokedToken");
+        filter.filter(revoked, chain).block();
+
+        assertEquals(0, chainCalls.get());
+        assertEquals(HttpStatus.UNAUTHORIZED, revoked.getResponse().getStatusCode());
+        assertNull(seen.get());
+        assertEquals(1, registry.get("auth.token.failures").tag("reason", "revoked").counter().count());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void testStaleVersionAndMissingUserAreRejected() {
+        when(jwtUtil.validate("staleToken")).thenReturn(result("testUser", 0));
+        when(jwtUtil.validate("orphanToken")).thenReturn(result("goneUser", 0));
+        when(userDetailsService.findByUsername("testUser")).thenReturn(Mono.just(user("testUser", 1)));
+        when(userDetailsService.findByUsername("goneUser")).thenReturn(Mono.empty());
+
+        MockServerWebExchange stale = exchange("Bearer staleToken");
+        MockServerWebExchange orphan = exchange("Bearer orphanToken");
+        filter.filter(stale, chain).block();
+        filter.filter(orphan, chain).block();
+
+        // Both get the same 401 as on the servlet stack, and neither runs the chain
+        assertEquals(HttpStatus.UNAUTHORIZED, stale.getResponse().getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED, orphan.getResponse().getStatusCode());
+        assertTrue(orphan.getResponse().getHeaders().getFirst("WWW-Authenticate").contains("error_description=\"user_missing\""));
+        assertEquals(0, chainCalls.get());
+        assertNull(seen.get());
+        assertEquals(1, registry.get("auth.token.failures").tag("reason", "stale_version").counter().count());
+        assertEquals(1, registry.get("auth.token.failures").tag("reason", "user_missing").counter().count());
+    }
+
+    @Test
+    void testCachedTokenSkipsValidation() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100, 60);
+        filter = new JwtAuthWebFilter(userDetailsService, jwtUtil, cache, revocations, new AuthMetrics(registry), auditLog);
+        when(jwtUtil.validate("validToken")).thenReturn(result("testUser", 0));
+        when(userDetailsService.findByUsername("testUser")).thenReturn(Mono.just(user("testUser", 0)));
+
+        filter.filter(exchange("Bearer validToken"), chain).block();
+        filter.filter(exchange("Bearer validToken"), chain).block();
+
+        assertEquals("testUser", seen.get().getName());
+        verify(jwtUtil, times(1)).validate("validToken");
+        verify(userDetailsService, times(1)).findByUsername("testUser");
+    }
+
+    @Test
+    void testCachedTokenRevokedAfterCachingIsRejected() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100, 60);
+        filter = new JwtAuthWebFilter(userDetailsService, jwtUtil, cache, revocations, new AuthMetrics(registry), auditLog);
+        when(jwtUtil.validate("validToken")).thenReturn(result("testUser", 0));
+        when(userDetailsService.findByUsername("testUser")).thenReturn(Mono.just(user("testUser", 0)));
+        filter.filter(exchange("Bearer validToken"), chain).block();
+
+        when(revocations.mightBeRevoked("token-id")).thenReturn(true);
+        when(revocations.isRevoked("token-id")).thenReturn(true);
+        MockServerWebExchange exchange = exchange("Bearer validToken");
+        filter.filter(exchange, chain).block();
+
+        assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+        assertEquals(1, chainCalls.get());
+        verify(jwtUtil, times(2)).validate("validToken");
+    }
+
+    private MockServerWebExchange exchange(String authorization) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/auth/user");
+        if (authorization != null) {
+            request.header("Authorization", authorization);
+        }
+        return MockServerWebExchange.from(request);
+    }
+
+    private UserInfoDetails user(String username, int tokenVersion) {
+        return new UserInfoDetails(new UserCredentials(username, "password", "ROLE_USER", tokenVersion));
+    }
+
+    private TokenValidationResult result(String subject, int tokenVersion) {
+        return new TokenValidationResult(TokenValidationResult.Status.VALID, subject, RoleSet.of(Role.USER), tokenVersion,
+                Instant.now(), Instant.now().plusSeconds(60), "token-id");
+    }
+}
@@ -0,0 +1,169 @@
+package com.springboot3security.reactive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The whole application as a WebFlux server on H2; JPA and R2DBC open the same in-memory database
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
+@ActiveProfiles("reactive")
+@TestPropertySource(properties = {
+        "spring.main.allow-circular-references=true",
+        "spring.datasource.url=jdbc:h2:mem:reactive;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.datasource.username=sa",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "jwt.secret=tKH0sJRAaD9IWx8pBZp1l5hzGIOIBV3fWqGzRVp9H91a76jMB7L8YUvMLPw9Woy78B8m+iyzfb3U7Z8cNsLtUQ",
+        "password.bcrypt.strength=4",
+        "management.endpoints.web.exposure.include=health,prometheus"
+})
+class ReactiveStackIntegrationTest {
+
+    private static final String PASSWORD = "Reactive1234";
+
+    @Autowired
+    private WebTestClient client;
+
+    @Test
+    void testRegisterLoginAndAccessRules() {
+        String username = register("ROLE_USER");
+        post("/auth/addNewUser", Map.of("username", username, "password", PASSWORD, "role", "ROLE_USER"))
+                .expectBody(String.class).isEqualTo("User already exists");
+
+        String token = login(username);
+
+        get("/auth/user", token).expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("This is the user page. Access granted!");
+        get("/preauthorize/userOnly", token).expectStatus().isOk();
+        get("/preauthorize/adminOnly", token).expectStatus().isForbidden();
+        get("/auth/admin", token).expectStatus().isForbidden();
+        get("/auth/user", null).expectStatus().isForbidden();
+        // A presented token that is not accepted is a 401 with the reason, not a 403
+        get("/auth/user", "not-a-token").expectStatus().isUnauthorized()
+                .expectHeader().valueEquals("WWW-Authenticate", "Bearer error=\"invalid_token\", error_description=\"malformed\"");
+    }
+
+    @Test
+    void testRejectsWeakPasswordAndBadCredentials() {
+        String username = "reactive-" + UUID.randomUUID();
+        post("/auth/addNewUser", Map.of("username", username, "password", "short", "role", "ROLE_USER"))
+                .expectStatus().isOk()
+                .expectBody(String.class).value(body -> assertNotEquals("User Added Successfully", body));
+
+        register(username, "ROLE_USER");
+        post("/auth/generateToken", Map.of("username", username, "password", "Wrong1234567"))
+                .expectStatus().isForbidden();
+        post("/auth/generateToken", Map.of("username", "missing-" + username, "password", PASSWORD))
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void testAdminRevokesTokenAndUser() {
+        String admin = login(register("ROLE_ADMIN"));
+        String username = register("ROLE_USER");
+        String revoked = login(username);
+        String other = login(username);
+
+        post("/auth/admin/revokeToken", Map.of("token", revoked), admin)
+                .expectBody(String.class).isEqualTo("Token revoked");
+        get("/auth/user", revoked).expectStatus().isUnauthorized();
+        get("/auth/user", other).expectStatus().isOk();
+
+        post("/auth/admin/revokeUser/" + username, Map.of(), admin)
+                .expectBody(String.class).isEqualTo("Tokens revoked for user: " + username);
+        get("/auth/user", other).expectStatus().isUnauthorized();
+        get("/auth/adminOnly", admin).expectStatus().isOk();
+    }
+
+    @Test
+    void testTokenPairAndRefresh() {
+        String username = register("ROLE_USER");
+        Map<?, ?> pair = post("/auth/generateTokenPair", Map.of("username", username, "password", PASSWORD))
+                .expectStatus().isOk()
+                .expectBody(Map.class).returnResult().getResponseBody();
+
+        Map<?, ?> refreshed = post("/auth/refreshToken", Map.of("refreshToken", pair.get("refreshToken")))
+                .expectStatus().isOk()
+                .expectBody(Map.class).returnResult().getResponseBody();
+
+        get("/auth/user", (String) refreshed.get("accessToken")).expectStatus().isOk();
+        post("/auth/refreshToken", Map.of("refreshToken", pair.get("refreshToken")))
+                .expectStatus().isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void testSharedEndpointsAndHandlers() {
+        client.get().uri("/.well-known/jwks.json").exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("{\"keys\":[]}");
+        // The servlet-only bulk import is not mapped here
+        post("/auth/admin/bulkAddUsers", Map.of(), login(register("ROLE_ADMIN")))
+                .expectStatus().isNotFound();
+    }
+
+    // Without a management port the scrape shares the application port, so it needs an ADMIN token
+    @Test
+    void testScrapeOnTheApplicationPortRequiresAdmin() {
+        get("/actuator/health", null).expectStatus().isOk();
+        get("/actuator/prometheus", null).expectStatus().isForbidden();
+        get("/actuator/prometheus", login(register("ROLE_USER"))).expectStatus().isForbidden();
+        get("/actuator/prometheus", login(register("ROLE_ADMIN"))).expectStatus().isOk();
+    }
+
+    private String register(String role) {
+        return register("reactive-" + UUID.randomUUID(), role);
+    }
+
+    private String register(String username, String role) {
+        post("/auth/addNewUser", Map.of("username", username, "password", PASSWORD, "role", role))
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("User Added Successfully");
+        return username;
+    }
+
+    private String login(String username) {
+        return post("/auth/generateToken", Map.of("username", username, "password", PASSWORD))
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+    }
+
+    private WebTestClient.ResponseSpec post(String path, Object body) {
+        return post(path, body, null);
+    }
+
+    private WebTestClient.ResponseSpec post(String path, Object body, String token) {
+        return client.post().uri(path)
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(headers -> {
+                    if (token != null) {
+                        headers.setBearerAuth(token);
+                    }
+                })
+                .bodyValue(body)
+                .exchange();
+    }
+
+    private WebTestClient.ResponseSpec get(String path, String token) {
+        return client.get().uri(path)
+                .headers(headers -> {
+                    if (token != null) {
+                        headers.setBearerAuth(token);
+                    }
+                })
+                .exchange();
+    }
+}
@@ -0,0 +1,157 @@
+package com.springboot3security.reactive;
+
+import com.springboot3security.audit.AuditLog;
+import com.springboot3security.entity.AuditEvent;
+import com.springboot3security.filter.JwtAuthFilter;
+import com.springboot3security.filter.VerifiedTokenCache;
+import com.springboot3security.metrics.AuthMetrics;
+import com.springboot3security.service.TokenRevocationService;
+import com.springboot3security.service.UserInfoDetails;
+import com.springboot3security.util.JwtUtil;
+import com.springboot3security.util.TokenValidationResult;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+// WebFlux version of JwtAuthFilter with the same checks in the same order: verified-token cache, signature and
+// expiry, revocation, then the user's current token version. Only the two lookups that can wait are deferred:
+// the user is read over R2DBC, and a revocation Bloom filter hit is confirmed against the table on boundedElastic.
+// Not a bean, so WebFlux does not also install it as a global filter; ReactiveSecurityConfig adds it to the chain.
+public class JwtAuthWebFilter implements WebFilter {
+
+    private final ReactiveUserDetailsService userDetailsService;
+    private final JwtUtil jwtUtil;
+    private final VerifiedTokenCache tokenCache;
+    private final TokenRevocationService revocations;
+    private final AuthMetrics metrics;
+    private final AuditLog auditLog;
+
+    public JwtAuthWebFilter(ReactiveUserDetailsService userDetailsService, JwtUtil jwtUtil, VerifiedTokenCache tokenCache,
+                            TokenRevocationService revocations, AuthMetrics metrics, AuditLog auditLog) {
+        this.userDetailsService = userDetailsService;
+        this.jwtUtil = jwtUtil;
+        this.tokenCache = tokenCache;
+        this.revocations = revocations;
+        this.metrics = metrics;
+        this.auditLog = auditLog;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+        long start = System.nanoTime();
+        // An Outcome rather than an empty Mono, so the chain is subscribed exactly once whatever the result
+        return authenticate(authHeader.substring(7), clientIp(exchange))
+                .doOnTerminate(() -> metrics.recordFilter(System.nanoTime() - start))
+                .flatMap(outcome -> {
+                    if (outcome.rejection() != null) {
+                        return unauthorized(exchange, outcome.rejection());
+                    }
+                    if (outcome.authentication() != null) {
+                        return chain.filter(exchange)
+                                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(outcome.authentication()));
+                    }
+                    return chain.filter(exchange);
+                });
+    }
+
+    // The address of the connection, as HttpServletRequest.getRemoteAddr() gives it on the servlet stack
+    static String clientIp(ServerWebExchange exchange) {
+        InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+        return remote != null && remote.getAddress() != null ? remote.getAddress().getHostAddress() : "unknown";
+    }
+
+    private Mono<Outcome> authenticate(String token, String clientIp) {
+        // No request details are attached here, so the cached Authentication can be shared as is
+        VerifiedTokenCache.CachedAuthentication cached = tokenCache.get(token);
+        // Revocations that race the cache are caught by the Bloom filter, as in JwtAuthFilter
+        if (cached != null && !revocations.mightBeRevoked(cached.tokenId())) {
+            return Mono.just(new Outcome(cached.authentication(), null));
+        }
+        long generation = tokenCache.generation();
+        TokenValidationResult result = jwtUtil.validate(token);
+        if (!result.isValid()) {
+            return Mono.just(reject(result.subject(), clientIp, result.status().reason()));
+        }
+        if (result.subject() == null) {
+            return Mono.just(Outcome.PASS);
+        }
+        return isRevoked(result.tokenId())
+                .flatMap(revoked -> {
+                    if (revoked) {
+                        metrics.tokenFailure(AuthMetrics.TokenFailure.REVOKED);
+                        return Mono.just(reject(result.subject(), clientIp, "revoked"));
+                    }
+                    return fromUserDetails(result, clientIp);
+                })
+                .doOnNext(outcome -> {
+                    if (outcome.authentication() != null) {
+                        tokenCache.put(token, outcome.authentication(), result.tokenId(), result.expiration(), generation);
+                    }
+                });
+    }
+
+    // A miss in the Bloom filter is definitive and answered in place; only a hit goes to the database
+    private Mono<Boolean> isRevoked(String tokenId) {
+        if (!revocations.mightBeRevoked(tokenId)) {
+            return Mono.just(false);
+        }
+        return Mono.fromCallable(() -> revocations.isRevoked(tokenId)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<Outcome> fromUserDetails(TokenValidationResult result, String clientIp) {
+        String username = result.subject();
+        return userDetailsService.findByUsername(username)
+                .map(userDetails -> {
+                    if (userDetails instanceof UserInfoDetails details
+                            && details.getTokenVersion() != (result.tokenVersion() != null ? result.tokenVersion() : 0)) {
+                        metrics.tokenFailure(AuthMetrics.TokenFailure.STALE_VERSION);
+                        return reject(username, clientIp, "stale_version");
+                    }
+                    return new Outcome(UsernamePasswordAuthenticationToken.authenticated(
+                            userDetails, null, userDetails.getAuthorities()), null);
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    metrics.tokenFailure(AuthMetrics.TokenFailure.USER_MISSING);
+                    return reject(username, clientIp, "user_missing");
+                }));
+    }
+
+    // The audit event is only buffered here
+    private Outcome reject(String username, String clientIp, String reason) {
+        auditLog.record(AuditEvent.Type.TOKEN_REJECTED, username, clientIp, reason);
+        return new Outcome(null, reason);
+    }
+
+    // Same 401 as JwtAuthFilter
+    private static Mono<Void> unauthorized(ServerWebExchange exchange, String reason) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, JwtAuthFilter.bearerChallenge(reason));
+        response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+        byte[] body = ("Invalid token: " + reason).getBytes(StandardCharsets.UTF_8);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    // At most one of the two is set; neither when the request goes on unauthenticated
+    private record Outcome(Authentication authentication, String rejection) {
+
+        static final Outcome PASS = new Outcome(null, null);
+    }
+}
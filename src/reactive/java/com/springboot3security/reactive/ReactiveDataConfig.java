@@ -0,0 +1,22 @@
+package com.springboot3security.reactive;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Spring Boot skips its DataSource whenever an R2DBC ConnectionFactory exists, but the JPA services (refresh
+// tokens, revocation, the schema itself) still need one; it is built from the usual spring.datasource.* keys.
+// Not limited to the reactive web type: a build with this profile can still be started as a servlet application.
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveDataConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+}
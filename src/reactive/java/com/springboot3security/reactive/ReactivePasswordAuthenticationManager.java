@@ -0,0 +1,76 @@
+package com.springboot3security.reactive;
+
+import com.springboot3security.service.UserInfoPasswordService;
+import com.springboot3security.util.BoundedPasswordEncoder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+// Username and password check for /auth/generateToken on the reactive stack. BCrypt runs on the bounded hashing
+// pool through matchesAsync, so no event-loop thread ever waits on a hash; a saturated pool fails the login with
+// PasswordHashingRejectedException (503) exactly as on the servlet stack.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePasswordAuthenticationManager implements ReactiveAuthenticationManager {
+
+    // Checked when the user does not exist, so an unknown username costs the same hash as a wrong password
+    private static final String USER_NOT_FOUND_PASSWORD = "userNotFoundPassword";
+
+    private final ReactiveUserInfoDetailsService userDetailsService;
+    private final BoundedPasswordEncoder encoder;
+    private final UserInfoPasswordService passwordService;
+    private volatile String userNotFoundHash;
+
+    public ReactivePasswordAuthenticationManager(ReactiveUserInfoDetailsService userDetailsService,
+                                                 BoundedPasswordEncoder encoder, UserInfoPasswordService passwordService) {
+        this.userDetailsService = userDetailsService;
+        this.encoder = encoder;
+        this.passwordService = passwordService;
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        String username = authentication.getName();
+        String presented = authentication.getCredentials() != null ? authentication.getCredentials().toString() : "";
+        return userDetailsService.findByUsername(username)
+                .switchIfEmpty(Mono.defer(() -> userNotFound(presented)))
+                .flatMap(user -> Mono.fromFuture(() -> encoder.matchesAsync(presented, user.getPassword()))
+                        .flatMap(matches -> matches
+                                ? upgradeEncoding(user, presented)
+                                : Mono.error(new BadCredentialsException("Bad credentials"))))
+                .map(user -> UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+    }
+
+    private Mono<UserDetails> userNotFound(String presented) {
+        return dummyHash()
+                .flatMap(hash -> Mono.fromFuture(() -> encoder.matchesAsync(presented, hash)))
+                .then(Mono.error(new BadCredentialsException("Bad credentials")));
+    }
+
+    // Same as DaoAuthenticationProvider: a hash below the current policy is rewritten after a successful login.
+    // The write goes through the JPA password service, off the event loop
+    private Mono<UserDetails> upgradeEncoding(UserDetails user, String presented) {
+        if (!encoder.upgradeEncoding(user.getPassword())) {
+            return Mono.just(user);
+        }
+        return Mono.fromFuture(() -> encoder.encodeAsync(presented))
+                .publishOn(Schedulers.boundedElastic())
+                .map(newHash -> passwordService.updatePassword(user, newHash));
+    }
+
+    // Encoded on first use rather than at startup, which would pay for a calibrated hash before serving anything
+    private Mono<String> dummyHash() {
+        String hash = userNotFoundHash;
+        if (hash != null) {
+            return Mono.just(hash);
+        }
+        return Mono.fromFuture(() -> encoder.encodeAsync(USER_NOT_FOUND_PASSWORD))
+                .doOnNext(encoded -> userNotFoundHash = encoded);
+    }
+}
@@ -0,0 +1,26 @@
+package com.springboot3security.reactive;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+// Reactive method security only guards methods that return a Publisher
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/preauthorize")
+public class ReactivePreauthorizeController {
+    @GetMapping("/adminOnly")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<String> adminOnlyEndpoint() {
+        return Mono.just("This endpoint is accessible only to ADMIN role.");
+    }
+
+    @GetMapping("/userOnly")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public Mono<String> userOnlyEndpoint() {
+        return Mono.just("This endpoint is accessible only to USER or ADMIN role.");
+    }
+}
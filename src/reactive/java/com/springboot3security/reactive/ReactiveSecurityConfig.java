@@ -0,0 +1,78 @@
+package com.springboot3security.reactive;
+
+import com.springboot3security.audit.AuditLog;
+import com.springboot3security.filter.VerifiedTokenCache;
+import com.springboot3security.metrics.AuthMetrics;
+import com.springboot3security.service.TokenRevocationService;
+import com.springboot3security.util.JwtUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.net.InetSocketAddress;
+
+// WebFlux equivalent of SecurityConfig.securityFilterChain, with the same access rules. Only active when the
+// application runs as a reactive web application (profile "reactive"); the encoder, JwtUtil, key ring and
+// services are the shared beans from SecurityConfig.
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableWebFluxSecurity
+@EnableReactiveMethodSecurity
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+                                                         ReactiveUserInfoDetailsService userDetailsService,
+                                                         ReactivePasswordAuthenticationManager authenticationManager,
+                                                         JwtUtil jwtUtil, VerifiedTokenCache tokenCache,
+                                                         TokenRevocationService revocations, AuthMetrics metrics,
+                                                         AuditLog auditLog,
+                                                         @Value("${management.server.port:-1}") int managementPort) {
+        JwtAuthWebFilter jwtAuthWebFilter = new JwtAuthWebFilter(userDetailsService, jwtUtil, tokenCache, revocations, metrics,
+                auditLog);
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .logout(ServerHttpSecurity.LogoutSpec::disable)
+                .authenticationManager(authenticationManager)
+                .authorizeExchange(auth -> auth
+                        .pathMatchers("/auth/welcome", "/auth/addNewUser", "/auth/generateToken").permitAll()
+                        // Refresh tokens are checked by the endpoint itself, not by JwtAuthWebFilter
+                        .pathMatchers("/auth/generateTokenPair", "/auth/refreshToken").permitAll()
+                        .pathMatchers("/.well-known/jwks.json").permitAll()
+                        .pathMatchers("/actuator/health").permitAll()
+                        // As in SecurityConfig: open on the management port, ADMIN-only on the application port
+                        .matchers(exchange -> isManagementScrape(exchange, managementPort)
+                                ? ServerWebExchangeMatcher.MatchResult.match()
+                                : ServerWebExchangeMatcher.MatchResult.notMatch()).permitAll()
+                        .pathMatchers("/actuator/prometheus").hasAuthority("ROLE_ADMIN")
+                        .pathMatchers("/auth/user/**").hasAnyAuthority("ROLE_USER", "ROLE_ADMIN")
+                        .pathMatchers("/auth/admin/**").hasAuthority("ROLE_ADMIN")
+                        .anyExchange().authenticated()
+                )
+                // Stateless: the token is checked on every request and nothing is kept in a session
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                // 403 for a missing or rejected token, as the servlet chain answers without a login entry point
+                .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN)))
+                .addFilterAt(jwtAuthWebFilter, SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+
+    private static boolean isManagementScrape(ServerWebExchange exchange, int managementPort) {
+        InetSocketAddress local = exchange.getRequest().getLocalAddress();
+        return local != null && local.getPort() == managementPort
+                && "/actuator/prometheus".equals(exchange.getRequest().getPath().value());
+    }
+}
@@ -0,0 +1,150 @@
+package com.springboot3security.reactive;
+
+import com.springboot3security.audit.AuditLog;
+import com.springboot3security.entity.AuditEvent;
+import com.springboot3security.entity.AuthRequest;
+import com.springboot3security.entity.RefreshTokenRequest;
+import com.springboot3security.entity.RevokeTokenRequest;
+import com.springboot3security.entity.TokenPair;
+import com.springboot3security.entity.UserInfo;
+import com.springboot3security.service.LoginAttemptThrottle;
+import com.springboot3security.util.LoginThrottledException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.List;
+
+// The /auth API of UserController on WebFlux, with the same paths, bodies and responses.
+// /auth/admin/bulkAddUsers and the JFR endpoints are only served by the servlet stack.
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/auth")
+public class ReactiveUserController {
+
+    private final ReactiveUserInfoService userInfoService;
+
+    private final ReactivePasswordAuthenticationManager authenticationManager;
+
+    private final LoginAttemptThrottle loginAttemptThrottle;
+
+    private final AuditLog auditLog;
+
+    public ReactiveUserController(ReactivePasswordAuthenticationManager authenticationManager,
+                                  ReactiveUserInfoService userInfoService, LoginAttemptThrottle loginAttemptThrottle,
+                                  AuditLog auditLog) {
+        this.authenticationManager = authenticationManager;
+        this.userInfoService = userInfoService;
+        this.loginAttemptThrottle = loginAttemptThrottle;
+        this.auditLog = auditLog;
+    }
+
+    @GetMapping("/welcome")
+    public Mono<String> welcome() {
+        return Mono.just("Welcome this endpoint is not secure");
+    }
+
+    @PostMapping("/addNewUser")
+    public Mono<String> addNewUser(@RequestBody UserInfo userInfo, ServerWebExchange exchange) {
+        return userInfoService.addUser(userInfo, JwtAuthWebFilter.clientIp(exchange));
+    }
+
+    @PostMapping("/generateToken")
+    public Mono<String> authenticateAndGetToken(@RequestBody AuthRequest authRequest, ServerWebExchange exchange) {
+        return authenticate(authRequest, exchange)
+                .then(Mono.defer(() -> userInfoService.authenticateAndGetToken(authRequest.getUsername())));
+    }
+
+    @PostMapping("/generateTokenPair")
+    public Mono<TokenPair> authenticateAndGetTokenPair(@RequestBody AuthRequest authRequest, ServerWebExchange exchange) {
+        return authenticate(authRequest, exchange)
+                .then(Mono.defer(() -> userInfoService.authenticateAndGetTokenPair(authRequest.getUsername())));
+    }
+
+    @PostMapping("/refreshToken")
+    public Mono<TokenPair> refreshToken(@RequestBody RefreshTokenRequest refreshTokenRequest) {
+        return userInfoService.refreshToken(refreshTokenRequest.refreshToken());
+    }
+
+    @PostMapping("/admin/revokeToken")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<String> revokeToken(@RequestBody RevokeTokenRequest revokeTokenRequest) {
+        return userInfoService.revokeToken(revokeTokenRequest.token());
+    }
+
+    @PostMapping("/admin/revokeUser/{username}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<String> revokeUser(@PathVariable String username) {
+        return userInfoService.invalidateTokens(username)
+                .map(revoked -> revoked ? "Tokens revoked for user: " + username : "User not found");
+    }
+
+    // AuditController's query; the JPA read runs on boundedElastic
+    @GetMapping("/admin/audit")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<List<AuditEvent>> audit(@RequestParam(required = false) AuditEvent.Type type,
+                                        @RequestParam(required = false) String username,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant since,
+                                        @RequestParam(defaultValue = "100") int limit) {
+        return Mono.fromCallable(() -> auditLog.search(type, username, since == null ? Instant.EPOCH : since,
+                        Math.max(1, Math.min(limit, 1000))))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping("/user")
+    public Mono<String> userPage() {
+        return Mono.just("This is the user page. Access granted!");
+    }
+
+    @GetMapping("/admin")
+    public Mono<String> adminPage() {
+        return Mono.just("This is the admin page. Access granted!");
+    }
+
+    @GetMapping("/adminOnly")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<String> adminOnlyEndpoint() {
+        return Mono.just("This endpoint is accessible only to ADMIN role.");
+    }
+
+    @GetMapping("/userOnly")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public Mono<String> userOnlyEndpoint() {
+        return Mono.just("This endpoint is accessible only to USER role.");
+    }
+
+    // Throttled keys are rejected with 429 before the password is checked; a failed check answers 403 like
+    // the servlet stack, where the AuthenticationException reaches the default entry point
+    private Mono<Void> authenticate(AuthRequest authRequest, ServerWebExchange exchange) {
+        String clientIp = JwtAuthWebFilter.clientIp(exchange);
+        return Mono.defer(() -> {
+                    try {
+                        loginAttemptThrottle.checkAllowed(authRequest.getUsername(), clientIp);
+                    } catch (LoginThrottledException e) {
+                        auditLog.record(AuditEvent.Type.LOGIN_THROTTLED, authRequest.getUsername(), clientIp, null);
+                        throw e;
+                    }
+                    return authenticationManager.authenticate(
+                            new UsernamePasswordAuthenticationToken(authRequest.getUsername(), authRequest.getPassword()));
+                })
+                .doOnNext(authentication -> {
+                    loginAttemptThrottle.recordSuccess(authRequest.getUsername());
+                    auditLog.record(AuditEvent.Type.LOGIN_SUCCESS, authRequest.getUsername(), clientIp, null);
+                })
+                .onErrorMap(AuthenticationException.class, e -> {
+                    loginAttemptThrottle.recordFailure(authRequest.getUsername(), clientIp);
+                    auditLog.record(AuditEvent.Type.LOGIN_FAILURE, authRequest.getUsername(), clientIp, e.getClass().getSimpleName());
+                    return new ResponseStatusException(HttpStatus.FORBIDDEN, e.getMessage(), e);
+                })
+                .then();
+    }
+}
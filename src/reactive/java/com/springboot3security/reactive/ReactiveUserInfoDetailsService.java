@@ -0,0 +1,35 @@
+package com.springboot3security.reactive;
+
+import com.springboot3security.metrics.AuthMetrics;
+import com.springboot3security.service.UserInfoDetails;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+// Reactive counterpart of the userDetailsService bean. There is no cache in front of it: a lookup is one
+// non-blocking query, and the writers' evict calls only reach CachedUserDetailsService.
+// An unknown user completes empty instead of failing.
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserInfoDetailsService implements ReactiveUserDetailsService {
+
+    private final ReactiveUserInfoRepository repository;
+    private final AuthMetrics metrics;
+
+    public ReactiveUserInfoDetailsService(ReactiveUserInfoRepository repository, AuthMetrics metrics) {
+        this.repository = repository;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Mono<UserDetails> findByUsername(String username) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return repository.findCredentialsByUsername(username)
+                    .<UserDetails>map(UserInfoDetails::new)
+                    .doOnTerminate(() -> metrics.recordUserLookup(System.nanoTime() - start));
+        });
+    }
+}
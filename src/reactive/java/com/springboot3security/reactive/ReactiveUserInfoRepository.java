@@ -0,0 +1,44 @@
+package com.springboot3security.reactive;
+
+import com.springboot3security.entity.UserCredentials;
+import com.springboot3security.entity.UserInfo;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+// Non-blocking access to the users table for the paths the reactive stack serves per request: login, the token
+// check and registration. Plain SQL over DatabaseClient rather than a Spring Data repository, so UserInfo stays a
+// JPA-only entity; the table and its columns are still created and owned by Hibernate.
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserInfoRepository {
+
+    private final DatabaseClient client;
+
+    public ReactiveUserInfoRepository(DatabaseClient client) {
+        this.client = client;
+    }
+
+    // Same columns as UserInfoRepository.findCredentialsByUsername
+    public Mono<UserCredentials> findCredentialsByUsername(String username) {
+        return client.sql("SELECT username, password, role, tokenVersion FROM users WHERE username = :username")
+                .bind("username", username)
+                .map(row -> new UserCredentials(
+                        row.get("username", String.class),
+                        row.get("password", String.class),
+                        row.get("role", String.class),
+                        row.get("tokenVersion", Integer.class)))
+                .one();
+    }
+
+    // The unique index on username rejects duplicates with a DataIntegrityViolationException
+    public Mono<Long> insert(UserInfo userInfo) {
+        DatabaseClient.GenericExecuteSpec insert = client
+                .sql("INSERT INTO users (username, password, role, tokenVersion) VALUES (:username, :password, :role, 0)")
+                .bind("username", userInfo.getUsername())
+                .bind("password", userInfo.getPassword());
+        insert = userInfo.getRole() != null ? insert.bind("role", userInfo.getRole()) : insert.bindNull("role", String.class);
+        return insert.fetch().rowsUpdated();
+    }
+}
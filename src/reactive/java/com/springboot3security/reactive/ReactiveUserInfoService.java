@@ -0,0 +1,109 @@
+package com.springboot3security.reactive;
+
+import com.springboot3security.audit.AuditLog;
+import com.springboot3security.entity.AuditEvent;
+import com.springboot3security.entity.TokenPair;
+import com.springboot3security.entity.UserInfo;
+import com.springboot3security.metrics.AuthMetrics;
+import com.springboot3security.repository.UserInfoRepository;
+import com.springboot3security.service.CachedUserDetailsService;
+import com.springboot3security.service.UserInfoService;
+import com.springboot3security.util.BoundedPasswordEncoder;
+import com.springboot3security.util.JwtUtil;
+import com.springboot3security.util.PasswordPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+
+// Registration and login run non-blocking end to end: the password policy is in-memory, hashing goes to the
+// bounded pool and the row is read or written over R2DBC. Refresh tokens and revocation are rare and stay on
+// the JPA services in UserInfoService, called on boundedElastic so they never hold an event-loop thread.
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserInfoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveUserInfoService.class);
+    private final ReactiveUserInfoRepository repository;
+    private final ReactiveUserInfoDetailsService userDetailsService;
+    private final BoundedPasswordEncoder encoder;
+    private final JwtUtil jwtUtil;
+    private final PasswordPolicy passwordPolicy;
+    private final CachedUserDetailsService cachedUserDetailsService;
+    private final UserInfoService userInfoService;
+    private final AuthMetrics metrics;
+    private final AuditLog auditLog;
+
+    public ReactiveUserInfoService(ReactiveUserInfoRepository repository, ReactiveUserInfoDetailsService userDetailsService,
+                                   BoundedPasswordEncoder encoder, JwtUtil jwtUtil, PasswordPolicy passwordPolicy,
+                                   CachedUserDetailsService cachedUserDetailsService, UserInfoService userInfoService,
+                                   AuthMetrics metrics, AuditLog auditLog) {
+        this.repository = repository;
+        this.userDetailsService = userDetailsService;
+        this.encoder = encoder;
+        this.jwtUtil = jwtUtil;
+        this.passwordPolicy = passwordPolicy;
+        this.cachedUserDetailsService = cachedUserDetailsService;
+        this.userInfoService = userInfoService;
+        this.metrics = metrics;
+        this.auditLog = auditLog;
+    }
+
+    // Same checks, outcomes, messages and audit events as UserInfoService.addUser
+    public Mono<String> addUser(UserInfo userInfo, String clientIp) {
+        int violations = passwordPolicy.evaluate(userInfo.getPassword(), userInfo.getUsername());
+        if (violations != 0) {
+            metrics.addUserOutcome(AuthMetrics.AddUserOutcome.INVALID_PASSWORD);
+            auditLog.record(AuditEvent.Type.REGISTRATION_REJECTED, userInfo.getUsername(), clientIp, "invalid_password");
+            return Mono.just(passwordPolicy.describe(violations));
+        }
+        return Mono.fromFuture(() -> encoder.encodeAsync(userInfo.getPassword()))
+                .flatMap(encoded -> {
+                    userInfo.setPassword(encoded);
+                    return repository.insert(userInfo);
+                })
+                .map(inserted -> {
+                    cachedUserDetailsService.evict(userInfo.getUsername());
+                    metrics.addUserOutcome(AuthMetrics.AddUserOutcome.CREATED);
+                    auditLog.record(AuditEvent.Type.USER_REGISTERED, userInfo.getUsername(), clientIp, userInfo.getRole());
+                    return "User Added Successfully";
+                })
+                .onErrorResume(e -> e instanceof DataIntegrityViolationException violation
+                        && UserInfoRepository.isDuplicateUsername(violation), e -> {
+                    metrics.addUserOutcome(AuthMetrics.AddUserOutcome.DUPLICATE);
+                    auditLog.record(AuditEvent.Type.REGISTRATION_REJECTED, userInfo.getUsername(), clientIp, "duplicate");
+                    return Mono.just("User already exists");
+                });
+    }
+
+    // Signing is CPU only and stays on the calling thread
+    public Mono<String> authenticateAndGetToken(String username) {
+        logger.debug("Authenticating user: {}", username);
+        return userDetailsService.findByUsername(username).map(jwtUtil::generateLegacyToken);
+    }
+
+    public Mono<TokenPair> authenticateAndGetTokenPair(String username) {
+        return blocking(() -> userInfoService.authenticateAndGetTokenPair(username));
+    }
+
+    public Mono<TokenPair> refreshToken(String refreshToken) {
+        return blocking(() -> userInfoService.refreshToken(refreshToken));
+    }
+
+    public Mono<String> revokeToken(String token) {
+        return blocking(() -> userInfoService.revokeToken(token));
+    }
+
+    public Mono<Boolean> invalidateTokens(String username) {
+        return blocking(() -> userInfoService.invalidateTokens(username));
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+}
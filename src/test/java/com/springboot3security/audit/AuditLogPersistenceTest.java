@@ -0,0 +1,57 @@
+package com.springboot3security.audit;
+
+import com.springboot3security.entity.AuditEvent;
+import com.springboot3security.repository.AuditEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The writer's JDBC insert against the real schema, read back through the admin query
+@DataJpaTest
+class AuditLogPersistenceTest {
+
+    @Autowired
+    private AuditEventRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testDrainedEventsAreFoundBySearch() {
+        Instant now = Instant.parse("2025-01-01T12:00:00Z");
+        AuditLog auditLog = new AuditLog(repository, jdbcTemplate, new TransactionTemplate(transactionManager), null,
+                16, 10, 200, Duration.ofDays(90), Clock.fixed(now, ZoneOffset.UTC));
+        auditLog.record(AuditEvent.Type.LOGIN_FAILURE, "testUser", "10.0.0.1", "BadCredentialsException");
+        auditLog.record(AuditEvent.Type.LOGIN_SUCCESS, "testUser", "10.0.0.1", null);
+        auditLog.record(AuditEvent.Type.LOGIN_SUCCESS, "otherUser", "10.0.0.2", null);
+
+        assertEquals(3, auditLog.drain());
+
+        List<AuditEvent> all = auditLog.search(null, null, Instant.EPOCH, 10);
+        assertEquals(List.of("otherUser", "testUser", "testUser"), all.stream().map(AuditEvent::getUsername).toList());
+        assertEquals(now, all.get(0).getOccurredAt());
+
+        List<AuditEvent> failures = auditLog.search(AuditEvent.Type.LOGIN_FAILURE, "testUser", Instant.EPOCH, 10);
+        assertEquals(1, failures.size());
+        assertEquals("10.0.0.1", failures.get(0).getClientIp());
+        assertEquals("BadCredentialsException", failures.get(0).getDetail());
+
+        assertEquals(1, auditLog.search(null, null, Instant.EPOCH, 1).size());
+        assertTrue(auditLog.search(null, null, now.plusSeconds(1), 10).isEmpty());
+        assertEquals(3, repository.deleteOlderThan(now.plusSeconds(1)));
+    }
+}
@@ -0,0 +1,168 @@
+package com.springboot3security.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.springboot3security.entity.AuditEvent;
+import com.springboot3security.repository.AuditEventRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AuditLogTest {
+
+    private final AuditEventRepository repository = mock(AuditEventRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+    private final Clock clock = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    void testEventsBeyondTheBufferAreDroppedAndCounted() {
+        AuditLog auditLog = auditLog(jdbcTemplate, null, 4, 10);
+
+        for (int i = 0; i < 6; i++) {
+            auditLog.record(AuditEvent.Type.LOGIN_FAILURE, "user" + i, "10.0.0.1", null);
+        }
+
+        assertEquals(4, auditLog.getPendingCount());
+        assertEquals(2, auditLog.getDroppedCount());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testDrainWritesOneJdbcBatchPerCall() {
+        AuditLog auditLog = auditLog(jdbcTemplate, null, 16, 3);
+        for (int i = 0; i < 5; i++) {
+            auditLog.record(AuditEvent.Type.LOGIN_SUCCESS, "user" + i, "10.0.0.1", null);
+        }
+
+        assertEquals(3, auditLog.drain());
+        assertEquals(2, auditLog.drain());
+        assertEquals(0, auditLog.drain());
+
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("insert into audit_events"), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(5, auditLog.getWrittenCount());
+        assertEquals(0, auditLog.getPendingCount());
+    }
+
+    @Test
+    void testFailedBatchIsCountedAndTheWriterMovesOn() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("database down"));
+        AuditLog auditLog = auditLog(jdbcTemplate, null, 16, 10);
+        auditLog.record(AuditEvent.Type.TOKEN_REJECTED, "testUser", "10.0.0.1", "expired");
+        auditLog.record(AuditEvent.Type.TOKEN_REJECTED, "testUser", "10.0.0.1", "expired");
+
+        assertEquals(2, auditLog.drain());
+
+        assertEquals(2, auditLog.getFailedCount());
+        assertEquals(0, auditLog.getWrittenCount());
+        assertEquals(0, auditLog.getPendingCount());
+    }
+
+    // The pool being exhausted surfaces as a TransactionException, not a DataAccessException
+    @Test
+    void testWriterSurvivesATransactionThatCannotBegin() throws Exception {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any()))
+                .thenThrow(new CannotCreateTransactionException("no connection"))
+                .thenReturn(new SimpleTransactionStatus());
+        AuditLog auditLog = new AuditLog(repository, jdbcTemplate, new TransactionTemplate(transactionManager), null, 16, 1,
+                TimeUnit.MINUTES.toMillis(10), Duration.ofDays(90), clock);
+        auditLog.record(AuditEvent.Type.LOGIN_SUCCESS, "first", "10.0.0.1", null);
+        auditLog.record(AuditEvent.Type.LOGIN_SUCCESS, "second", "10.0.0.1", null);
+
+        auditLog.start();
+        auditLog.stop();
+
+        assertEquals(1, auditLog.getFailedCount());
+        assertEquals(1, auditLog.getWrittenCount());
+        assertEquals(0, auditLog.getPendingCount());
+    }
+
+    @Test
+    void testOversizedValuesAreTruncatedToTheColumnSize() {
+        AuditLog auditLog = auditLog(jdbcTemplate, null, 16, 10);
+        auditLog.record(AuditEvent.Type.LOGIN_FAILURE, "x".repeat(1000), "10.0.0.1", null);
+
+        auditLog.drain();
+
+        verify(jdbcTemplate).batchUpdate(anyString(), argThat((Collection<AuditEvent> events) ->
+                events.iterator().next().getUsername().length() == 255), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void testFileSinkWritesJsonLinesAndRotates(@TempDir Path dir) throws IOException {
+        Path path = dir.resolve("audit.log");
+        RollingFileSink file = new RollingFileSink(path, 300, 2,
+                new ObjectMapper().registerModule(new JavaTimeModule()).writer());
+        AuditLog auditLog = auditLog(null, file, 16, 10);
+
+        for (int round = 0; round < 4; round++) {
+            for (int i = 0; i < 2; i++) {
+                auditLog.record(AuditEvent.Type.USER_REGISTERED, "user" + round + i, "10.0.0.1", "ROLE_USER");
+            }
+            auditLog.drain();
+        }
+        file.close();
+
+        List<String> current = Files.readAllLines(path);
+        assertFalse(current.isEmpty());
+        assertTrue(current.get(current.size() - 1).contains("\"username\":\"user31\""));
+        assertTrue(Files.exists(dir.resolve("audit.log.1")));
+        assertTrue(Files.exists(dir.resolve("audit.log.2")));
+        assertFalse(Files.exists(dir.resolve("audit.log.3")));
+        assertTrue(Files.size(path) <= 300);
+        assertEquals(8, auditLog.getWrittenCount());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testStopFlushesBufferedEvents() throws Exception {
+        // Long interval: only stop() can wake the writer in time
+        AuditLog auditLog = new AuditLog(repository, jdbcTemplate, transactionTemplate, null, 16, 10,
+                TimeUnit.MINUTES.toMillis(10), Duration.ofDays(90), clock);
+        auditLog.start();
+        auditLog.record(AuditEvent.Type.LOGIN_SUCCESS, "testUser", "10.0.0.1", null);
+
+        auditLog.stop();
+
+        assertEquals(1, auditLog.getWrittenCount());
+        assertEquals(0, auditLog.getPendingCount());
+    }
+
+    @Test
+    void testPurgeDeletesEventsOlderThanTheRetention() {
+        AuditLog auditLog = auditLog(jdbcTemplate, null, 16, 10);
+
+        auditLog.purgeExpired();
+
+        verify(repository).deleteOlderThan(Instant.parse("2024-10-03T00:00:00Z"));
+    }
+
+    private AuditLog auditLog(JdbcTemplate jdbcTemplate, RollingFileSink file, int bufferSize, int batchSize) {
+        return new AuditLog(repository, jdbcTemplate, transactionTemplate, file, bufferSize, batchSize, 200,
+                Duration.ofDays(90), clock);
+    }
+}
@@ -0,0 +1,64 @@
+package com.springboot3security.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The shipped layout: actuator on its own management port. The scrape is open there and closed on the
+// application port. Metrics export is off in tests unless @AutoConfigureObservability asks for it
+@AutoConfigureObservability
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+@TestPropertySource(properties = "management.endpoints.web.exposure.include=health,prometheus")
+class ActuatorAccessTest {
+
+    private static final int MANAGEMENT_PORT = freePort();
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @DynamicPropertySource
+    static void managementPort(DynamicPropertyRegistry registry) {
+        registry.add("management.server.port", () -> MANAGEMENT_PORT);
+    }
+
+    @Test
+    void testScrapeIsOpenOnlyOnTheManagementPort() throws Exception {
+        HttpResponse<String> scrape = get(MANAGEMENT_PORT, "/actuator/prometheus");
+        assertEquals(200, scrape.statusCode());
+        assertTrue(scrape.body().contains("auth_token_failures_total"));
+        assertEquals(200, get(MANAGEMENT_PORT, "/actuator/health").statusCode());
+
+        assertEquals(403, get(port, "/actuator/prometheus").statusCode());
+    }
+
+    private HttpResponse<String> get(int port, String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,7 +1,16 @@
 package com.springboot3security.config;
 
+import com.springboot3security.audit.AuditLog;
+import com.springboot3security.filter.VerifiedTokenCache;
+import com.springboot3security.jfr.JfrRecordingService;
+import com.springboot3security.metrics.AuthMetrics;
+import com.springboot3security.service.BulkUserService;
+import com.springboot3security.service.LoginAttemptThrottle;
+import com.springboot3security.service.TokenRevocationService;
+import com.springboot3security.service.TokenVersionRegistry;
 import com.springboot3security.service.UserInfoService;
 import com.springboot3security.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.mockito.Mockito;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
@@ -35,11 +44,51 @@ public class TestSecurityConfig {
         return Mockito.mock(UserInfoService.class);
     };
 
+    @Bean
+    public BulkUserService bulkUserService() {
+        return Mockito.mock(BulkUserService.class);
+    }
+
+    @Bean
+    public LoginAttemptThrottle loginAttemptThrottle() {
+        return new LoginAttemptThrottle(false, 0, 0, 0, 0);
+    }
+
+    @Bean
+    public AuditLog auditLog() {
+        return Mockito.mock(AuditLog.class);
+    }
+
+    @Bean
+    public JfrRecordingService jfrRecordingService() {
+        return Mockito.mock(JfrRecordingService.class);
+    }
+
     @Bean
     public JwtUtil jwtUtil() {
         return Mockito.mock(JwtUtil.class);
     };
 
+    @Bean
+    public VerifiedTokenCache verifiedTokenCache() {
+        return new VerifiedTokenCache(false, 0, 0);
+    }
+
+    @Bean
+    public AuthMetrics authMetrics() {
+        return new AuthMetrics(new SimpleMeterRegistry());
+    }
+
+    @Bean
+    public TokenVersionRegistry tokenVersionRegistry() {
+        return Mockito.mock(TokenVersionRegistry.class);
+    }
+
+    @Bean
+    public TokenRevocationService tokenRevocationService() {
+        return Mockito.mock(TokenRevocationService.class);
+    }
+
     @Bean
     public AuthenticationManager authenticationManager() {
         return Mockito.mock(AuthenticationManager.class);
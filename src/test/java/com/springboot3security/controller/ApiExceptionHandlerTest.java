@@ -0,0 +1,43 @@
+package com.springboot3security.controller;
+
+import com.springboot3security.util.InvalidRefreshTokenException;
+import com.springboot3security.util.LoginThrottledException;
+import com.springboot3security.util.PasswordHashingRejectedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ApiExceptionHandlerTest {
+
+    private final ApiExceptionHandler handler = new ApiExceptionHandler();
+
+    @Test
+    void testPasswordHashingRejectedMapsTo503WithRetryAfter() {
+        ResponseEntity<String> response = handler.handlePasswordHashingRejected(
+                new PasswordHashingRejectedException("Password hashing capacity exceeded", 2));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void testLoginThrottledMapsTo429WithRetryAfter() {
+        ResponseEntity<String> response = handler.handleLoginThrottled(
+                new LoginThrottledException("Too many failed login attempts", 30));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("30", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void testInvalidRefreshTokenMapsTo401() {
+        ResponseEntity<String> response = handler.handleInvalidRefreshToken(
+                new InvalidRefreshTokenException("Refresh token has already been used"));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        assertEquals("Refresh token has already been used", response.getBody());
+    }
+}
@@ -0,0 +1,55 @@
+package com.springboot3security.controller;
+
+import com.springboot3security.util.JwtKeyRing;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class JwksControllerTest {
+
+    @Test
+    void testServesPublicKeysWithCacheHeaders() throws Exception {
+        JwtKeyRing keyRing = new JwtKeyRing(randomSecret(), "primary", "", "EdDSA",
+                KeyPairGenerator.getInstance("Ed25519").generateKeyPair(), Map.of());
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new JwksController(keyRing, 600)).build();
+
+        MvcResult result = mockMvc.perform(get("/.well-known/jwks.json"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/jwk-set+json"))
+                .andExpect(header().string("Cache-Control", "max-age=600, public"))
+                .andExpect(content().string(keyRing.getJwkSetJson()))
+                .andReturn();
+        String etag = result.getResponse().getHeader("ETag");
+        assertNotNull(etag);
+
+        // Unchanged keys: the client keeps its cached copy and no body is sent
+        mockMvc.perform(get("/.well-known/jwks.json").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testPlainJsonClientsAreServed() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new JwksController(new JwtKeyRing(randomSecret(), "primary", ""), 3600)).build();
+
+        mockMvc.perform(get("/.well-known/jwks.json").accept("application/json"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{\"keys\":[]}"));
+    }
+
+    private static String randomSecret() {
+        byte[] bytes = new byte[64];
+        new SecureRandom().nextBytes(bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+}
@@ -1,9 +1,19 @@
 package com.springboot3security.controller;
 
+import com.springboot3security.audit.AuditLog;
+import com.springboot3security.entity.AuditEvent;
 import com.springboot3security.entity.AuthRequest;
+import com.springboot3security.entity.BulkUserResult;
+import com.springboot3security.entity.RefreshTokenRequest;
+import com.springboot3security.entity.RevokeTokenRequest;
+import com.springboot3security.entity.TokenPair;
 import com.springboot3security.entity.UserInfo;
+import com.springboot3security.service.BulkUserService;
+import com.springboot3security.service.LoginAttemptThrottle;
 import com.springboot3security.service.UserInfoService;
 import com.springboot3security.util.JwtUtil;
+import com.springboot3security.util.LoginThrottledException;
+import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,6 +24,7 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -21,6 +32,10 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -38,6 +53,18 @@ class UserControllerTest {
     @Mock
     private AuthenticationManager authenticationManager;
 
+    @Mock
+    private BulkUserService bulkUserService;
+
+    @Mock
+    private LoginAttemptThrottle loginAttemptThrottle;
+
+    @Mock
+    private AuditLog auditLog;
+
+    @Mock
+    private HttpServletRequest request;
+
     @InjectMocks
     private UserController userController;
 
@@ -46,6 +73,7 @@ class UserControllerTest {
     @BeforeEach
     void setUp() {
         closeable = MockitoAnnotations.openMocks(this);
+        when(request.getRemoteAddr()).thenReturn("10.0.0.1");
     }
 
     @AfterEach
@@ -83,10 +111,11 @@ class UserControllerTest {
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(authentication);
         when(userInfoService.authenticateAndGetToken("testUser")).thenReturn("mockToken");
 
-        String token = userController.authenticateAndGetToken(authRequest);
+        String token = userController.authenticateAndGetToken(authRequest, request);
         assertEquals("mockToken", token);
         verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(userInfoService, times(1)).authenticateAndGetToken("testUser");
+        verify(loginAttemptThrottle, times(1)).recordSuccess("testUser");
     }
 
     @Test
@@ -98,8 +127,101 @@ class UserControllerTest {
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenThrow(new UsernameNotFoundException("Invalid user request!"));
 
-        assertThrows(UsernameNotFoundException.class, () -> userController.authenticateAndGetToken(authRequest));
+        assertThrows(UsernameNotFoundException.class, () -> userController.authenticateAndGetToken(authRequest, request));
         verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
+        verify(loginAttemptThrottle, times(1)).recordFailure("testUser", "10.0.0.1");
+    }
+
+    @Test
+    void testAuthenticateAndGetToken_Throttled() {
+        AuthRequest authRequest = new AuthRequest();
+        authRequest.setUsername("testUser");
+        authRequest.setPassword("WrongPassword");
+
+        doThrow(new LoginThrottledException("Too many failed login attempts", 30))
+                .when(loginAttemptThrottle).checkAllowed("testUser", "10.0.0.1");
+
+        assertThrows(LoginThrottledException.class, () -> userController.authenticateAndGetToken(authRequest, request));
+        verify(authenticationManager, never()).authenticate(any());
+        verify(auditLog).record(AuditEvent.Type.LOGIN_THROTTLED, "testUser", "10.0.0.1", null);
+    }
+
+    @Test
+    void testAuthenticateAndGetToken_BadCredentialsRecordsFailure() {
+        AuthRequest authRequest = new AuthRequest();
+        authRequest.setUsername("testUser");
+        authRequest.setPassword("WrongPassword");
+
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+
+        assertThrows(BadCredentialsException.class, () -> userController.authenticateAndGetToken(authRequest, request));
+        verify(loginAttemptThrottle, times(1)).recordFailure("testUser", "10.0.0.1");
+        verify(loginAttemptThrottle, never()).recordSuccess(any());
+        verify(auditLog).record(AuditEvent.Type.LOGIN_FAILURE, "testUser", "10.0.0.1", "BadCredentialsException");
+    }
+
+    @Test
+    void testAuthenticateAndGetTokenPair_Success() {
+        AuthRequest authRequest = new AuthRequest();
+        authRequest.setUsername("testUser");
+        authRequest.setPassword("Test@123");
+        TokenPair pair = new TokenPair("mockToken", "mockRefreshToken", 900);
+
+        Authentication authentication = mock(Authentication.class);
+        when(authentication.isAuthenticated()).thenReturn(true);
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(authentication);
+        when(userInfoService.authenticateAndGetTokenPair("testUser")).thenReturn(pair);
+
+        assertEquals(pair, userController.authenticateAndGetTokenPair(authRequest, request));
+        verify(loginAttemptThrottle, times(1)).recordSuccess("testUser");
+    }
+
+    @Test
+    void testAuthenticateAndGetTokenPair_BadCredentialsIssuesNothing() {
+        AuthRequest authRequest = new AuthRequest();
+        authRequest.setUsername("testUser");
+        authRequest.setPassword("WrongPassword");
+
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+
+        assertThrows(BadCredentialsException.class, () -> userController.authenticateAndGetTokenPair(authRequest, request));
+        verify(userInfoService, never()).authenticateAndGetTokenPair(any());
+    }
+
+    @Test
+    void testRefreshToken() {
+        TokenPair pair = new TokenPair("newToken", "newRefreshToken", 900);
+        when(userInfoService.refreshToken("oldRefreshToken")).thenReturn(pair);
+
+        assertEquals(pair, userController.refreshToken(new RefreshTokenRequest("oldRefreshToken")));
+        verify(authenticationManager, never()).authenticate(any());
+    }
+
+    @Test
+    void testRevokeToken() {
+        when(userInfoService.revokeToken("accessToken")).thenReturn("Token revoked");
+
+        assertEquals("Token revoked", userController.revokeToken(new RevokeTokenRequest("accessToken")));
+    }
+
+    @Test
+    void testRevokeUser() {
+        when(userInfoService.invalidateTokens("testUser")).thenReturn(true);
+
+        assertEquals("Tokens revoked for user: testUser", userController.revokeUser("testUser"));
+        assertEquals("User not found", userController.revokeUser("nonExistentUser"));
+    }
+
+    @Test
+    void testBulkAddUsers() throws Exception {
+        InputStream body = new ByteArrayInputStream("[]".getBytes());
+        List<BulkUserResult> results = List.of(new BulkUserResult(0, "testUser", BulkUserResult.Status.CREATED, "User Added Successfully"));
+        when(bulkUserService.addUsers(body)).thenReturn(results);
+
+        assertEquals(results, userController.bulkAddUsers(body));
+        verify(bulkUserService, times(1)).addUsers(body);
     }
 
     @Test
@@ -1,6 +1,17 @@
 package com.springboot3security.filter;
 
+import com.springboot3security.audit.AuditLog;
+import com.springboot3security.entity.AuditEvent;
+import com.springboot3security.entity.UserInfo;
+import com.springboot3security.metrics.AuthMetrics;
+import com.springboot3security.service.TokenRevocationService;
+import com.springboot3security.service.TokenVersionRegistry;
+import com.springboot3security.service.UserInfoDetails;
 import com.springboot3security.util.JwtUtil;
+import com.springboot3security.util.Role;
+import com.springboot3security.util.RoleSet;
+import com.springboot3security.util.TokenValidationResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.FilterChain;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,8 +24,11 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -27,9 +41,22 @@ class JwtAuthFilterTest {
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private TokenVersionRegistry tokenVersions;
+
+    @Mock
+    private TokenRevocationService revocations;
+
     @Mock
     private FilterChain filterChain;
 
+    @Mock
+    private AuditLog auditLog;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final AuthMetrics metrics = new AuthMetrics(registry);
+
     private JwtAuthFilter jwtAuthFilter;
 
     private AutoCloseable closeable;
@@ -37,7 +64,7 @@ class JwtAuthFilterTest {
     @BeforeEach
     void setUp() {
         closeable = MockitoAnnotations.openMocks(this);
-        jwtAuthFilter = new JwtAuthFilter(userDetailsService, jwtUtil);
+        jwtAuthFilter = new JwtAuthFilter(userDetailsService, jwtUtil, new VerifiedTokenCache(false, 0, 0), tokenVersions, revocations, metrics, auditLog, false);
     }
 
     @AfterEach
@@ -53,14 +80,14 @@ class JwtAuthFilterTest {
         MockHttpServletResponse response = new MockHttpServletResponse();
 
         UserDetails userDetails = new User("testUser", "password", new ArrayList<>());
-        when(jwtUtil.extractUsername("validToken")).thenReturn("testUser");
+        when(jwtUtil.validate("validToken")).thenReturn(result(TokenValidationResult.Status.VALID, "testUser"));
         when(userDetailsService.loadUserByUsername("testUser")).thenReturn(userDetails);
-        when(jwtUtil.validateToken("validToken", userDetails)).thenReturn(true);
 
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
 
         assertNotNull(SecurityContextHolder.getContext().getAuthentication());
         assertEquals("testUser", SecurityContextHolder.getContext().getAuthentication().getName());
+        verify(jwtUtil, times(1)).validate("validToken");
         verify(filterChain, times(1)).doFilter(request, response);
     }
 
@@ -69,17 +96,188 @@ class JwtAuthFilterTest {
         MockHttpServletRequest request = new MockHttpServletRequest();
         request.addHeader("Authorization", "Bearer invalidToken");
         MockHttpServletResponse response = new MockHttpServletResponse();
+        when(jwtUtil.validate("invalidToken")).thenReturn(result(TokenValidationResult.Status.MALFORMED, null));
+
+        jwtAuthFilter.doFilterInternal(request, response, filterChain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userDetailsService, never()).loadUserByUsername(any());
+        verifyNoInteractions(filterChain);
+        assertEquals(401, response.getStatus());
+        assertEquals("Bearer error=\"invalid_token\", error_description=\"malformed\"", response.getHeader("WWW-Authenticate"));
+        assertEquals("Invalid token: malformed", response.getContentAsString());
+    }
+
+    @Test
+    void testDoFilterInternal_ExpiredToken() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer expiredToken");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(jwtUtil.validate("expiredToken")).thenReturn(result(TokenValidationResult.Status.EXPIRED, "testUser"));
+
+        jwtAuthFilter.doFilterInternal(request, response, filterChain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userDetailsService, never()).loadUserByUsername(any());
+        verifyNoInteractions(filterChain);
+        assertEquals(401, response.getStatus());
+        assertTrue(response.getHeader("WWW-Authenticate").contains("error_description=\"expired\""));
+        verify(auditLog).record(AuditEvent.Type.TOKEN_REJECTED, "testUser", "127.0.0.1", "expired");
+    }
+
+    @Test
+    void testDoFilterInternal_CachedTokenSkipsVerificationAndLookup() throws Exception {
+        jwtAuthFilter = new JwtAuthFilter(userDetailsService, jwtUtil, new VerifiedTokenCache(true, 100, 300), tokenVersions, revocations, metrics, auditLog, false);
         UserDetails userDetails = new User("testUser", "password", new ArrayList<>());
+        when(jwtUtil.validate("validToken")).thenReturn(result(TokenValidationResult.Status.VALID, "testUser"));
         when(userDetailsService.loadUserByUsername("testUser")).thenReturn(userDetails);
 
-        when(jwtUtil.extractUsername("invalidToken")).thenReturn("testUser");
+        for (int i = 0; i < 3; i++) {
+            SecurityContextHolder.clearContext();
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.addHeader("Authorization", "Bearer validToken");
+            jwtAuthFilter.doFilterInternal(request, new MockHttpServletResponse(), filterChain);
+            assertEquals("testUser", SecurityContextHolder.getContext().getAuthentication().getName());
+        }
+
+        verify(jwtUtil, times(1)).validate("validToken");
+        verify(userDetailsService, times(1)).loadUserByUsername("testUser");
+    }
+
+    // The put raced the revocation's invalidateAll, so the revoked token is still in the cache
+    // invalidateTokens bumps the version and clears the cache while this request still holds the old user
+    @Test
+    void testDoFilterInternal_ResultLoadedBeforeInvalidationIsNotCached() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100, 300);
+        jwtAuthFilter = new JwtAuthFilter(userDetailsService, jwtUtil, cache, tokenVersions, revocations, metrics, auditLog, false);
+        when(jwtUtil.validate("validToken")).thenReturn(result(TokenValidationResult.Status.VALID, "testUser"));
+        when(userDetailsService.loadUserByUsername("testUser")).thenAnswer(invocation -> {
+            cache.invalidateAll();
+            return new User("testUser", "password", new ArrayList<>());
+        });
+
+        for (int i = 0; i < 2; i++) {
+            SecurityContextHolder.clearContext();
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.addHeader("Authorization", "Bearer validToken");
+            jwtAuthFilter.doFilterInternal(request, new MockHttpServletResponse(), filterChain);
+        }
+
+        verify(jwtUtil, times(2)).validate("validToken");
+        verify(userDetailsService, times(2)).loadUserByUsername("testUser");
+    }
+
+    @Test
+    void testDoFilterInternal_CachedTokenRevokedAfterCachingIsRejected() throws Exception {
+        jwtAuthFilter = new JwtAuthFilter(userDetailsService, jwtUtil, new VerifiedTokenCache(true, 100, 300), tokenVersions, revocations, metrics, auditLog, false);
+        when(jwtUtil.validate("validToken")).thenReturn(result(TokenValidationResult.Status.VALID, "testUser"));
+        when(userDetailsService.loadUserByUsername("testUser")).thenReturn(new User("testUser", "password", new ArrayList<>()));
+        MockHttpServletRequest first = new MockHttpServletRequest();
+        first.addHeader("Authorization", "Bearer validToken");
+        jwtAuthFilter.doFilterInternal(first, new MockHttpServletResponse(), filterChain);
+
+        SecurityContextHolder.clearContext();
+        when(revocations.mightBeRevoked("token-id")).thenReturn(true);
+        when(revocations.isRevoked("token-id")).thenReturn(true);
+        MockHttpServletRequest second = new MockHttpServletRequest();
+        second.addHeader("Authorization", "Bearer validToken");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        jwtAuthFilter.doFilterInternal(second, response, filterChain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(401, response.getStatus());
+        assertTrue(response.getHeader("WWW-Authenticate").contains("error_description=\"revoked\""));
+        verify(jwtUtil, times(2)).validate("validToken");
+    }
+
+    // The filter runs before ExceptionTranslationFilter, so the missing user has to be turned into the 401 here
+    @Test
+    void testDoFilterInternal_MissingUserIsRejected() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer orphanToken");
+        when(jwtUtil.validate("orphanToken")).thenReturn(result(TokenValidationResult.Status.VALID, "goneUser"));
+        when(userDetailsService.loadUserByUsername("goneUser")).thenThrow(new UsernameNotFoundException("User not found: goneUser"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        jwtAuthFilter.doFilterInternal(request, response, filterChain);
 
-        when(jwtUtil.validateToken("invalidToken", userDetails)).thenReturn(false);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(filterChain);
+        assertEquals(401, response.getStatus());
+        assertTrue(response.getHeader("WWW-Authenticate").contains("error_description=\"user_missing\""));
+        assertEquals(1, registry.get("auth.token.failures").tag("reason", "user_missing").counter().count());
+        verify(auditLog).record(AuditEvent.Type.TOKEN_REJECTED, "goneUser", "127.0.0.1", "user_missing");
+    }
+
+    @Test
+    void testDoFilterInternal_StaleTokenVersionIsRejected() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer validToken");
+        UserInfo userInfo = new UserInfo();
+        userInfo.setUsername("testUser");
+        userInfo.setTokenVersion(1);
+        when(jwtUtil.validate("validToken")).thenReturn(result(TokenValidationResult.Status.VALID, "testUser"));
+        when(userDetailsService.loadUserByUsername("testUser")).thenReturn(new UserInfoDetails(userInfo));
+        MockHttpServletResponse response = new MockHttpServletResponse();
 
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
 
         assertNull(SecurityContextHolder.getContext().getAuthentication());
-        verify(filterChain, times(1)).doFilter(request, response);
+        assertEquals(401, response.getStatus());
+        verifyNoInteractions(filterChain);
+        assertEquals(1, registry.get("auth.token.failures").tag("reason", "stale_version").counter().count());
+        assertEquals(1, registry.get("auth.filter").timer().count());
+        verify(auditLog).record(AuditEvent.Type.TOKEN_REJECTED, "testUser", "127.0.0.1", "stale_version");
+    }
+
+    @Test
+    void testDoFilterInternal_RevokedTokenIsRejected() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer revokedToken");
+        when(jwtUtil.validate("revokedToken")).thenReturn(result(TokenValidationResult.Status.VALID, "testUser"));
+        when(revocations.isRevoked("token-id")).thenReturn(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        jwtAuthFilter.doFilterInternal(request, response, filterChain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(userDetailsService);
+        verifyNoInteractions(filterChain);
+        assertEquals(401, response.getStatus());
+        assertTrue(response.getHeader("WWW-Authenticate").contains("error_description=\"revoked\""));
+        assertEquals(1, registry.get("auth.token.failures").tag("reason", "revoked").counter().count());
+    }
+
+    @Test
+    void testDoFilterInternal_StatelessBuildsAuthenticationFromClaims() throws Exception {
+        jwtAuthFilter = new JwtAuthFilter(userDetailsService, jwtUtil, new VerifiedTokenCache(false, 0, 0), tokenVersions, revocations, metrics, auditLog, true);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer validToken");
+        when(jwtUtil.validate("validToken")).thenReturn(new TokenValidationResult(TokenValidationResult.Status.VALID,
+                "testUser", RoleSet.of(Role.USER), 0, Instant.now(), Instant.now().plusSeconds(60), "token-id"));
+        when(tokenVersions.isCurrent("testUser", 0)).thenReturn(true);
+
+        jwtAuthFilter.doFilterInternal(request, new MockHttpServletResponse(), filterChain);
+
+        assertEquals("testUser", SecurityContextHolder.getContext().getAuthentication().getName());
+        assertEquals("ROLE_USER", SecurityContextHolder.getContext().getAuthentication().getAuthorities().iterator().next().getAuthority());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void testDoFilterInternal_StatelessRejectsInvalidatedTokenVersion() throws Exception {
+        jwtAuthFilter = new JwtAuthFilter(userDetailsService, jwtUtil, new VerifiedTokenCache(false, 0, 0), tokenVersions, revocations, metrics, auditLog, true);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer validToken");
+        when(jwtUtil.validate("validToken")).thenReturn(result(TokenValidationResult.Status.VALID, "testUser"));
+        when(tokenVersions.isCurrent("testUser", 0)).thenReturn(false);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        jwtAuthFilter.doFilterInternal(request, response, filterChain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(userDetailsService);
+        assertEquals(401, response.getStatus());
     }
 
     @Test
@@ -92,4 +290,8 @@ class JwtAuthFilterTest {
         assertNull(SecurityContextHolder.getContext().getAuthentication());
         verify(filterChain, times(1)).doFilter(request, response);
     }
+
+    private TokenValidationResult result(TokenValidationResult.Status status, String subject) {
+        return new TokenValidationResult(status, subject, List.of(), 0, Instant.now(), Instant.now().plusSeconds(60), "token-id");
+    }
 }
@@ -0,0 +1,111 @@
+package com.springboot3security.filter;
+
+import com.springboot3security.metrics.AuthMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Authentication authentication = UsernamePasswordAuthenticationToken.authenticated("testUser", null, List.of());
+
+    @Test
+    void testHitsAndMissesAreCounted() {
+        VerifiedTokenCache cache = cache(100, 300);
+
+        assertNull(cache.get("token"));
+        cache.put("token", authentication, "token-id", Instant.now().plusSeconds(60), cache.generation());
+        VerifiedTokenCache.CachedAuthentication cached = cache.get("token");
+        assertSame(authentication, cached.authentication());
+        assertEquals("token-id", cached.tokenId());
+
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    void testHitRateIsExportedToTheRegistry() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100, 300, new AuthMetrics(registry));
+
+        cache.put("token", authentication, "token-id", Instant.now().plusSeconds(60), cache.generation());
+        cache.get("token");
+        cache.get("other");
+
+        assertEquals(1, registry.get("cache.gets").tag("cache", "verified_tokens").tag("result", "hit").functionCounter().count());
+        assertEquals(1, registry.get("cache.gets").tag("cache", "verified_tokens").tag("result", "miss").functionCounter().count());
+        // A disabled cache registers nothing
+        SimpleMeterRegistry unused = new SimpleMeterRegistry();
+        new VerifiedTokenCache(false, 100, 300, new AuthMetrics(unused));
+        assertNull(unused.find("cache.gets").meter());
+    }
+
+    @Test
+    void testEntryExpiresWithToken() {
+        VerifiedTokenCache cache = cache(100, 300);
+        cache.put("token", authentication, "token-id", Instant.now().plusSeconds(10), cache.generation());
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(11));
+
+        assertNull(cache.get("token"));
+    }
+
+    @Test
+    void testEntryLifetimeIsCappedByMaxTtl() {
+        VerifiedTokenCache cache = cache(100, 30);
+        cache.put("token", authentication, "token-id", Instant.now().plusSeconds(3600), cache.generation());
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(29));
+        assertNotNull(cache.get("token"));
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertNull(cache.get("token"));
+    }
+
+    @Test
+    void testSizeIsBounded() {
+        VerifiedTokenCache cache = cache(10, 300);
+        for (int i = 0; i < 100; i++) {
+            cache.put("token" + i, authentication, "token-id", Instant.now().plusSeconds(60), cache.generation());
+        }
+
+        assertTrue(cache.size() <= 10);
+        assertTrue(cache.stats().evictionCount() >= 90);
+    }
+
+    // A request that loaded the user before invalidateAll must not re-populate the cache after it
+    @Test
+    void testPutFromBeforeInvalidateAllIsNeverServed() {
+        VerifiedTokenCache cache = cache(100, 300);
+        long before = cache.generation();
+
+        cache.invalidateAll();
+        cache.put("token", authentication, "token-id", Instant.now().plusSeconds(60), before);
+
+        assertNull(cache.get("token"));
+        cache.put("token", authentication, "token-id", Instant.now().plusSeconds(60), cache.generation());
+        assertNotNull(cache.get("token"));
+    }
+
+    @Test
+    void testDisabledCacheNeverStores() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(false, 100, 300);
+        cache.put("token", authentication, "token-id", Instant.now().plusSeconds(60), cache.generation());
+
+        assertNull(cache.get("token"));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.stats().requestCount());
+    }
+
+    private VerifiedTokenCache cache(long maxSize, long maxTtlSeconds) {
+        return new VerifiedTokenCache(true, maxSize, maxTtlSeconds, nanos::get, Runnable::run);
+    }
+}
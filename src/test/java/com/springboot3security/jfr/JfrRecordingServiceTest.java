@@ -0,0 +1,72 @@
+package com.springboot3security.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrRecordingServiceTest {
+
+    private final JfrRecordingService recordingService = new JfrRecordingService(120, 16);
+
+    @AfterEach
+    void tearDown() {
+        recordingService.shutdown();
+    }
+
+    @Test
+    void testDumpContainsAuthEvents() throws Exception {
+        recordingService.start(Duration.ofSeconds(30));
+
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        event.operation = "encode";
+        event.outcome = "encoded";
+        event.encodedLength = 68;
+        event.commit();
+
+        Path dump = recordingService.dump();
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+            RecordedEvent recorded = events.stream()
+                    .filter(e -> e.getEventType().getName().equals("com.springboot3security.PasswordHash"))
+                    .findFirst()
+                    .orElseThrow();
+            assertEquals("encode", recorded.getString("operation"));
+            assertEquals(68, recorded.getInt("encodedLength"));
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    @Test
+    void testDurationIsClampedToMaximum() throws Exception {
+        assertEquals(Duration.ofSeconds(120), recordingService.start(Duration.ofHours(1)));
+        assertEquals(Duration.ofSeconds(120), recordingService.start(Duration.ZERO));
+        assertEquals(Duration.ofSeconds(10), recordingService.start(Duration.ofSeconds(10)));
+        assertTrue(recordingService.isRecording());
+    }
+
+    @Test
+    void testDumpWithoutRecordingFails() {
+        assertThrows(IllegalStateException.class, recordingService::dump);
+        assertFalse(recordingService.stop());
+    }
+
+    @Test
+    void testStopClosesRecording() throws Exception {
+        recordingService.start(Duration.ofSeconds(30));
+
+        assertTrue(recordingService.stop());
+
+        assertFalse(recordingService.isRecording());
+        assertThrows(IllegalStateException.class, recordingService::dump);
+    }
+}
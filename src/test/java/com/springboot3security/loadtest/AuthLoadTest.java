@@ -0,0 +1,220 @@
+package com.springboot3security.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot3security.entity.UserInfo;
+import com.springboot3security.repository.UserInfoRepository;
+import com.springboot3security.service.UserInfoDetails;
+import com.springboot3security.util.JwtUtil;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Boots the whole application on H2, seeds users and drives mixed concurrent traffic over real HTTP,
+// then prints throughput and p50/p95/p99/p99.9 latency per endpoint and writes them to target/loadtest-result.json.
+// Run with: mvn test -Ploadtest [-Dloadtest.users=500 -Dloadtest.threads=16 -Dloadtest.duration-seconds=60]
+// Every endpoint must record some successes and shed at most loadtest.max-shed-ratio of its requests with 503.
+// With -Ploadtest,reactive the same traffic also runs against the WebFlux stack (ReactiveAuthLoadTest).
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class AuthLoadTest {
+
+    private static final String PASSWORD = "LoadTest1234";
+    // 503 is the hashing pool shedding load and 429 the login throttle; both are expected under overload
+    private static final Set<Integer> EXPECTED_STATUSES = Set.of(200, 429, 503);
+    private static final String DENIED_ENDPOINT = "GET /preauthorize/adminOnly (denied)";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserInfoRepository repository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${loadtest.users:200}")
+    private int users;
+
+    @Value("${loadtest.threads:8}")
+    private int threads;
+
+    @Value("${loadtest.duration-seconds:30}")
+    private int durationSeconds;
+
+    // the share of an endpoint's requests the hashing pool may shed (503) before the run counts as failed
+    @Value("${loadtest.max-shed-ratio:0.5}")
+    private double maxShedRatio;
+
+    @Value("${loadtest.result-file:target/loadtest-result.json}")
+    private String resultFile;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final AtomicInteger registrations = new AtomicInteger();
+
+    @Test
+    void mixedTraffic() throws Exception {
+        List<SeededUser> seeded = seedUsers();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(pool.submit(() -> {
+                start.await();
+                while (System.nanoTime() < deadline) {
+                    nextRequest(seeded.get(ThreadLocalRandom.current().nextInt(seeded.size())));
+                }
+                return null;
+            }));
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        try {
+            for (Future<?> worker : workers) {
+                worker.get(durationSeconds + 60L, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<LatencyRecorder.EndpointStats> stats = recorder.summarize(System.nanoTime() - started);
+        report(stats);
+        assertTrue(stats.size() > 0, "No requests were sent");
+        for (LatencyRecorder.EndpointStats endpoint : stats) {
+            boolean deniedEndpoint = DENIED_ENDPOINT.equals(endpoint.endpoint());
+            for (Integer status : endpoint.statuses().keySet()) {
+                boolean denied = status == 403 && deniedEndpoint;
+                if (!denied && !EXPECTED_STATUSES.contains(status)) {
+                    fail("Unexpected status " + status + " from " + endpoint.endpoint());
+                }
+            }
+            // Shedding is fine under overload, but an endpoint that never succeeds is not
+            int successStatus = deniedEndpoint ? 403 : 200;
+            assertTrue(endpoint.statuses().getOrDefault(successStatus, 0L) > 0,
+                    "No " + successStatus + " responses from " + endpoint.endpoint());
+            long shed = endpoint.statuses().getOrDefault(503, 0L);
+            assertTrue(shed <= endpoint.requests() * maxShedRatio,
+                    endpoint.endpoint() + " shed " + shed + " of " + endpoint.requests() + " requests");
+        }
+    }
+
+    // Users are written straight to the repository with one shared hash so seeding does not pay BCrypt per user
+    private List<SeededUser> seedUsers() {
+        String hash = passwordEncoder.encode(PASSWORD);
+        List<UserInfo> infos = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            UserInfo userInfo = new UserInfo();
+            userInfo.setUsername("load-user-" + i);
+            userInfo.setPassword(hash);
+            userInfo.setRole(i % 10 == 0 ? "ROLE_ADMIN" : "ROLE_USER");
+            infos.add(userInfo);
+        }
+        List<SeededUser> seeded = new ArrayList<>(users);
+        for (UserInfo saved : repository.saveAll(infos)) {
+            seeded.add(new SeededUser(saved.getUsername(), "ROLE_ADMIN".equals(saved.getRole()),
+                    jwtUtil.generateToken(new UserInfoDetails(saved))));
+        }
+        return seeded;
+    }
+
+    // Traffic mix: 5% registrations, 15% logins, 40% /auth/user, 25% /preauthorize/userOnly, 15% /preauthorize/adminOnly
+    private void nextRequest(SeededUser user) throws Exception {
+        int roll = ThreadLocalRandom.current().nextInt(100);
+        if (roll < 5) {
+            String body = objectMapper.writeValueAsString(Map.of(
+                    "username", "load-new-" + registrations.incrementAndGet(),
+                    "password", PASSWORD,
+                    "role", "ROLE_USER"));
+            send("POST /auth/addNewUser", post("/auth/addNewUser", body));
+        } else if (roll < 20) {
+            String body = objectMapper.writeValueAsString(Map.of("username", user.username(), "password", PASSWORD));
+            send("POST /auth/generateToken", post("/auth/generateToken", body));
+        } else if (roll < 60) {
+            send("GET /auth/user", get("/auth/user", user.token()));
+        } else if (roll < 85) {
+            send("GET /preauthorize/userOnly", get("/preauthorize/userOnly", user.token()));
+        } else if (user.admin()) {
+            send("GET /preauthorize/adminOnly", get("/preauthorize/adminOnly", user.token()));
+        } else {
+            // A USER calling the admin endpoint measures the method-security rejection path
+            send(DENIED_ENDPOINT, get("/preauthorize/adminOnly", user.token()));
+        }
+    }
+
+    private void send(String endpoint, HttpRequest request) throws Exception {
+        long begin = System.nanoTime();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        recorder.record(endpoint, response.statusCode(), System.nanoTime() - begin);
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private void report(List<LatencyRecorder.EndpointStats> stats) throws Exception {
+        System.out.printf("%nLoad test: %d users, %d threads, %d s%n", users, threads, durationSeconds);
+        System.out.printf("%-38s %8s %9s %9s %9s %9s %9s %9s  %s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms", "statuses");
+        for (LatencyRecorder.EndpointStats endpoint : stats) {
+            System.out.printf("%-38s %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                    endpoint.endpoint(), endpoint.requests(), endpoint.throughputPerSecond(),
+                    endpoint.p50Millis(), endpoint.p95Millis(), endpoint.p99Millis(), endpoint.p999Millis(),
+                    endpoint.maxMillis(), endpoint.statuses());
+        }
+        File result = new File(resultFile);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(result, stats);
+        System.out.println("Load test result is saved to " + result.getAbsolutePath());
+    }
+
+    private record SeededUser(String username, boolean admin, String token) {
+    }
+}
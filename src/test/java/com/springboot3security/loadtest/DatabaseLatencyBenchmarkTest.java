@@ -0,0 +1,225 @@
+package com.springboot3security.loadtest;
+
+import com.springboot3security.entity.UserInfo;
+import com.springboot3security.repository.UserInfoRepository;
+import com.springboot3security.service.UserInfoDetails;
+import com.springboot3security.util.JwtUtil;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Throughput while every statement takes benchmark.db-latency-millis longer, as with a slow Postgres. Half the
+// clients call /auth/user, which loads the user from the database on every request (user cache off), the other
+// half call /auth/welcome, which never touches it. On platform threads the DB-bound requests occupy Tomcat's
+// threads while they wait for a connection and the welcome requests queue behind them; on virtual threads
+// (VirtualThreadDatabaseLatencyBenchmarkTest) only the DB-bound requests wait, on the pool. Both runs use the
+// same connection pool, so DB-bound throughput is the same: pool size / latency.
+// Run with: mvn test -Pbenchmark (platform threads only) or, on Java 21, mvn test -Pbenchmark,java21 (both modes)
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:latency-benchmark;DB_CLOSE_DELAY=-1",
+        "users.cache.enabled=false",
+        "spring.datasource.hikari.maximum-pool-size=10",
+        "spring.datasource.hikari.minimum-idle=10",
+        "spring.datasource.hikari.connection-timeout=10000"
+})
+class DatabaseLatencyBenchmarkTest {
+
+    private static final int USERS = 100;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserInfoRepository repository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Value("${benchmark.db-latency-millis:20}")
+    private long latencyMillis;
+
+    @Value("${benchmark.clients:400}")
+    private int clients;
+
+    @Value("${benchmark.duration-seconds:15}")
+    private int durationSeconds;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    @Test
+    void throughputUnderDatabaseLatency() throws Exception {
+        List<String> tokens = seedUsers();
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            boolean databaseBound = i % 2 == 0;
+            workers.add(pool.submit(() -> {
+                start.await();
+                while (System.nanoTime() < deadline) {
+                    if (databaseBound) {
+                        send("GET /auth/user", get("/auth/user", tokens.get(ThreadLocalRandom.current().nextInt(tokens.size()))));
+                    } else {
+                        send("GET /auth/welcome", get("/auth/welcome", null));
+                    }
+                }
+                return null;
+            }));
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        try {
+            for (Future<?> worker : workers) {
+                worker.get(durationSeconds + 60L, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<LatencyRecorder.EndpointStats> stats = recorder.summarize(System.nanoTime() - started);
+        System.out.printf("%n%s: %d ms per statement, %d clients, %d s%n", mode(), latencyMillis, clients, durationSeconds);
+        System.out.printf("%-20s %8s %9s %9s %9s %9s  %s%n", "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "max ms", "statuses");
+        for (LatencyRecorder.EndpointStats endpoint : stats) {
+            System.out.printf("%-20s %8d %9.1f %9.2f %9.2f %9.2f  %s%n", endpoint.endpoint(), endpoint.requests(),
+                    endpoint.throughputPerSecond(), endpoint.p50Millis(), endpoint.p99Millis(), endpoint.maxMillis(),
+                    endpoint.statuses());
+        }
+        assertTrue(stats.stream().allMatch(endpoint -> endpoint.statuses().containsKey(200)), "No successful requests");
+    }
+
+    String mode() {
+        return "platform threads";
+    }
+
+    // Users are written straight to the repository; the password is never checked here
+    private List<String> seedUsers() {
+        List<UserInfo> infos = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            UserInfo userInfo = new UserInfo();
+            userInfo.setUsername("latency-user-" + i);
+            userInfo.setPassword("unused");
+            userInfo.setRole("ROLE_USER");
+            infos.add(userInfo);
+        }
+        List<String> tokens = new ArrayList<>(USERS);
+        for (UserInfo saved : repository.saveAll(infos)) {
+            tokens.add(jwtUtil.generateToken(new UserInfoDetails(saved)));
+        }
+        return tokens;
+    }
+
+    private void send(String endpoint, HttpRequest request) throws Exception {
+        long begin = System.nanoTime();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        recorder.record(endpoint, response.statusCode(), System.nanoTime() - begin);
+    }
+
+    private HttpRequest get(String path, String token) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET();
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return request.build();
+    }
+
+    // Wraps the pooled DataSource so every prepared statement sleeps before it runs, while holding its connection
+    @TestConfiguration
+    static class LatencyInjection {
+
+        @Bean
+        static BeanPostProcessor slowDatabase(@Value("${benchmark.db-latency-millis:20}") long latencyMillis) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof SlowDataSource)
+                            ? new SlowDataSource(dataSource, latencyMillis)
+                            : bean;
+                }
+            };
+        }
+    }
+
+    static class SlowDataSource extends DelegatingDataSource {
+
+        private final long latencyMillis;
+
+        SlowDataSource(DataSource target, long latencyMillis) {
+            super(target);
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return slow(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return slow(super.getConnection(username, password));
+        }
+
+        private Connection slow(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        return method.getName().equals("prepareStatement") ? slow((PreparedStatement) result) : result;
+                    });
+        }
+
+        private PreparedStatement slow(PreparedStatement statement) {
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("execute")) {
+                            Thread.sleep(latencyMillis);
+                        }
+                        return invoke(statement, method, args);
+                    });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.springboot3security.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Collects every response time per endpoint and turns them into throughput and percentile figures.
+// Raw samples are kept (not a histogram) so the reported percentiles are exact.
+class LatencyRecorder {
+
+    private final ConcurrentMap<String, Samples> samples = new ConcurrentHashMap<>();
+
+    void record(String endpoint, int status, long nanos) {
+        samples.computeIfAbsent(endpoint, key -> new Samples()).add(status, nanos);
+    }
+
+    List<EndpointStats> summarize(long elapsedNanos) {
+        List<EndpointStats> stats = new ArrayList<>();
+        samples.forEach((endpoint, recorded) -> stats.add(recorded.summarize(endpoint, elapsedNanos)));
+        stats.sort((a, b) -> a.endpoint().compareTo(b.endpoint()));
+        return stats;
+    }
+
+    record EndpointStats(String endpoint, int requests, double throughputPerSecond, Map<Integer, Long> statuses,
+                         double p50Millis, double p95Millis, double p99Millis, double p999Millis, double maxMillis) {
+    }
+
+    private static final class Samples {
+
+        private final List<Long> latencies = new ArrayList<>();
+        private final ConcurrentMap<Integer, AtomicLong> statuses = new ConcurrentHashMap<>();
+
+        void add(int status, long nanos) {
+            statuses.computeIfAbsent(status, key -> new AtomicLong()).incrementAndGet();
+            synchronized (latencies) {
+                latencies.add(nanos);
+            }
+        }
+
+        EndpointStats summarize(String endpoint, long elapsedNanos) {
+            long[] sorted;
+            synchronized (latencies) {
+                sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+            }
+            Arrays.sort(sorted);
+            Map<Integer, Long> statusCounts = new LinkedHashMap<>();
+            statuses.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(entry -> statusCounts.put(entry.getKey(), entry.getValue().get()));
+            double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+            return new EndpointStats(endpoint, sorted.length, sorted.length / seconds, statusCounts,
+                    percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+                    percentile(sorted, 0.999), sorted.length > 0 ? toMillis(sorted[sorted.length - 1]) : 0);
+        }
+
+        // Nearest-rank percentile
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(quantile * sorted.length);
+            return toMillis(sorted[Math.max(0, rank - 1)]);
+        }
+
+        private static double toMillis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
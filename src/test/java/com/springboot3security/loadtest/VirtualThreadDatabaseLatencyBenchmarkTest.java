@@ -0,0 +1,29 @@
+package com.springboot3security.loadtest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// DatabaseLatencyBenchmarkTest with the java21 profile's settings, so Tomcat and the filter chain run on virtual
+// threads; the connection pool stays as in the platform-thread run. Needs Java 21 and mvn -Pbenchmark,java21
+@EnabledForJreRange(min = JRE.JAVA_21)
+@ActiveProfiles("java21")
+class VirtualThreadDatabaseLatencyBenchmarkTest extends DatabaseLatencyBenchmarkTest {
+
+    // application-java21.properties is only on the classpath with -Pjava21
+    @BeforeEach
+    void requireVirtualThreads(@Autowired Environment environment) {
+        assumeTrue(environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false),
+                "Build with -Pjava21 to run on virtual threads");
+    }
+
+    @Override
+    String mode() {
+        return "virtual threads";
+    }
+}
@@ -0,0 +1,49 @@
+package com.springboot3security.repository;
+
+import com.springboot3security.entity.UserCredentials;
+import com.springboot3security.entity.UserInfo;
+import com.springboot3security.entity.UserSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class UserInfoRepositoryTest {
+
+    @Autowired
+    private UserInfoRepository repository;
+
+    private Long id;
+
+    @BeforeEach
+    void setUp() {
+        UserInfo userInfo = new UserInfo();
+        userInfo.setUsername("testUser");
+        userInfo.setPassword("encodedPassword");
+        userInfo.setRole("ROLE_USER");
+        userInfo.setTokenVersion(2);
+        id = repository.saveAndFlush(userInfo).getId();
+    }
+
+    @Test
+    void testFindCredentialsByUsername() {
+        Optional<UserCredentials> credentials = repository.findCredentialsByUsername("testUser");
+
+        assertEquals(Optional.of(new UserCredentials("testUser", "encodedPassword", "ROLE_USER", 2)), credentials);
+        assertTrue(repository.findCredentialsByUsername("missingUser").isEmpty());
+    }
+
+    @Test
+    void testFindSummaryByUsername() {
+        Optional<UserSummary> summary = repository.findSummaryByUsername("testUser");
+
+        assertEquals(Optional.of(new UserSummary(id, "testUser", "ROLE_USER")), summary);
+        assertFalse(summary.get().toString().contains("encodedPassword"));
+        assertTrue(repository.findSummaryByUsername("missingUser").isEmpty());
+    }
+}
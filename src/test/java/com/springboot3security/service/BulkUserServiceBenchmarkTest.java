@@ -0,0 +1,111 @@
+package com.springboot3security.service;
+
+import com.springboot3security.audit.AuditLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot3security.entity.BulkUserResult;
+import com.springboot3security.entity.UserInfo;
+import com.springboot3security.filter.VerifiedTokenCache;
+import com.springboot3security.metrics.AuthMetrics;
+import com.springboot3security.repository.UserInfoRepository;
+import com.springboot3security.util.JwtUtil;
+import com.springboot3security.util.PasswordPolicy;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Throughput of the bulk import against one addUser call per user, with real BCrypt and a simulated
+// 1 ms database round trip. Run with: mvn test -Pbenchmark
+@Tag("benchmark")
+class BulkUserServiceBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkUserServiceBenchmarkTest.class);
+    private static final int USERS = 128;
+    private static final long ROUND_TRIP_MILLIS = 1;
+
+    private final PasswordEncoder encoder = new BCryptPasswordEncoder();
+
+    @Test
+    void compareBulkImportWithOneByOne() throws Exception {
+        double oneByOne = usersPerSecond(this::oneByOne);
+        double bulk = usersPerSecond(this::bulk);
+
+        logger.info("one-by-one addUser: {} users/s", String.format("%.1f", oneByOne));
+        logger.info("bulk import:        {} users/s ({}x)", String.format("%.1f", bulk), String.format("%.1f", bulk / oneByOne));
+        assertTrue(bulk > 0 && oneByOne > 0);
+    }
+
+    private void oneByOne() {
+        UserInfoRepository repository = mock(UserInfoRepository.class);
+        when(repository.saveAndFlush(any())).thenAnswer(roundTrip(null));
+        UserInfoService userInfoService = new UserInfoService(repository, encoder, mock(JwtUtil.class),
+                mock(CachedUserDetailsService.class), mock(TokenVersionRegistry.class), mock(VerifiedTokenCache.class),
+                mock(AuthMetrics.class), PasswordPolicy.defaults(), mock(RefreshTokenService.class), mock(TokenRevocationService.class),
+                mock(AuditLog.class));
+
+        for (int i = 0; i < USERS; i++) {
+            UserInfo userInfo = new UserInfo();
+            userInfo.setUsername("user" + i);
+            userInfo.setPassword("ValidPassword1");
+            userInfo.setRole("ROLE_USER");
+            userInfoService.addUser(userInfo);
+        }
+    }
+
+    private void bulk() throws Exception {
+        UserInfoRepository repository = mock(UserInfoRepository.class);
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        when(repository.findExistingUsernames(anyCollection())).thenAnswer(roundTrip(List.of()));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(roundTrip(new int[0][]));
+        BulkUserService bulkUserService = new BulkUserService(repository, jdbcTemplate, transactionManager, encoder,
+                PasswordPolicy.defaults(), new ObjectMapper(), 500, 0);
+
+        String body = IntStream.range(0, USERS)
+                .mapToObj(i -> "{\"username\":\"user" + i + "\",\"password\":\"ValidPassword1\",\"role\":\"ROLE_USER\"}")
+                .collect(Collectors.joining("\n"));
+        try {
+            List<BulkUserResult> results = bulkUserService.addUsers(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+            assertTrue(results.stream().allMatch(r -> r.status() == BulkUserResult.Status.CREATED));
+        } finally {
+            bulkUserService.shutdown();
+        }
+    }
+
+    private static <T> Answer<T> roundTrip(T result) {
+        return invocation -> {
+            Thread.sleep(ROUND_TRIP_MILLIS);
+            return result;
+        };
+    }
+
+    private static double usersPerSecond(ThrowingRunnable run) throws Exception {
+        run.run(); // warm-up
+        long start = System.nanoTime();
+        run.run();
+        return USERS / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
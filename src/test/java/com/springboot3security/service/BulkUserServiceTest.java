@@ -0,0 +1,145 @@
+package com.springboot3security.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot3security.entity.BulkUserResult;
+import com.springboot3security.metrics.AuthMetrics;
+import com.springboot3security.repository.UserInfoRepository;
+import com.springboot3security.util.BoundedPasswordEncoder;
+import com.springboot3security.util.PasswordPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BulkUserServiceTest {
+
+    private static final String INSERT_USER = "insert into users (username, password, role) values (?, ?, ?)";
+
+    @Mock
+    private UserInfoRepository repository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private PasswordEncoder encoder;
+
+    private BulkUserService bulkUserService;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        when(encoder.encode(anyString())).thenAnswer(invocation -> "encoded-" + invocation.getArgument(0));
+        bulkUserService = new BulkUserService(repository, jdbcTemplate, transactionManager, encoder, PasswordPolicy.defaults(), new ObjectMapper(), 2, 2);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        bulkUserService.shutdown();
+        closeable.close();
+    }
+
+    @Test
+    void testAddUsers_JsonArrayInsertedInBatches() throws Exception {
+        String body = "[" + user("alice") + "," + user("bob") + "," + user("carol") + "]";
+
+        List<BulkUserResult> results = bulkUserService.addUsers(stream(body));
+
+        assertEquals(3, results.size());
+        assertTrue(results.stream().allMatch(r -> r.status() == BulkUserResult.Status.CREATED));
+        assertEquals(List.of(0, 1, 2), results.stream().map(BulkUserResult::row).toList());
+        verify(repository, times(2)).findExistingUsernames(anyCollection());
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(INSERT_USER), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void testAddUsers_NdjsonReportsPerRowOutcome() throws Exception {
+        when(repository.findExistingUsernames(anyCollection())).thenReturn(List.of("existing"));
+        String body = user("alice") + "\n"
+                + "{\"username\":\"weak\",\"password\":\"weak\",\"role\":\"ROLE_USER\"}\n"
+                + user("alice") + "\n"
+                + user("existing") + "\n";
+
+        List<BulkUserResult> results = bulkUserService.addUsers(stream(body));
+
+        assertEquals(BulkUserResult.Status.CREATED, results.get(0).status());
+        assertEquals(BulkUserResult.Status.INVALID, results.get(1).status());
+        assertEquals(BulkUserResult.Status.DUPLICATE, results.get(2).status());
+        assertEquals("Duplicate username in request", results.get(2).message());
+        assertEquals(BulkUserResult.Status.DUPLICATE, results.get(3).status());
+        assertEquals("User already exists", results.get(3).message());
+        verify(encoder, times(1)).encode(anyString());
+    }
+
+    @Test
+    void testAddUsers_FailedBatchFallsBackToRowByRow() throws Exception {
+        when(jdbcTemplate.batchUpdate(eq(INSERT_USER), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DuplicateKeyException("duplicate"));
+        when(jdbcTemplate.update(eq(INSERT_USER), eq("bob"), any(), any())).thenThrow(new DuplicateKeyException("duplicate"));
+        String body = "[" + user("alice") + "," + user("bob") + "]";
+
+        List<BulkUserResult> results = bulkUserService.addUsers(stream(body));
+
+        assertEquals(BulkUserResult.Status.CREATED, results.get(0).status());
+        assertEquals(BulkUserResult.Status.DUPLICATE, results.get(1).status());
+    }
+
+    // The bulk pool hashes with the login pool's delegate, so a saturated login pool neither fails the import nor
+    // gets more queued work from it
+    @Test
+    void testAddUsers_BypassesTheBoundedLoginPool() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(encoder.matches(anyString(), anyString())).thenAnswer(invocation -> release.await(5, TimeUnit.SECONDS));
+        BoundedPasswordEncoder loginPool = new BoundedPasswordEncoder(encoder, 1, 1, 5000, 1, new AuthMetrics(new SimpleMeterRegistry()));
+        BulkUserService bulk = new BulkUserService(repository, jdbcTemplate, transactionManager, loginPool,
+                PasswordPolicy.defaults(), new ObjectMapper(), 2, 2);
+        try {
+            // One login hashing and one queued: the login pool has no room left
+            loginPool.matchesAsync("password", "hash");
+            loginPool.matchesAsync("password", "hash");
+
+            List<BulkUserResult> results = bulk.addUsers(stream("[" + user("alice") + "," + user("bob") + "," + user("carol") + "]"));
+
+            assertTrue(results.stream().allMatch(r -> r.status() == BulkUserResult.Status.CREATED));
+            verify(encoder, times(3)).encode(anyString());
+            assertEquals(0, loginPool.getRejectedCount());
+            assertEquals(1, loginPool.getQueueDepth());
+        } finally {
+            release.countDown();
+            bulk.shutdown();
+            loginPool.shutdown();
+        }
+    }
+
+    private static String user(String username) {
+        return "{\"username\":\"" + username + "\",\"password\":\"ValidPassword1\",\"role\":\"ROLE_USER\"}";
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
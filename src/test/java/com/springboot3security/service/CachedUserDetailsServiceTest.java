@@ -0,0 +1,163 @@
+package com.springboot3security.service;
+
+import com.springboot3security.metrics.AuthMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CachedUserDetailsServiceTest {
+
+    @Mock
+    private UserDetailsService delegate;
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private CachedUserDetailsService userDetailsService;
+
+    private AutoCloseable closeable;
+
+    private final UserDetails first = new User("testUser", "first", List.of());
+    private final UserDetails second = new User("testUser", "second", List.of());
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        userDetailsService = new CachedUserDetailsService(delegate, true, 100, 300, 60, new AuthMetrics(registry), nanos::get, Runnable::run);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void testRepeatedLookupsHitCache() {
+        when(delegate.loadUserByUsername("testUser")).thenReturn(first);
+
+        for (int i = 0; i < 10; i++) {
+            assertSame(first, userDetailsService.loadUserByUsername("testUser"));
+        }
+
+        verify(delegate, times(1)).loadUserByUsername("testUser");
+        assertEquals(0.9, userDetailsService.stats().hitRate(), 0.001);
+        assertEquals(9, registry.get("cache.gets").tag("cache", "users").tag("result", "hit").functionCounter().count());
+        assertEquals(1, registry.get("cache.gets").tag("cache", "users").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void testMissingUserIsNotCached() {
+        when(delegate.loadUserByUsername("ghost")).thenThrow(new UsernameNotFoundException("User not found: ghost"));
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("ghost"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("ghost"));
+
+        verify(delegate, times(2)).loadUserByUsername("ghost");
+        // Password logins share this service; a missing user is only a token failure where the filter counts it
+        assertEquals(0, registry.get("auth.token.failures").tag("reason", "user_missing").counter().count());
+        assertEquals(2, registry.get("auth.user.lookup").timer().count());
+    }
+
+    @Test
+    void testStaleEntryIsServedWhileRefreshing() {
+        List<Runnable> pendingRefreshes = new ArrayList<>();
+        userDetailsService = new CachedUserDetailsService(delegate, true, 100, 300, 60, new AuthMetrics(registry), nanos::get, pendingRefreshes::add);
+        when(delegate.loadUserByUsername("testUser")).thenReturn(first, second);
+        userDetailsService.loadUserByUsername("testUser");
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(61));
+
+        assertSame(first, userDetailsService.loadUserByUsername("testUser"));
+        new ArrayList<>(pendingRefreshes).forEach(Runnable::run);
+        assertSame(second, userDetailsService.loadUserByUsername("testUser"));
+    }
+
+    @Test
+    void testRefreshDropsDeletedUser() {
+        when(delegate.loadUserByUsername("testUser"))
+                .thenReturn(first)
+                .thenThrow(new UsernameNotFoundException("User not found: testUser"));
+        userDetailsService.loadUserByUsername("testUser");
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        userDetailsService.loadUserByUsername("testUser");
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("testUser"));
+    }
+
+    @Test
+    void testEntryExpiresAfterTtl() {
+        when(delegate.loadUserByUsername("testUser")).thenReturn(first, second);
+        userDetailsService.loadUserByUsername("testUser");
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(301));
+
+        assertSame(second, userDetailsService.loadUserByUsername("testUser"));
+    }
+
+    @Test
+    void testEvictForcesReload() {
+        when(delegate.loadUserByUsername("testUser")).thenReturn(first, second);
+        userDetailsService.loadUserByUsername("testUser");
+
+        userDetailsService.evict("testUser");
+
+        assertSame(second, userDetailsService.loadUserByUsername("testUser"));
+    }
+
+    @Test
+    void testLoadsRunOnExecutorWhenConfigured() {
+        ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "loader"));
+        try {
+            userDetailsService = new CachedUserDetailsService(delegate, true, 100, 300, 60, new AuthMetrics(registry), loader);
+            AtomicReference<String> loadedOn = new AtomicReference<>();
+            when(delegate.loadUserByUsername("testUser")).thenAnswer(invocation -> {
+                loadedOn.set(Thread.currentThread().getName());
+                return first;
+            });
+            when(delegate.loadUserByUsername("ghost")).thenThrow(new UsernameNotFoundException("User not found: ghost"));
+
+            assertSame(first, userDetailsService.loadUserByUsername("testUser"));
+            assertSame(first, userDetailsService.loadUserByUsername("testUser"));
+            assertEquals("loader", loadedOn.get());
+            verify(delegate, times(1)).loadUserByUsername("testUser");
+
+            // The failed load is unwrapped for the caller and, as on the caller's thread, not cached
+            assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("ghost"));
+            assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("ghost"));
+            verify(delegate, times(2)).loadUserByUsername("ghost");
+        } finally {
+            loader.shutdownNow();
+        }
+    }
+
+    @Test
+    void testDisabledCacheDelegatesEveryTime() {
+        userDetailsService = new CachedUserDetailsService(delegate, false, 100, 300, 60, new AuthMetrics(registry));
+        when(delegate.loadUserByUsername("testUser")).thenReturn(first);
+
+        userDetailsService.loadUserByUsername("testUser");
+        userDetailsService.loadUserByUsername("testUser");
+
+        verify(delegate, times(2)).loadUserByUsername("testUser");
+    }
+}
@@ -0,0 +1,132 @@
+package com.springboot3security.service;
+
+import com.springboot3security.util.LoginThrottledException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginAttemptThrottleTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private LoginAttemptThrottle throttle(int maxUsernameFailures, int maxIpFailures) {
+        return new LoginAttemptThrottle(true, 60, maxUsernameFailures, maxIpFailures, 1000, nanos::get, Runnable::run);
+    }
+
+    private void advanceSeconds(long seconds) {
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    @Test
+    void testUsernameBlockedAfterMaxFailures() {
+        LoginAttemptThrottle throttle = throttle(3, 100);
+
+        for (int i = 0; i < 3; i++) {
+            throttle.checkAllowed("testUser", "10.0.0.1");
+            throttle.recordFailure("testUser", "10.0.0.1");
+        }
+
+        LoginThrottledException e = assertThrows(LoginThrottledException.class,
+                () -> throttle.checkAllowed("testUser", "10.0.0.2"));
+        assertEquals(6, e.getRetryAfterSeconds());
+        assertDoesNotThrow(() -> throttle.checkAllowed("otherUser", "10.0.0.1"));
+    }
+
+    @Test
+    void testIpBlockedAcrossUsernames() {
+        LoginAttemptThrottle throttle = throttle(100, 5);
+
+        for (int i = 0; i < 5; i++) {
+            throttle.recordFailure("user" + i, "10.0.0.1");
+        }
+
+        assertThrows(LoginThrottledException.class, () -> throttle.checkAllowed("freshUser", "10.0.0.1"));
+        assertDoesNotThrow(() -> throttle.checkAllowed("freshUser", "10.0.0.2"));
+    }
+
+    @Test
+    void testFailuresSlideOutOfWindow() {
+        LoginAttemptThrottle throttle = throttle(3, 100);
+
+        throttle.recordFailure("testUser", null);
+        advanceSeconds(30);
+        throttle.recordFailure("testUser", null);
+        throttle.recordFailure("testUser", null);
+        assertThrows(LoginThrottledException.class, () -> throttle.checkAllowed("testUser", null));
+
+        // The first failure is now older than the 60 second window
+        advanceSeconds(31);
+        assertEquals(2, throttle.getUsernameFailures("testUser"));
+        assertDoesNotThrow(() -> throttle.checkAllowed("testUser", null));
+
+        advanceSeconds(60);
+        assertEquals(0, throttle.getUsernameFailures("testUser"));
+    }
+
+    @Test
+    void testSuccessClearsUsernameButNotIp() {
+        LoginAttemptThrottle throttle = throttle(3, 3);
+        for (int i = 0; i < 3; i++) {
+            throttle.recordFailure("testUser", "10.0.0.1");
+        }
+
+        throttle.recordSuccess("testUser");
+
+        assertEquals(0, throttle.getUsernameFailures("testUser"));
+        assertEquals(3, throttle.getIpFailures("10.0.0.1"));
+    }
+
+    @Test
+    void testDisabledNeverThrottles() {
+        LoginAttemptThrottle throttle = new LoginAttemptThrottle(false, 0, 0, 0, 0);
+
+        throttle.recordFailure("testUser", "10.0.0.1");
+
+        assertDoesNotThrow(() -> throttle.checkAllowed("testUser", "10.0.0.1"));
+        assertEquals(0, throttle.getUsernameFailures("testUser"));
+    }
+
+    @Test
+    void testCountersStayExactUnderContention() throws Exception {
+        int threads = 8;
+        int failuresPerThread = 5000;
+        String[] usernames = {"alice", "bob", "carol", "dave"};
+        LoginAttemptThrottle throttle = new LoginAttemptThrottle(true, 300, Integer.MAX_VALUE, Integer.MAX_VALUE, 1000);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < failuresPerThread; i++) {
+                        throttle.recordFailure(usernames[(thread + i) % usernames.length], "10.0.0.1");
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long total = (long) threads * failuresPerThread;
+        assertEquals(total, throttle.getIpFailures("10.0.0.1"));
+        for (String username : usernames) {
+            assertEquals(total / usernames.length, throttle.getUsernameFailures(username));
+        }
+    }
+}
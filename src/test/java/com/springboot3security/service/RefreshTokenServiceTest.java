@@ -0,0 +1,235 @@
+package com.springboot3security.service;
+
+import com.springboot3security.entity.RefreshToken;
+import com.springboot3security.entity.TokenPair;
+import com.springboot3security.entity.UserInfo;
+import com.springboot3security.metrics.AuthMetrics;
+import com.springboot3security.repository.RefreshTokenRepository;
+import com.springboot3security.util.InvalidRefreshTokenException;
+import com.springboot3security.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Runs against the real table and indexes; no test transaction, so the conditional updates commit as they would in production
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenServiceTest {
+
+    private static final Duration TTL = Duration.ofDays(14);
+
+    @Autowired
+    private RefreshTokenRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final CachedUserDetailsService userDetailsService = mock(CachedUserDetailsService.class);
+    private final JwtUtil jwtUtil = mock(JwtUtil.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Clock clock = mock(Clock.class);
+    private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+    private RefreshTokenService refreshTokens;
+    private UserDetails user;
+
+    @BeforeEach
+    void setUp() {
+        when(clock.instant()).thenAnswer(invocation -> now);
+        when(jwtUtil.getAccessTokenTtl()).thenReturn(Duration.ofMinutes(15));
+        when(jwtUtil.generateToken(any())).thenReturn("accessToken");
+        UserInfo userInfo = new UserInfo();
+        userInfo.setUsername("testUser");
+        userInfo.setPassword("encodedPassword");
+        userInfo.setRole("ROLE_USER");
+        user = new UserInfoDetails(userInfo);
+        when(userDetailsService.loadUserByUsername("testUser")).thenReturn(user);
+        refreshTokens = new RefreshTokenService(repository, userDetailsService, jwtUtil, new AuthMetrics(registry),
+                new TransactionTemplate(transactionManager), TTL, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void testIssueStoresOnlyTheHash() {
+        TokenPair pair = refreshTokens.issue(user);
+
+        assertEquals("accessToken", pair.accessToken());
+        assertEquals(900, pair.expiresIn());
+        RefreshToken stored = repository.findByTokenHash(RefreshTokenService.hash(pair.refreshToken())).orElseThrow();
+        assertNotEquals(pair.refreshToken(), stored.getTokenHash());
+        assertEquals("testUser", stored.getUsername());
+        assertEquals(now.plus(TTL), stored.getExpiresAt());
+    }
+
+    @Test
+    void testRefreshRotatesWithoutCheckingThePassword() {
+        TokenPair first = refreshTokens.issue(user);
+
+        TokenPair second = refreshTokens.refresh(first.refreshToken());
+
+        assertNotEquals(first.refreshToken(), second.refreshToken());
+        RefreshToken old = repository.findByTokenHash(RefreshTokenService.hash(first.refreshToken())).orElseThrow();
+        RefreshToken rotated = repository.findByTokenHash(RefreshTokenService.hash(second.refreshToken())).orElseThrow();
+        assertEquals(now, old.getUsedAt());
+        assertEquals(old.getFamilyId(), rotated.getFamilyId());
+        assertNull(rotated.getUsedAt());
+        assertEquals(1, registry.get("auth.refresh").tag("outcome", "rotated").counter().count());
+    }
+
+    @Test
+    void testReuseRevokesTheWholeFamily() {
+        TokenPair first = refreshTokens.issue(user);
+        TokenPair second = refreshTokens.refresh(first.refreshToken());
+        TokenPair otherLogin = refreshTokens.issue(user);
+
+        // Replaying the first token looks like theft: the legitimate successor stops working too
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokens.refresh(first.refreshToken()));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokens.refresh(second.refreshToken()));
+        assertNotNull(refreshTokens.refresh(otherLogin.refreshToken()));
+        assertEquals(1, registry.get("auth.refresh").tag("outcome", "reused").counter().count());
+        assertEquals(1, registry.get("auth.refresh").tag("outcome", "revoked").counter().count());
+    }
+
+    @Test
+    void testConcurrentExchangesOfOneTokenSucceedOnce() throws Exception {
+        String token = refreshTokens.issue(user).refreshToken();
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        int succeeded = 0;
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                Callable<Boolean> exchange = () -> {
+                    start.await();
+                    try {
+                        refreshTokens.refresh(token);
+                        return true;
+                    } catch (InvalidRefreshTokenException e) {
+                        return false;
+                    }
+                };
+                futures.add(pool.submit(exchange));
+            }
+            start.countDown();
+            for (Future<Boolean> future : futures) {
+                succeeded += future.get(30, TimeUnit.SECONDS) ? 1 : 0;
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, succeeded);
+    }
+
+    // The loser of the race must revoke the child the winner is about to store, not just the tokens it can see
+    @Test
+    void testRacingExchangeRevokesTheWinnersChild() throws Exception {
+        String token = refreshTokens.issue(user).refreshToken();
+        CountDownLatch winnerLoading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userDetailsService.loadUserByUsername("testUser")).thenAnswer(invocation -> {
+            if (winnerLoading.getCount() > 0) {
+                winnerLoading.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            }
+            return user;
+        });
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<TokenPair> winner = pool.submit(() -> refreshTokens.refresh(token));
+            assertTrue(winnerLoading.await(10, TimeUnit.SECONDS));
+            Future<TokenPair> loser = pool.submit(() -> refreshTokens.refresh(token));
+            // The loser waits on the winner's row lock; without it the loser finishes first
+            try {
+                loser.get(200, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | ExecutionException ignored) {
+                // either way, let the winner store its child now
+            }
+            release.countDown();
+
+            TokenPair child = winner.get(10, TimeUnit.SECONDS);
+            Exception rejected = assertThrows(Exception.class, () -> loser.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(InvalidRefreshTokenException.class, rejected.getCause());
+            assertThrows(InvalidRefreshTokenException.class, () -> refreshTokens.refresh(child.refreshToken()));
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFailureWhileIssuingDoesNotBurnTheToken() {
+        TokenPair pair = refreshTokens.issue(user);
+        when(jwtUtil.generateToken(any())).thenThrow(new IllegalStateException("signing key unavailable"))
+                .thenReturn("accessToken");
+
+        assertThrows(IllegalStateException.class, () -> refreshTokens.refresh(pair.refreshToken()));
+
+        assertNotNull(refreshTokens.refresh(pair.refreshToken()));
+    }
+
+    @Test
+    void testExpiredAndUnknownTokensAreRejected() {
+        TokenPair pair = refreshTokens.issue(user);
+        now = now.plus(TTL);
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokens.refresh(pair.refreshToken()));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokens.refresh("unknown"));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokens.refresh(null));
+        assertEquals(1, registry.get("auth.refresh").tag("outcome", "expired").counter().count());
+        assertEquals(2, registry.get("auth.refresh").tag("outcome", "unknown").counter().count());
+    }
+
+    @Test
+    void testRevokeAllAndDeletedUser() {
+        TokenPair revoked = refreshTokens.issue(user);
+        assertEquals(1, refreshTokens.revokeAll("testUser"));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokens.refresh(revoked.refreshToken()));
+
+        TokenPair orphaned = refreshTokens.issue(user);
+        when(userDetailsService.loadUserByUsername("testUser")).thenThrow(new UsernameNotFoundException("User not found"));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokens.refresh(orphaned.refreshToken()));
+    }
+
+    @Test
+    void testPurgeDeletesOnlyExpiredTokens() {
+        refreshTokens.issue(user);
+        now = now.plus(Duration.ofDays(7));
+        refreshTokens.issue(user);
+        now = now.plus(Duration.ofDays(8));
+
+        refreshTokens.purgeExpired();
+
+        assertEquals(1, repository.count());
+    }
+}
@@ -0,0 +1,148 @@
+package com.springboot3security.service;
+
+import com.springboot3security.entity.RevokedToken;
+import com.springboot3security.filter.VerifiedTokenCache;
+import com.springboot3security.repository.RevokedTokenRepository;
+import com.springboot3security.util.Role;
+import com.springboot3security.util.RoleSet;
+import com.springboot3security.util.TokenValidationResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Runs against the real table and unique index; no test transaction, so rows written "by another node" are visible to sync
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TokenRevocationServiceTest {
+
+    @Autowired
+    private RevokedTokenRepository repository;
+
+    private final VerifiedTokenCache tokenCache = mock(VerifiedTokenCache.class);
+    private final Clock clock = mock(Clock.class);
+    private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+    private TokenRevocationService revocations;
+
+    @BeforeEach
+    void setUp() {
+        when(clock.instant()).thenAnswer(invocation -> now);
+        revocations = new TokenRevocationService(repository, tokenCache, 1000, 0.001, clock);
+        revocations.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void testRevokeRejectsTheTokenOnce() {
+        TokenValidationResult token = token("jti-1", Duration.ofMinutes(15));
+
+        assertFalse(revocations.isRevoked("jti-1"));
+        assertTrue(revocations.revoke(token));
+        assertFalse(revocations.revoke(token));
+
+        assertTrue(revocations.isRevoked("jti-1"));
+        assertFalse(revocations.isRevoked("jti-2"));
+        assertFalse(revocations.isRevoked(null));
+        verify(tokenCache, times(1)).invalidateAll();
+    }
+
+    @Test
+    void testExpiredTokensAndTokensWithoutIdAreNotStored() {
+        assertFalse(revocations.revoke(token("jti-1", Duration.ZERO)));
+        assertFalse(revocations.revoke(token(null, Duration.ofMinutes(15))));
+
+        assertEquals(0, repository.count());
+    }
+
+    @Test
+    void testSyncPicksUpOtherNodesRevocations() {
+        TokenRevocationService otherNode = new TokenRevocationService(repository, mock(VerifiedTokenCache.class), 1000, 0.001, clock);
+        otherNode.init();
+        otherNode.revoke(token("jti-1", Duration.ofMinutes(15)));
+
+        assertFalse(revocations.isRevoked("jti-1"));
+        revocations.sync();
+
+        assertTrue(revocations.isRevoked("jti-1"));
+        verify(tokenCache, times(1)).invalidateAll();
+        // Nothing new on the next run
+        revocations.sync();
+        verify(tokenCache, times(1)).invalidateAll();
+    }
+
+    @Test
+    void testSyncReadsPastOneBatch() {
+        List<RevokedToken> rows = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            RevokedToken row = new RevokedToken();
+            row.setJti("jti-" + i);
+            row.setUsername("testUser");
+            row.setExpiresAt(now.plus(Duration.ofMinutes(15)));
+            row.setRevokedAt(now);
+            rows.add(row);
+        }
+        repository.saveAll(rows);
+
+        revocations.sync();
+
+        assertTrue(revocations.isRevoked("jti-0"));
+        assertTrue(revocations.isRevoked("jti-2499"));
+    }
+
+    @Test
+    void testPruneForgetsExpiredRevocations() {
+        revocations.revoke(token("short", Duration.ofMinutes(5)));
+        revocations.revoke(token("long", Duration.ofMinutes(15)));
+        now = now.plus(Duration.ofMinutes(10));
+
+        revocations.prune();
+
+        assertEquals(1, repository.count());
+        assertTrue(revocations.isRevoked("long"));
+        assertFalse(revocations.isRevoked("short"));
+    }
+
+    // The revocation commits after the rebuild read the table but before it swapped the filters
+    @Test
+    void testRevokeDuringRebuildIsNotLost() throws Exception {
+        RevokedTokenRepository rows = mock(RevokedTokenRepository.class);
+        TokenRevocationService node = new TokenRevocationService(rows, tokenCache, 1000, 0.001, clock);
+        Thread revoker = new Thread(() -> node.revoke(token("jti-1", Duration.ofMinutes(15))));
+        when(rows.findActiveAfter(anyLong(), any(), any())).thenAnswer(invocation -> {
+            revoker.start();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (revoker.getState() != Thread.State.WAITING && revoker.getState() != Thread.State.TERMINATED
+                    && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            return List.of();
+        });
+
+        node.rebuild();
+        revoker.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertTrue(node.mightBeRevoked("jti-1"));
+    }
+
+    private TokenValidationResult token(String tokenId, Duration remaining) {
+        return new TokenValidationResult(TokenValidationResult.Status.VALID, "testUser", RoleSet.of(Role.USER), 0,
+                now.minus(Duration.ofMinutes(1)), now.plus(remaining), tokenId);
+    }
+}
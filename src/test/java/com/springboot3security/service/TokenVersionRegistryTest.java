@@ -0,0 +1,90 @@
+package com.springboot3security.service;
+
+import com.springboot3security.repository.UserInfoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TokenVersionRegistryTest {
+
+    @Mock
+    private UserInfoRepository repository;
+
+    private TokenVersionRegistry tokenVersions;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        tokenVersions = new TokenVersionRegistry(repository, 60, 1000);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void testVersionIsLoadedOncePerUser() {
+        when(repository.findTokenVersionByUsername("testUser")).thenReturn(Optional.of(2));
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(tokenVersions.isCurrent("testUser", 2));
+        }
+        assertFalse(tokenVersions.isCurrent("testUser", 1));
+        verify(repository, times(1)).findTokenVersionByUsername("testUser");
+    }
+
+    @Test
+    void testMissingClaimCountsAsVersionZero() {
+        when(repository.findTokenVersionByUsername("testUser")).thenReturn(Optional.of(0));
+
+        assertTrue(tokenVersions.isCurrent("testUser", null));
+    }
+
+    @Test
+    void testUnknownUserIsNeverCurrent() {
+        when(repository.findTokenVersionByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertFalse(tokenVersions.isCurrent("ghost", 0));
+    }
+
+    @Test
+    void testVersionIsLoadedOnExecutorWhenConfigured() {
+        ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "loader"));
+        try {
+            tokenVersions = new TokenVersionRegistry(repository, 60, 1000, loader);
+            when(repository.findTokenVersionByUsername("testUser")).thenAnswer(invocation -> {
+                assertEquals("loader", Thread.currentThread().getName());
+                return Optional.of(1);
+            });
+
+            assertTrue(tokenVersions.isCurrent("testUser", 1));
+            assertFalse(tokenVersions.isCurrent("testUser", 0));
+            verify(repository, times(1)).findTokenVersionByUsername("testUser");
+        } finally {
+            loader.shutdownNow();
+        }
+    }
+
+    @Test
+    void testEvictReloadsVersion() {
+        when(repository.findTokenVersionByUsername("testUser")).thenReturn(Optional.of(0), Optional.of(1));
+        assertTrue(tokenVersions.isCurrent("testUser", 0));
+
+        tokenVersions.evict("testUser");
+
+        assertFalse(tokenVersions.isCurrent("testUser", 0));
+        assertTrue(tokenVersions.isCurrent("testUser", 1));
+    }
+}
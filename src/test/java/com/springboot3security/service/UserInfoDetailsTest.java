@@ -1,6 +1,9 @@
 package com.springboot3security.service;
 
+import com.springboot3security.entity.UserCredentials;
 import com.springboot3security.entity.UserInfo;
+import com.springboot3security.util.Role;
+import com.springboot3security.util.RoleSet;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.core.GrantedAuthority;
 
@@ -47,4 +50,23 @@ class UserInfoDetailsTest {
         Collection<? extends GrantedAuthority> authorities = userInfoDetails.getAuthorities();
         assertTrue(authorities.isEmpty());
     }
+
+    @Test
+    void testUserInfoDetails_FromCredentialsProjection() {
+        UserInfoDetails userInfoDetails = new UserInfoDetails(new UserCredentials("testUser", "password", "ROLE_TEST", 3));
+
+        assertEquals("testUser", userInfoDetails.getUsername());
+        assertEquals("password", userInfoDetails.getPassword());
+        assertEquals(3, userInfoDetails.getTokenVersion());
+        assertEquals("ROLE_TEST", userInfoDetails.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void testUsersWithTheSameRoleShareOneAuthorityList() {
+        UserInfoDetails first = new UserInfoDetails(new UserCredentials("first", "password", "ROLE_ADMIN", 0));
+        UserInfoDetails second = new UserInfoDetails(new UserCredentials("second", "password", "ROLE_ADMIN", 0));
+
+        assertSame(RoleSet.of(Role.ADMIN), first.getAuthorities());
+        assertSame(first.getAuthorities(), second.getAuthorities());
+    }
 }
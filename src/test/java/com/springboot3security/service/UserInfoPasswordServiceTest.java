@@ -0,0 +1,68 @@
+package com.springboot3security.service;
+
+import com.springboot3security.entity.UserInfo;
+import com.springboot3security.repository.UserInfoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserInfoPasswordServiceTest {
+
+    @Mock
+    private UserInfoRepository repository;
+
+    @Mock
+    private CachedUserDetailsService userDetailsService;
+
+    private UserInfoPasswordService passwordService;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        passwordService = new UserInfoPasswordService(repository, userDetailsService);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void testUpdatePassword_WritesNewHashAndEvicts() {
+        UserInfoDetails details = new UserInfoDetails(userInfo());
+        when(repository.updatePassword("testUser", "{bcrypt}new")).thenReturn(1);
+
+        UserDetails updated = passwordService.updatePassword(details, "{bcrypt}new");
+
+        assertEquals("{bcrypt}new", updated.getPassword());
+        assertEquals(3, ((UserInfoDetails) updated).getTokenVersion());
+        assertEquals(details.getAuthorities(), updated.getAuthorities());
+        verify(userDetailsService, times(1)).evict("testUser");
+    }
+
+    @Test
+    void testUpdatePassword_UserMissing() {
+        UserInfoDetails details = new UserInfoDetails(userInfo());
+        when(repository.updatePassword("testUser", "{bcrypt}new")).thenReturn(0);
+
+        assertSame(details, passwordService.updatePassword(details, "{bcrypt}new"));
+        verify(userDetailsService, never()).evict(any());
+    }
+
+    private static UserInfo userInfo() {
+        UserInfo userInfo = new UserInfo();
+        userInfo.setUsername("testUser");
+        userInfo.setPassword("$2a$10$legacy");
+        userInfo.setRole("ROLE_USER");
+        userInfo.setTokenVersion(3);
+        return userInfo;
+    }
+}
@@ -0,0 +1,113 @@
+package com.springboot3security.service;
+
+import com.springboot3security.audit.AuditLog;
+import com.springboot3security.entity.UserInfo;
+import com.springboot3security.filter.VerifiedTokenCache;
+import com.springboot3security.metrics.AuthMetrics;
+import com.springboot3security.repository.UserInfoRepository;
+import com.springboot3security.util.JwtUtil;
+import com.springboot3security.util.PasswordPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Registrations race against the real unique index on an embedded database; no test transaction,
+// so every thread commits on its own connection exactly as concurrent requests would
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserInfoServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private UserInfoRepository repository;
+
+    @Test
+    void testConcurrentRegistrationsCreateOneUser() throws Exception {
+        UserInfoService userInfoService = userInfoService(new SimpleMeterRegistry());
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<String> results = new ArrayList<>();
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                Callable<String> register = () -> {
+                    UserInfo userInfo = new UserInfo();
+                    userInfo.setUsername("raceUser");
+                    userInfo.setPassword("ValidPassword1");
+                    userInfo.setRole("ROLE_USER");
+                    start.await();
+                    return userInfoService.addUser(userInfo);
+                };
+                futures.add(pool.submit(register));
+            }
+            start.countDown();
+            for (Future<String> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, results.stream().filter("User Added Successfully"::equals).count());
+        assertEquals(THREADS - 1, results.stream().filter("User already exists"::equals).count());
+        assertEquals(1, repository.findAll().stream().filter(u -> "raceUser".equals(u.getUsername())).count());
+    }
+
+    @Test
+    void testUniqueIndexRejectsDuplicateUsername() {
+        UserInfo first = new UserInfo();
+        first.setUsername("indexedUser");
+        first.setPassword("encodedPassword");
+        repository.saveAndFlush(first);
+
+        UserInfo second = new UserInfo();
+        second.setUsername("indexedUser");
+        second.setPassword("encodedPassword");
+
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class, () -> repository.saveAndFlush(second));
+        assertTrue(UserInfoRepository.isDuplicateUsername(e));
+    }
+
+    @Test
+    void testOversizedUsernameIsNotReportedAsDuplicate() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        UserInfo userInfo = new UserInfo();
+        userInfo.setUsername("x".repeat(300));
+        userInfo.setPassword("ValidPassword1");
+        userInfo.setRole("ROLE_USER");
+
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+                () -> userInfoService(registry).addUser(userInfo));
+
+        assertFalse(UserInfoRepository.isDuplicateUsername(e));
+        assertEquals(0, registry.get("auth.users.added").tag("outcome", "duplicate").counter().count());
+    }
+
+    private UserInfoService userInfoService(SimpleMeterRegistry registry) {
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+        when(encoder.encode(anyString())).thenReturn("encodedPassword");
+        return new UserInfoService(repository, encoder, mock(JwtUtil.class),
+                mock(CachedUserDetailsService.class), mock(TokenVersionRegistry.class), mock(VerifiedTokenCache.class),
+                new AuthMetrics(registry), PasswordPolicy.defaults(), mock(RefreshTokenService.class), mock(TokenRevocationService.class),
+                mock(AuditLog.class));
+    }
+}
@@ -1,17 +1,28 @@
 package com.springboot3security.service;
 
+import com.springboot3security.audit.AuditLog;
+import com.springboot3security.entity.AuditEvent;
 import com.springboot3security.entity.UserInfo;
+import com.springboot3security.entity.UserSummary;
+import com.springboot3security.filter.VerifiedTokenCache;
+import com.springboot3security.metrics.AuthMetrics;
 import com.springboot3security.repository.UserInfoRepository;
 import com.springboot3security.util.JwtUtil;
+import com.springboot3security.util.PasswordPolicy;
+import com.springboot3security.util.Role;
+import com.springboot3security.util.RoleSet;
+import com.springboot3security.util.TokenValidationResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import java.time.Instant;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -29,7 +40,24 @@ class UserInfoServiceTest {
     private JwtUtil jwtUtil;
 
     @Mock
-    private UserDetailsService userDetailsService;
+    private CachedUserDetailsService userDetailsService;
+
+    @Mock
+    private TokenVersionRegistry tokenVersions;
+
+    @Mock
+    private VerifiedTokenCache tokenCache;
+
+    @Mock
+    private RefreshTokenService refreshTokens;
+
+    @Mock
+    private TokenRevocationService revocations;
+
+    @Mock
+    private AuditLog auditLog;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
 
     private UserInfoService userInfoService;
 
@@ -38,7 +66,8 @@ class UserInfoServiceTest {
     @BeforeEach
     void setUp() {
         closeable = MockitoAnnotations.openMocks(this);
-        userInfoService = new UserInfoService(repository, encoder, jwtUtil, userDetailsService);
+        userInfoService = new UserInfoService(repository, encoder, jwtUtil, userDetailsService, tokenVersions, tokenCache, new AuthMetrics(registry),
+                PasswordPolicy.defaults(), refreshTokens, revocations, auditLog);
     }
 
     @AfterEach
@@ -52,14 +81,16 @@ class UserInfoServiceTest {
         userInfo.setUsername("newUser");
         userInfo.setPassword("ValidPassword1");
         userInfo.setRole("ROLE_TEST");
-        when(repository.findByUsername("newUser")).thenReturn(Optional.empty());
         when(encoder.encode("ValidPassword1")).thenReturn("encodedPassword");
 
         String result = userInfoService.addUser(userInfo);
 
         assertEquals("User Added Successfully", result);
-        verify(repository, times(1)).save(userInfo);
+        verify(repository, times(1)).saveAndFlush(userInfo);
+        verify(repository, never()).findByUsername(any());
+        verify(userDetailsService, times(1)).evict("newUser");
         assertEquals("encodedPassword", userInfo.getPassword());
+        assertEquals(1, registry.get("auth.users.added").tag("outcome", "created").counter().count());
     }
 
     @Test
@@ -67,12 +98,29 @@ class UserInfoServiceTest {
         UserInfo userInfo = new UserInfo();
         userInfo.setUsername("existingUser");
         userInfo.setPassword("ValidPassword1");
-        when(repository.findByUsername("existingUser")).thenReturn(Optional.of(userInfo));
+        when(encoder.encode("ValidPassword1")).thenReturn("encodedPassword");
+        when(repository.saveAndFlush(userInfo)).thenThrow(new DataIntegrityViolationException("ux_users_username"));
 
         String result = userInfoService.addUser(userInfo);
 
         assertEquals("User already exists", result);
-        verify(repository, never()).save(any());
+        verify(userDetailsService, never()).evict(any());
+        assertEquals(1, registry.get("auth.users.added").tag("outcome", "duplicate").counter().count());
+    }
+
+    // Only the username index means a duplicate; a NOT NULL or length violation is a real error
+    @Test
+    void testAddUser_OtherIntegrityViolationIsNotADuplicate() {
+        UserInfo userInfo = new UserInfo();
+        userInfo.setUsername("newUser");
+        userInfo.setPassword("ValidPassword1");
+        when(encoder.encode("ValidPassword1")).thenReturn("encodedPassword");
+        when(repository.saveAndFlush(userInfo)).thenThrow(new DataIntegrityViolationException("NULL not allowed for column \"ROLE\""));
+
+        assertThrows(DataIntegrityViolationException.class, () -> userInfoService.addUser(userInfo));
+
+        assertEquals(0, registry.get("auth.users.added").tag("outcome", "duplicate").counter().count());
+        verify(auditLog, never()).record(eq(AuditEvent.Type.REGISTRATION_REJECTED), any(), any());
     }
 
     @Test
@@ -84,29 +132,74 @@ class UserInfoServiceTest {
 
         String result = userInfoService.addUser(userInfo);
 
-        assertEquals("Password must be at least 8 characters long, contain at least one uppercase letter, one lowercase letter, and one number.", result);
-        verify(repository, never()).save(any());
+        assertEquals("Password must be at least 8 characters long. Password must contain at least one uppercase letter. "
+                + "Password must contain at least one number.", result);
+        verify(repository, never()).saveAndFlush(any());
+        assertEquals(1, registry.get("auth.users.added").tag("outcome", "invalid_password").counter().count());
+    }
+
+    @Test
+    void testInvalidateTokens_BumpsVersionAndDropsCachedState() {
+        when(repository.incrementTokenVersion("testUser")).thenReturn(1);
+
+        assertTrue(userInfoService.invalidateTokens("testUser"));
+        verify(tokenVersions, times(1)).evict("testUser");
+        verify(userDetailsService, times(1)).evict("testUser");
+        verify(tokenCache, times(1)).invalidateAll();
+        verify(refreshTokens, times(1)).revokeAll("testUser");
+    }
+
+    @Test
+    void testInvalidateTokens_UserDoesNotExist() {
+        when(repository.incrementTokenVersion("nonExistentUser")).thenReturn(0);
+
+        assertFalse(userInfoService.invalidateTokens("nonExistentUser"));
+        verify(tokenVersions, never()).evict(any());
+        verify(refreshTokens, never()).revokeAll(any());
     }
 
     @Test
     void testGetUserInfo_UserExists() {
-        UserInfo userInfo = new UserInfo();
-        userInfo.setUsername("testUser");
-        when(repository.findByUsername("testUser")).thenReturn(Optional.of(userInfo));
+        when(repository.findSummaryByUsername("testUser")).thenReturn(Optional.of(new UserSummary(1L, "testUser", "ROLE_USER")));
 
         String result = userInfoService.getUserInfo("testUser");
 
         assertTrue(result.contains("User Info:"));
-        verify(repository, times(1)).findByUsername("testUser");
+        assertFalse(result.contains("password"));
+        verify(repository, times(1)).findSummaryByUsername("testUser");
     }
 
     @Test
     void testGetUserInfo_UserDoesNotExist() {
-        when(repository.findByUsername("nonExistentUser")).thenReturn(Optional.empty());
+        when(repository.findSummaryByUsername("nonExistentUser")).thenReturn(Optional.empty());
 
         String result = userInfoService.getUserInfo("nonExistentUser");
 
         assertEquals("User not found", result);
-        verify(repository, times(1)).findByUsername("nonExistentUser");
+        verify(repository, times(1)).findSummaryByUsername("nonExistentUser");
+    }
+
+    @Test
+    void testRevokeToken() {
+        TokenValidationResult valid = new TokenValidationResult(TokenValidationResult.Status.VALID, "testUser", RoleSet.of(Role.USER),
+                0, Instant.now(), Instant.now().plusSeconds(900), "token-id");
+        when(jwtUtil.validate("validToken")).thenReturn(valid);
+        when(revocations.revoke(valid)).thenReturn(true, false);
+
+        assertEquals("Token revoked", userInfoService.revokeToken("validToken"));
+        assertEquals("Token already revoked or expired", userInfoService.revokeToken("validToken"));
+    }
+
+    @Test
+    void testRevokeToken_InvalidOrWithoutId() {
+        when(jwtUtil.validate("badToken")).thenReturn(new TokenValidationResult(TokenValidationResult.Status.MALFORMED,
+                null, null, null, null, null, null));
+        when(jwtUtil.validate("legacyToken")).thenReturn(new TokenValidationResult(TokenValidationResult.Status.VALID,
+                "testUser", RoleSet.of(Role.USER), 0, Instant.now(), Instant.now().plusSeconds(900), null));
+
+        assertEquals("Invalid token", userInfoService.revokeToken("badToken"));
+        assertEquals("Invalid token", userInfoService.revokeToken(null));
+        assertEquals("Token has no id, invalidate the user's tokens instead", userInfoService.revokeToken("legacyToken"));
+        verifyNoInteractions(revocations);
     }
 }
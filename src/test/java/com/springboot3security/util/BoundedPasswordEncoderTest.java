@@ -0,0 +1,149 @@
+package com.springboot3security.util;
+
+import com.springboot3security.metrics.AuthMetrics;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    // Blocks on "slow" so tests can hold the single worker busy; like BCrypt, it ignores interrupts
+    private final PasswordEncoder delegate = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            if ("slow".contentEquals(rawPassword)) {
+                started.countDown();
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (release.getCount() > 0 && System.nanoTime() < deadline) {
+                    try {
+                        release.await(10, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException ignored) {
+                        // keep hashing
+                    }
+                }
+            }
+            return "encoded-" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals("encoded-" + rawPassword);
+        }
+    };
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.shutdown();
+    }
+
+    @Test
+    void testDelegatesOnWorkerPool() {
+        encoder = new BoundedPasswordEncoder(delegate, 2, 2, 1000, 1, new AuthMetrics(registry));
+
+        assertEquals("encoded-secret", encoder.encode("secret"));
+        assertTrue(encoder.matches("secret", "encoded-secret"));
+        assertEquals(2, encoder.getCompletedCount());
+        assertEquals(1, registry.get("auth.password.encode").timer().count());
+        assertEquals(1, registry.get("auth.password.matches").timer().count());
+    }
+
+    @Test
+    void testRejectsFastWhenSaturated() throws Exception {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, 5000, 3, new AuthMetrics(registry));
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("slow"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("queued"));
+        while (encoder.getQueueDepth() == 0) {
+            Thread.onSpinWait();
+        }
+
+        long start = System.nanoTime();
+        PasswordHashingRejectedException e = assertThrows(PasswordHashingRejectedException.class, () -> encoder.encode("rejected"));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(3, e.getRetryAfterSeconds());
+        assertEquals(1, encoder.getRejectedCount());
+
+        release.countDown();
+        assertEquals("encoded-slow", running.get(5, TimeUnit.SECONDS));
+        assertEquals("encoded-queued", queued.get(5, TimeUnit.SECONDS));
+        assertTrue(encoder.getMaxWaitNanos() > 0);
+
+        // The queue wait reaches the registry once the pool is bound, as SecurityConfig does
+        new AuthMetrics(registry).bindHashingPool(encoder);
+        FunctionTimer wait = registry.get("auth.password.pool.wait").functionTimer();
+        assertEquals(2, wait.count());
+        assertEquals(encoder.getTotalWaitNanos(), wait.totalTime(TimeUnit.NANOSECONDS), 1);
+        assertTrue(registry.get("auth.password.pool.wait.max").gauge().value() > 0);
+    }
+
+    @Test
+    void testCallerGivesUpAfterTimeout() throws Exception {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, 50, 1, new AuthMetrics(registry));
+        CompletableFuture.runAsync(() -> encoder.encode("slow"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(PasswordHashingRejectedException.class, () -> encoder.encode("queued"));
+        assertEquals(0, encoder.getQueueDepth());
+    }
+
+    @Test
+    void testAsyncRunsOnWorkerPoolWithoutBlocking() throws Exception {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, 5000, 1, new AuthMetrics(registry));
+
+        CompletableFuture<String> running = encoder.encodeAsync("slow");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertFalse(running.isDone());
+        release.countDown();
+
+        assertEquals("encoded-slow", running.get(5, TimeUnit.SECONDS));
+        assertTrue(encoder.matchesAsync("slow", "encoded-slow").get(5, TimeUnit.SECONDS));
+        assertEquals(2, encoder.getCompletedCount());
+        assertEquals(1, registry.get("auth.password.matches").timer().count());
+    }
+
+    @Test
+    void testAsyncFailsFastWhenSaturatedAndTimesOut() throws Exception {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, 200, 3, new AuthMetrics(registry));
+        CompletableFuture<String> running = encoder.encodeAsync("slow");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = encoder.encodeAsync("queued");
+
+        CompletableFuture<String> rejected = encoder.encodeAsync("rejected");
+        assertTrue(rejected.isCompletedExceptionally());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+        assertEquals(3, assertInstanceOf(PasswordHashingRejectedException.class, e.getCause()).getRetryAfterSeconds());
+
+        // Like the blocking calls, the timeout covers queueing and hashing
+        e = assertThrows(ExecutionException.class, () -> running.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(PasswordHashingRejectedException.class, e.getCause());
+        e = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(PasswordHashingRejectedException.class, e.getCause());
+        assertEquals(3, encoder.getRejectedCount());
+
+        // The late hash is dropped and the timed out task is skipped once the worker reaches it
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((encoder.getQueueDepth() > 0 || encoder.getActiveCount() > 0) && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(0, encoder.getCompletedCount());
+        assertEquals(1, registry.get("auth.password.encode").timer().count());
+    }
+}
@@ -0,0 +1,99 @@
+package com.springboot3security.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BreachedPasswordIndexTest {
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    void testHashListAcrossManyRuns() throws Exception {
+        // Unsorted, with duplicates and the ":count" suffix; a chunk of 7 forces a multi-way merge
+        List<String> lines = new ArrayList<>();
+        for (int i = 499; i >= 0; i--) {
+            lines.add(sha1Hex("breached-" + i) + ":" + i);
+        }
+        lines.add(sha1Hex("breached-42") + ":1");
+        lines.add("");
+        Path index = build(lines, false, 7);
+
+        BreachedPasswordIndex breached = new BreachedPasswordIndex(index);
+
+        assertEquals(500, breached.size());
+        IntStream.range(0, 500).forEach(i -> assertTrue(breached.isBreached("breached-" + i), "breached-" + i));
+        IntStream.range(500, 1000).forEach(i -> assertFalse(breached.isBreached("breached-" + i), "breached-" + i));
+    }
+
+    @Test
+    void testPlainPasswordList() throws Exception {
+        Path index = build(List.of("123456", "password", "qwerty", "ÜnïcödePässwört"), true, 1024);
+
+        BreachedPasswordIndex breached = new BreachedPasswordIndex(index);
+
+        assertTrue(breached.isBreached("password"));
+        assertTrue(breached.isBreached("ÜnïcödePässwört"));
+        assertFalse(breached.isBreached("Password"));
+        assertFalse(breached.isBreached(null));
+    }
+
+    @Test
+    void testKeysAtBothEndsOfTheRange() throws Exception {
+        Path index = build(List.of("0000000000000000000000000000000000000000", "FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF",
+                "8000000000000000000000000000000000000000"), false, 2);
+
+        BreachedPasswordIndex breached = new BreachedPasswordIndex(index);
+
+        assertTrue(breached.contains(0L));
+        assertTrue(breached.contains(-1L));
+        assertTrue(breached.contains(Long.MIN_VALUE));
+        assertFalse(breached.contains(1L));
+        assertFalse(breached.contains(Long.MAX_VALUE));
+    }
+
+    @Test
+    void testEmptyListAndDisabledIndex() throws Exception {
+        BreachedPasswordIndex empty = new BreachedPasswordIndex(build(List.of(), false, 16));
+
+        assertTrue(empty.isEnabled());
+        assertFalse(empty.isBreached("password"));
+        assertFalse(BreachedPasswordIndex.disabled().isEnabled());
+        assertFalse(BreachedPasswordIndex.disabled().isBreached("password"));
+        assertFalse(new BreachedPasswordIndex("").isEnabled());
+    }
+
+    @Test
+    void testRejectsInvalidInput() throws Exception {
+        Path list = Files.write(dir.resolve("bad.txt"), List.of("not-a-hash"));
+        assertThrows(IllegalArgumentException.class,
+                () -> BreachedPasswordIndexBuilder.build(list, dir.resolve("bad.idx"), false, 16));
+
+        Path notAnIndex = Files.writeString(dir.resolve("plain.txt"), "x".repeat(1 << 20));
+        assertThrows(IllegalStateException.class, () -> new BreachedPasswordIndex(notAnIndex));
+        assertThrows(IllegalStateException.class, () -> new BreachedPasswordIndex(dir.resolve("missing.idx")));
+    }
+
+    private Path build(List<String> lines, boolean plain, int chunkEntries) throws Exception {
+        Path list = Files.write(dir.resolve("list.txt"), lines, StandardCharsets.UTF_8);
+        Path index = dir.resolve("breached.idx");
+        BreachedPasswordIndexBuilder.build(list, index, plain, chunkEntries);
+        return index;
+    }
+
+    private static String sha1Hex(String password) throws Exception {
+        return HexFormat.of().withUpperCase().formatHex(
+                MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,78 @@
+package com.springboot3security.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentBloomFilterTest {
+
+    @Test
+    void testNoFalseNegativesAndFalsePositiveRateNearTarget() {
+        ConcurrentBloomFilter filter = new ConcurrentBloomFilter(10_000, 0.01);
+        List<String> added = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            String id = UUID.randomUUID().toString();
+            filter.add(id);
+            added.add(id);
+        }
+
+        for (String id : added) {
+            assertTrue(filter.mightContain(id));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        // 1% target over 100k probes; generous bound so the test is not flaky
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void testConcurrentAddsAreNotLost() throws Exception {
+        ConcurrentBloomFilter filter = new ConcurrentBloomFilter(80_000, 0.001);
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    List<String> ids = new ArrayList<>();
+                    for (int i = 0; i < 10_000; i++) {
+                        String id = UUID.randomUUID().toString();
+                        filter.add(id);
+                        ids.add(id);
+                    }
+                    return ids;
+                }));
+            }
+            for (Future<List<String>> future : futures) {
+                for (String id : future.get(30, TimeUnit.SECONDS)) {
+                    assertTrue(filter.mightContain(id));
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSizing() {
+        ConcurrentBloomFilter filter = new ConcurrentBloomFilter(100_000, 0.001);
+
+        // About 14.4 bits and 10 hashes per entry for 0.1%
+        assertEquals(1_437_760, filter.bitSize(), 64);
+        assertEquals(10, filter.hashCount());
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentBloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentBloomFilter(100, 1));
+    }
+}
@@ -0,0 +1,92 @@
+package com.springboot3security.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentRingBufferTest {
+
+    @Test
+    void testDrainsInOfferOrderAndRejectsWhenFull() {
+        ConcurrentRingBuffer<Integer> buffer = new ConcurrentRingBuffer<>(3);
+
+        assertEquals(4, buffer.capacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(3, buffer.drainTo(drained, 3));
+        assertEquals(List.of(0, 1, 2), drained);
+        // Freed slots are reused on the next lap
+        assertTrue(buffer.offer(5));
+        assertTrue(buffer.offer(6));
+        assertEquals(3, buffer.drainTo(drained, 10));
+        assertEquals(List.of(0, 1, 2, 3, 5, 6), drained);
+        assertEquals(0, buffer.size());
+        assertEquals(0, buffer.drainTo(drained, 10));
+    }
+
+    @Test
+    void testConcurrentProducersLoseAndDuplicateNothing() throws Exception {
+        ConcurrentRingBuffer<Integer> buffer = new ConcurrentRingBuffer<>(1024);
+        int producers = 4;
+        int perProducer = 50_000;
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int base = p * perProducer;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perProducer; i++) {
+                        // Spin while the consumer catches up, so every element gets in exactly once
+                        while (!buffer.offer(base + i)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+
+            Set<Integer> seen = new HashSet<>();
+            List<Integer> batch = new ArrayList<>();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (seen.size() < producers * perProducer && System.nanoTime() < deadline) {
+                batch.clear();
+                buffer.drainTo(batch, 256);
+                for (Integer element : batch) {
+                    assertTrue(seen.add(element), "duplicate: " + element);
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            assertEquals(producers * perProducer, seen.size());
+            assertEquals(0, buffer.size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCapacityBounds() {
+        assertEquals(1, new ConcurrentRingBuffer<>(1).capacity());
+        assertEquals(8192, new ConcurrentRingBuffer<>(8192).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentRingBuffer<>(0));
+    }
+}
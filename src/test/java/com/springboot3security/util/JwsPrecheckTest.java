@@ -0,0 +1,95 @@
+package com.springboot3security.util;
+
+import com.springboot3security.metrics.AuthMetrics;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwsPrecheckTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(
+            Keys.secretKeyFor(SignatureAlgorithm.HS256).getEncoded());
+
+    private final JwtKeyRing keyRing = new JwtKeyRing(SECRET, "k1", "");
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final JwtUtil jwtUtil = new JwtUtil(keyRing, new AuthMetrics(registry));
+
+    private final String token = jwtUtil.generateToken(new User("testUser", "password",
+            List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+    @Test
+    void testIssuedTokenPasses() {
+        assertNull(JwsPrecheck.check(token, keyRing));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "garbage", "not.a.jwt", "a.b", "a.b.c.d", "abcd.efgh.", "ab cd.efgh.ijkl", "abcd.efgh.ij+l",
+            "abcde.efgh.ijkl"})
+    void testStructurallyBrokenTokensAreMalformed(String candidate) {
+        assertEquals(TokenValidationResult.Status.MALFORMED, JwsPrecheck.check(candidate, keyRing));
+    }
+
+    @Test
+    void testOversizedAndNullTokensAreMalformed() {
+        assertEquals(TokenValidationResult.Status.MALFORMED, JwsPrecheck.check(null, keyRing));
+        assertEquals(TokenValidationResult.Status.MALFORMED,
+                JwsPrecheck.check(token + "a".repeat(JwsPrecheck.MAX_TOKEN_LENGTH), keyRing));
+    }
+
+    @Test
+    void testHeaderThatIsNotJsonIsMalformed() {
+        String header = encode("{not json}");
+
+        assertEquals(TokenValidationResult.Status.MALFORMED, JwsPrecheck.check(header + ".e30.c2ln", keyRing));
+        assertEquals(TokenValidationResult.Status.MALFORMED,
+                JwsPrecheck.check(encode("{\"kid\":1,\"alg\":\"HS256\"}") + ".e30.c2ln", keyRing));
+    }
+
+    @Test
+    void testUnknownKeyIdIsRejectedBeforeParsing() {
+        String header = encode("{\"kid\":\"retired\",\"alg\":\"HS256\",\"x\":{\"kid\":\"k1\"}}");
+
+        assertEquals(TokenValidationResult.Status.UNKNOWN_KEY, JwsPrecheck.check(header + ".e30.c2ln", keyRing));
+        // Tokens without a kid are checked against the legacy HMAC key
+        assertNull(JwsPrecheck.check(encode("{\"alg\":\"HS256\"}") + ".e30.c2ln", keyRing));
+    }
+
+    // Every kind of rejection comes back as a result: validate never throws for a bad token
+    @Test
+    void testValidateClassifiesWithoutThrowing() {
+        String[] parts = token.split("\\.");
+        String tamperedPayload = parts[0] + "." + encode("{\"sub\":\"admin\"}") + "." + parts[2];
+        String foreignKey = new JwtUtil(new JwtKeyRing(Base64.getEncoder().encodeToString(
+                Keys.secretKeyFor(SignatureAlgorithm.HS256).getEncoded()), "k1", ""),
+                new AuthMetrics(new SimpleMeterRegistry())).generateToken(new User("testUser", "password", List.of()));
+
+        assertEquals(TokenValidationResult.Status.VALID, jwtUtil.validate(token).status());
+        assertEquals(TokenValidationResult.Status.MALFORMED, jwtUtil.validate("garbage").status());
+        assertEquals(TokenValidationResult.Status.MALFORMED, jwtUtil.validate(token.substring(0, token.lastIndexOf('.') + 1)).status());
+        assertEquals(TokenValidationResult.Status.BAD_SIGNATURE, jwtUtil.validate(tamperedPayload).status());
+        assertEquals(TokenValidationResult.Status.BAD_SIGNATURE, jwtUtil.validate(foreignKey).status());
+        assertEquals(TokenValidationResult.Status.UNKNOWN_KEY,
+                jwtUtil.validate(encode("{\"kid\":\"retired\",\"alg\":\"HS256\"}") + "." + parts[1] + "." + parts[2]).status());
+        assertNull(jwtUtil.validate(tamperedPayload).subject());
+        assertEquals(2, registry.get("auth.token.failures").tag("reason", "malformed").counter().count());
+        assertEquals(3, registry.get("auth.token.failures").tag("reason", "bad_signature").counter().count());
+        assertEquals(1, registry.get("auth.token.failures").tag("reason", "unknown_key").counter().count());
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
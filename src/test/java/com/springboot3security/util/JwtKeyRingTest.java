@@ -0,0 +1,226 @@
+package com.springboot3security.util;
+
+import com.springboot3security.metrics.AuthMetrics;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtKeyRingTest {
+
+    private static final String OLD_SECRET = randomSecret();
+    private static final String NEW_SECRET = randomSecret();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final AuthMetrics metrics = new AuthMetrics(registry);
+
+    private final UserDetails testUser = new User("testUser", "password", List.of(new SimpleGrantedAuthority("ROLE_TEST")));
+
+    @Test
+    void testTokenSignedWithPreviousKeyValidatesDuringOverlap() {
+        JwtUtil beforeRotation = new JwtUtil(new JwtKeyRing(OLD_SECRET, "k1", ""), metrics);
+        String oldToken = beforeRotation.generateToken(testUser);
+
+        JwtUtil afterRotation = new JwtUtil(new JwtKeyRing(NEW_SECRET, "k2", "k1:" + OLD_SECRET), metrics);
+
+        TokenValidationResult result = afterRotation.validate(oldToken);
+        assertEquals(TokenValidationResult.Status.VALID, result.status());
+        assertEquals("testUser", result.subject());
+        assertTrue(afterRotation.validateToken(afterRotation.generateToken(testUser), testUser));
+    }
+
+    @Test
+    void testTokenSignedWithRetiredKeyIsRejected() {
+        String oldToken = new JwtUtil(new JwtKeyRing(OLD_SECRET, "k1", ""), metrics).generateToken(testUser);
+
+        JwtUtil afterOverlap = new JwtUtil(new JwtKeyRing(NEW_SECRET, "k2", ""), metrics);
+
+        assertEquals(TokenValidationResult.Status.UNKNOWN_KEY, afterOverlap.validate(oldToken).status());
+        assertEquals(1, registry.get("auth.token.failures").tag("reason", "unknown_key").counter().count());
+        assertEquals(1, registry.get("auth.jwt.verify").timer().count());
+    }
+
+    @Test
+    void testNewTokensCarryActiveKeyId() {
+        JwtUtil jwtUtil = new JwtUtil(new JwtKeyRing(NEW_SECRET, "k2", "k1:" + OLD_SECRET), metrics);
+        String token = jwtUtil.generateToken(testUser);
+
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+        assertTrue(header.contains("\"kid\":\"k2\""));
+    }
+
+    @Test
+    void testTokenWithoutKeyIdIsVerifiedWithActiveKey() {
+        JwtKeyRing keyRing = new JwtKeyRing(NEW_SECRET, "k2", "k1:" + OLD_SECRET);
+        String legacyToken = Jwts.builder()
+                .setSubject("testUser")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(keyRing.getActiveKey(), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertTrue(new JwtUtil(keyRing, metrics).validate(legacyToken).isValid());
+    }
+
+    @Test
+    void testKeysAreDecodedOnce() {
+        JwtKeyRing keyRing = new JwtKeyRing(NEW_SECRET, "k2", "k1:" + OLD_SECRET);
+
+        assertSame(keyRing.getActiveKey(), keyRing.getVerificationKey("k2"));
+        assertSame(keyRing.getVerificationKey("k1"), keyRing.getVerificationKey("k1"));
+        assertNull(keyRing.getVerificationKey("unknown"));
+    }
+
+    @Test
+    void testInvalidConfigurationIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new JwtKeyRing(NEW_SECRET, "k2", "k2:" + OLD_SECRET));
+        assertThrows(IllegalArgumentException.class, () -> new JwtKeyRing(NEW_SECRET, "k2", "missingSeparator"));
+        assertThrows(IllegalArgumentException.class, () -> new JwtKeyRing(NEW_SECRET, " ", ""));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"RS256", "ES256", "EdDSA"})
+    void testAsymmetricSigningKeepsHmacTokensValid(String algorithm) throws Exception {
+        String hmacToken = new JwtUtil(new JwtKeyRing(NEW_SECRET, "k2", ""), metrics).generateToken(testUser);
+        KeyPair keyPair = keyPair(algorithm);
+        JwtKeyRing keyRing = new JwtKeyRing(NEW_SECRET, "k2", "", algorithm, keyPair, Map.of());
+        JwtUtil jwtUtil = new JwtUtil(keyRing, metrics);
+
+        String token = jwtUtil.generateToken(testUser);
+
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+        assertTrue(header.contains("\"alg\":\"" + algorithm + "\""));
+        assertTrue(header.contains("\"kid\":\"" + keyRing.getActiveKeyId() + "\""));
+        assertTrue(jwtUtil.validate(token).isValid());
+        assertTrue(jwtUtil.validate(hmacToken).isValid());
+        // Anyone holding only the published public key can verify
+        assertEquals("testUser", Jwts.parser().verifyWith(keyPair.getPublic()).build().parseSignedClaims(token).getPayload().getSubject());
+    }
+
+    @Test
+    void testHmacTokensAreRejectedOnceHmacIsRetired() throws Exception {
+        String hmacToken = new JwtUtil(new JwtKeyRing(NEW_SECRET, "k2", ""), metrics).generateToken(testUser);
+        String legacyToken = Jwts.builder().subject("testUser")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Base64.getDecoder().decode(NEW_SECRET)), Jwts.SIG.HS256)
+                .compact();
+        JwtKeyRing keyRing = new JwtKeyRing("", "k2", "k1:" + OLD_SECRET, "EdDSA", keyPair("EdDSA"), Map.of(), false);
+        JwtUtil jwtUtil = new JwtUtil(keyRing, metrics);
+
+        assertFalse(jwtUtil.validate(hmacToken).isValid());
+        assertFalse(jwtUtil.validate(legacyToken).isValid());
+        assertNull(keyRing.getVerificationKey(null));
+        assertEquals(Set.of(keyRing.getActiveKeyId()), keyRing.getKeyIds());
+        assertTrue(jwtUtil.validate(jwtUtil.generateToken(testUser)).isValid());
+        // HS256 cannot run without its own key
+        assertThrows(IllegalArgumentException.class,
+                () -> new JwtKeyRing(NEW_SECRET, "k2", "", "HS256", null, Map.of(), false));
+    }
+
+    @Test
+    void testJwkSetPublishesOnlyPublicKeys() throws Exception {
+        assertEquals("{\"keys\":[]}", new JwtKeyRing(NEW_SECRET, "k2", "").getJwkSetJson());
+
+        KeyPair previous = keyPair("RS256");
+        JwtKeyRing keyRing = new JwtKeyRing(NEW_SECRET, "k2", "", "RS256", keyPair("RS256"), Map.of("old", previous.getPublic()));
+        String jwks = keyRing.getJwkSetJson();
+
+        assertTrue(jwks.contains("\"kid\":\"" + keyRing.getActiveKeyId() + "\""));
+        assertTrue(jwks.contains("\"kid\":\"old\""));
+        assertTrue(jwks.contains("\"use\":\"sig\""));
+        assertFalse(jwks.contains("\"d\""));
+        assertFalse(jwks.contains("\"k\""));
+        assertSame(previous.getPublic(), keyRing.getVerificationKey("old"));
+    }
+
+    @Test
+    void testHmacTokenUsingAsymmetricKidIsRejected() throws Exception {
+        KeyPair keyPair = keyPair("RS256");
+        JwtKeyRing keyRing = new JwtKeyRing(NEW_SECRET, "k2", "", "RS256", keyPair, Map.of());
+        // Classic algorithm confusion: HMAC keyed with the public key bytes, pointed at the RSA kid
+        String forged = Jwts.builder()
+                .header().keyId(keyRing.getActiveKeyId()).and()
+                .subject("admin")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(keyPair.getPublic().getEncoded()), Jwts.SIG.HS256)
+                .compact();
+
+        assertFalse(new JwtUtil(keyRing, metrics).validate(forged).isValid());
+    }
+
+    @Test
+    void testKeysAreLoadedFromPemFiles(@TempDir Path dir) throws Exception {
+        KeyPair keyPair = keyPair("ES256");
+        Path privateKey = Files.writeString(dir.resolve("jwt.pem"), pem("PRIVATE KEY", keyPair.getPrivate().getEncoded()));
+        Path publicKey = Files.writeString(dir.resolve("jwt.pub.pem"), pem("PUBLIC KEY", keyPair.getPublic().getEncoded()));
+
+        JwtKeyRing keyRing = new JwtKeyRing(NEW_SECRET, "k2", "", "ES256", privateKey.toString(), publicKey.toString(),
+                "", "", "", "old:" + publicKey, true);
+
+        assertEquals(keyPair.getPrivate(), keyRing.getActiveKey());
+        assertEquals(keyPair.getPublic(), keyRing.getVerificationKey("old"));
+        assertThrows(IllegalArgumentException.class, () -> new JwtKeyRing(NEW_SECRET, "k2", "", "ES256",
+                privateKey.toString(), "", "", "", "", "", true));
+    }
+
+    @Test
+    void testInvalidSigningConfigurationIsRejected() throws Exception {
+        KeyPair rsa = keyPair("RS256");
+        KeyPair otherRsa = keyPair("RS256");
+
+        assertThrows(IllegalArgumentException.class, () -> new JwtKeyRing(NEW_SECRET, "k2", "", "none", null, Map.of()));
+        assertThrows(IllegalArgumentException.class, () -> new JwtKeyRing(NEW_SECRET, "k2", "", "HS512", null, Map.of()));
+        assertThrows(IllegalArgumentException.class, () -> new JwtKeyRing(NEW_SECRET, "k2", "", "RS256", null, Map.of()));
+        assertThrows(IllegalArgumentException.class, () -> new JwtKeyRing(NEW_SECRET, "k2", "", "HS256", rsa, Map.of()));
+        assertThrows(IllegalArgumentException.class, () -> new JwtKeyRing(NEW_SECRET, "k2", "", "ES256", rsa, Map.of()));
+        assertThrows(IllegalArgumentException.class, () -> new JwtKeyRing(NEW_SECRET, "k2", "", "RS256",
+                new KeyPair(otherRsa.getPublic(), rsa.getPrivate()), Map.of()));
+    }
+
+    private static KeyPair keyPair(String algorithm) throws Exception {
+        return switch (algorithm) {
+            case "RS256" -> {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+                generator.initialize(2048);
+                yield generator.generateKeyPair();
+            }
+            case "ES256" -> {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+                yield generator.generateKeyPair();
+            }
+            default -> KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        };
+    }
+
+    private static String pem(String label, byte[] der) {
+        return "-----BEGIN " + label + "-----\n" + Base64.getMimeEncoder().encodeToString(der) + "\n-----END " + label + "-----\n";
+    }
+
+    private static String randomSecret() {
+        byte[] bytes = new byte[64];
+        new SecureRandom().nextBytes(bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+}
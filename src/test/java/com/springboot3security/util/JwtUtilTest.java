@@ -8,11 +8,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -65,4 +68,57 @@ class JwtUtilTest {
         String username = jwtUtil.extractUsername(token);
         assertEquals("testUser", username);
     }
+
+    @Test
+    void testValidate_ReturnsClaimsFromSingleParse() {
+        setUpTestUser();
+        String token = jwtUtil.generateToken(testUser);
+        TokenValidationResult result = jwtUtil.validate(token);
+        assertEquals(TokenValidationResult.Status.VALID, result.status());
+        assertEquals("testUser", result.subject());
+        // ROLE_TEST is not a Role, so it travels by name
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_TEST")), result.authorities());
+        assertEquals("ROLE_TEST", jwtUtil.extractRoles(token));
+        assertEquals(0, result.tokenVersion());
+        assertNotNull(result.issuedAt());
+        assertTrue(result.expiration().isAfter(result.issuedAt()));
+    }
+
+    @Test
+    void testKnownRolesTravelAsBitsAndComeBackInterned() {
+        UserDetails admin = new User("adminUser", "password", RoleSet.of(Role.USER, Role.ADMIN));
+        String token = jwtUtil.generateToken(admin);
+
+        assertEquals(Integer.valueOf(3), jwtUtil.<Integer>extractClaim(token, claims -> claims.get("rb", Integer.class)));
+        assertNull(jwtUtil.extractClaim(token, claims -> claims.get("roles")));
+        assertSame(RoleSet.of(Role.USER, Role.ADMIN), jwtUtil.validate(token).authorities());
+        assertEquals("ROLE_USER,ROLE_ADMIN", jwtUtil.extractRoles(token));
+    }
+
+    @Test
+    void testGeneratedTokenExpiresAfterAccessTokenTtl() {
+        setUpTestUser();
+        TokenValidationResult result = jwtUtil.validate(jwtUtil.generateToken(testUser));
+        // Both claims are whole seconds, so the lifetime may be off by one
+        long lifetime = Duration.between(result.issuedAt(), result.expiration()).toSeconds();
+        assertEquals(jwtUtil.getAccessTokenTtl().toSeconds(), lifetime, 1);
+        assertTrue(jwtUtil.getAccessTokenTtl().compareTo(Duration.ofHours(1)) <= 0);
+    }
+
+    // /auth/generateToken has no refresh token, so its tokens keep the lifetime they had before refresh tokens
+    @Test
+    void testLegacyTokenKeepsTheTenHourLifetime() {
+        setUpTestUser();
+        TokenValidationResult result = jwtUtil.validate(jwtUtil.generateLegacyToken(testUser));
+        long lifetime = Duration.between(result.issuedAt(), result.expiration()).toSeconds();
+        assertEquals(Duration.ofHours(10), jwtUtil.getLegacyTokenTtl());
+        assertEquals(jwtUtil.getLegacyTokenTtl().toSeconds(), lifetime, 1);
+    }
+
+    @Test
+    void testValidate_MalformedToken() {
+        TokenValidationResult result = jwtUtil.validate("not-a-token");
+        assertEquals(TokenValidationResult.Status.MALFORMED, result.status());
+        assertNull(result.subject());
+    }
 }
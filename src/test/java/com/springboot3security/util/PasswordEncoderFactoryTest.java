@@ -0,0 +1,45 @@
+package com.springboot3security.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordEncoderFactoryTest {
+
+    @Test
+    void testNewHashesCarryBcryptId() {
+        PasswordEncoder encoder = PasswordEncoderFactory.createDelegatingEncoder(4);
+
+        String encoded = encoder.encode("ValidPassword1");
+
+        assertTrue(encoded.startsWith("{bcrypt}$2a$04$"));
+        assertTrue(encoder.matches("ValidPassword1", encoded));
+        assertFalse(encoder.upgradeEncoding(encoded));
+    }
+
+    @Test
+    void testLegacyHashMatchesAndNeedsUpgrade() {
+        PasswordEncoder encoder = PasswordEncoderFactory.createDelegatingEncoder(4);
+        String legacy = new BCryptPasswordEncoder(4).encode("ValidPassword1");
+
+        assertTrue(encoder.matches("ValidPassword1", legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+    }
+
+    @Test
+    void testWeakerHashNeedsUpgrade() {
+        String weak = PasswordEncoderFactory.createDelegatingEncoder(4).encode("ValidPassword1");
+        PasswordEncoder stronger = PasswordEncoderFactory.createDelegatingEncoder(5);
+
+        assertTrue(stronger.matches("ValidPassword1", weak));
+        assertTrue(stronger.upgradeEncoding(weak));
+    }
+
+    @Test
+    void testCalibrationStaysWithinBounds() {
+        assertEquals(4, PasswordEncoderFactory.calibrateBCryptStrength(0, 4, 6));
+        assertEquals(6, PasswordEncoderFactory.calibrateBCryptStrength(60_000, 4, 6));
+    }
+}
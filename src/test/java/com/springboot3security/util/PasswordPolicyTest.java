@@ -0,0 +1,89 @@
+package com.springboot3security.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordPolicyTest {
+
+    private final PasswordPolicy defaults = PasswordPolicy.defaults();
+
+    @Test
+    void testDefaultsMatchOriginalRegexRules() {
+        List<String> passwords = List.of("ValidPassword1", "Short1A", "nouppercase1", "NOLOWERCASE1", "NoDigitsAtAll",
+                "Exactly8A", "Ünïcode1Aa", "With Space 1", "12345678Aa", "");
+        for (String password : passwords) {
+            boolean expected = password.length() >= 8 && password.matches(".*[A-Z].*")
+                    && password.matches(".*[a-z].*") && password.matches(".*\\d.*");
+            assertEquals(expected, defaults.isValid(password, null), password);
+        }
+    }
+
+    @Test
+    void testReportsEveryFailedRule() {
+        int violations = defaults.evaluate("weak", null);
+
+        assertEquals(List.of(PasswordRule.MIN_LENGTH, PasswordRule.UPPERCASE, PasswordRule.DIGIT), PasswordRule.fromMask(violations));
+        assertEquals(List.of("Password must be at least 8 characters long",
+                "Password must contain at least one uppercase letter",
+                "Password must contain at least one number"), defaults.messages(violations));
+    }
+
+    @Test
+    void testNullPasswordFailsLength() {
+        assertEquals(List.of(PasswordRule.MIN_LENGTH), PasswordRule.fromMask(defaults.evaluate(null, "testUser")));
+    }
+
+    @Test
+    void testSpecialCharacterRule() {
+        PasswordPolicy policy = new PasswordPolicy(8, 128, true, true, true, true, 0, false, 3, BreachedPasswordIndex.disabled());
+
+        assertTrue(PasswordRule.SPECIAL.failed(policy.evaluate("ValidPassword1", null)));
+        assertTrue(policy.isValid("ValidPassword1!", null));
+        // Whitespace is not a special character
+        assertTrue(PasswordRule.SPECIAL.failed(policy.evaluate("Valid Password1", null)));
+    }
+
+    @Test
+    void testMaxRepeatRule() {
+        PasswordPolicy policy = new PasswordPolicy(8, 128, true, true, true, false, 2, false, 3, BreachedPasswordIndex.disabled());
+
+        assertTrue(policy.isValid("Passw00rd", null));
+        assertTrue(PasswordRule.MAX_REPEAT.failed(policy.evaluate("Passw000rd", null)));
+        assertTrue(PasswordRule.MAX_REPEAT.failed(policy.evaluate("AAAbcdef1", null)));
+    }
+
+    @Test
+    void testUsernameContainmentIgnoresCase() {
+        assertTrue(PasswordRule.CONTAINS_USERNAME.failed(defaults.evaluate("MyALICEpass1", "alice")));
+        assertTrue(PasswordRule.CONTAINS_USERNAME.failed(defaults.evaluate("Password1alice", "alice")));
+        assertTrue(defaults.isValid("MyAlicPass1", "alice"));
+        // Usernames shorter than min-username-length are not checked
+        assertTrue(defaults.isValid("ValidPassword1", "Va"));
+    }
+
+    @Test
+    void testMaxLengthRule() {
+        PasswordPolicy policy = new PasswordPolicy(8, 10, true, true, true, false, 0, false, 3, BreachedPasswordIndex.disabled());
+
+        assertEquals(List.of(PasswordRule.MAX_LENGTH), PasswordRule.fromMask(policy.evaluate("ValidPassword1", null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PasswordPolicy(8, 4, true, true, true, false, 0, false, 3, BreachedPasswordIndex.disabled()));
+    }
+
+    @Test
+    void testBreachedPasswordRule(@TempDir Path dir) throws Exception {
+        Path list = Files.writeString(dir.resolve("breached.txt"), "Password123\nSummer2024!\n");
+        Path index = dir.resolve("breached.idx");
+        BreachedPasswordIndexBuilder.build(list, index, true, 1024);
+        PasswordPolicy policy = new PasswordPolicy(8, 128, true, true, true, false, 0, true, 3, new BreachedPasswordIndex(index));
+
+        assertEquals(List.of(PasswordRule.BREACHED), PasswordRule.fromMask(policy.evaluate("Password123", "testUser")));
+        assertTrue(policy.isValid("ValidPassword1", "testUser"));
+    }
+}
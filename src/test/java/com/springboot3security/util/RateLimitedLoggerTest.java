@@ -0,0 +1,50 @@
+package com.springboot3security.util;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RateLimitedLoggerTest {
+
+    private final Logger logger = mock(Logger.class);
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void testLogsUpToTheLimitAndReportsTheRestInTheNextInterval() {
+        when(logger.isInfoEnabled()).thenReturn(true);
+        RateLimitedLogger limited = new RateLimitedLogger(logger, 2, Duration.ofSeconds(10), now::get);
+
+        for (int i = 0; i < 5; i++) {
+            limited.info("Rejected token: {} ({})", "malformed", i);
+        }
+
+        verify(logger, times(2)).info(eq("Rejected token: {} ({})"), any(), any());
+        assertEquals(3, limited.getSuppressedCount());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        limited.info("Rejected token: {} ({})", "expired", 5);
+
+        verify(logger).info("{} similar messages suppressed in the last {} ms", 3L, 10_000L);
+        verify(logger).info("Rejected token: {} ({})", "expired", 5);
+        assertEquals(0, limited.getSuppressedCount());
+    }
+
+    @Test
+    void testNothingIsCountedWhenInfoIsOff() {
+        RateLimitedLogger limited = new RateLimitedLogger(logger, 0, Duration.ofSeconds(10), now::get);
+
+        limited.info("Rejected token: {} ({})", "malformed", null);
+
+        verify(logger, never()).info(anyString(), any(), any());
+        assertEquals(0, limited.getSuppressedCount());
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitedLogger(logger, 1, Duration.ZERO));
+    }
+}
@@ -0,0 +1,64 @@
+package com.springboot3security.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoleSetTest {
+
+    @Test
+    void testEveryCombinationIsInternedWithSharedAuthorities() {
+        RoleSet both = RoleSet.of(Role.ADMIN, Role.USER);
+
+        assertSame(both, RoleSet.of(Role.USER.bit() | Role.ADMIN.bit()));
+        assertSame(RoleSet.NONE, RoleSet.of());
+        assertSame(Role.USER.authority(), both.get(0));
+        assertSame(Role.ADMIN.authority(), both.get(1));
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN")), both);
+        assertEquals(List.of(), RoleSet.NONE);
+    }
+
+    @Test
+    void testMembershipIsABitTest() {
+        RoleSet user = RoleSet.of(Role.USER);
+
+        assertTrue(user.has(Role.USER));
+        assertFalse(user.has(Role.ADMIN));
+        assertTrue(user.contains(new SimpleGrantedAuthority("ROLE_USER")));
+        assertFalse(user.contains(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        assertFalse(user.contains(new SimpleGrantedAuthority("ROLE_TEST")));
+        assertFalse(user.contains("ROLE_USER"));
+    }
+
+    @Test
+    void testParseResolvesKnownNamesWithoutSplitting() {
+        assertSame(RoleSet.of(Role.USER, Role.ADMIN), RoleSet.parse("ROLE_ADMIN,ROLE_USER"));
+        assertSame(RoleSet.of(Role.USER), RoleSet.parse("ROLE_USER,ROLE_USER"));
+        assertSame(RoleSet.NONE, RoleSet.parse(""));
+        assertSame(RoleSet.NONE, RoleSet.parse(null));
+        assertNull(RoleSet.parse("ROLE_USER,ROLE_TEST"));
+        assertNull(RoleSet.parse("ROLE_USER,"));
+        assertNull(RoleSet.parse("USER"));
+    }
+
+    @Test
+    void testNamesOutsideTheRegistryStillBecomeAuthorities() {
+        List<GrantedAuthority> authorities = RoleSet.authorities("ROLE_USER,ROLE_TEST");
+
+        assertFalse(authorities instanceof RoleSet);
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_TEST")), authorities);
+        assertNull(RoleSet.from(authorities));
+        assertSame(RoleSet.of(Role.ADMIN), RoleSet.from(List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+    }
+
+    // A token from a node that knows more roles must not grant anything this node cannot name
+    @Test
+    void testUnknownBitsAreDropped() {
+        assertSame(RoleSet.of(Role.ADMIN), RoleSet.of(Role.ADMIN.bit() | 1 << 20));
+        assertSame(RoleSet.NONE, RoleSet.of(-1 & ~(Role.USER.bit() | Role.ADMIN.bit())));
+    }
+}